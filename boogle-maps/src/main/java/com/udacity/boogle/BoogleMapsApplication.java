@@ -16,6 +16,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import javax.validation.ConstraintViolationException;
 import java.io.InputStream;
@@ -25,6 +26,7 @@ import java.util.List;
 import static org.springframework.core.io.ResourceLoader.CLASSPATH_URL_PREFIX;
 
 @SpringBootApplication
+@EnableScheduling
 public class BoogleMapsApplication {
 
 	private static final Logger log = LoggerFactory.getLogger(BoogleMapsApplication.class);
@@ -48,8 +50,12 @@ public class BoogleMapsApplication {
 	@Bean
 	CommandLineRunner initDatabase(AddressService addressService, @Value("${"+PRELOAD_FILE+":"+DEFAULT_FILE+"}") String filePath) {
 		return args -> {
-			// load addresses from resources
-			if (!StringUtils.isBlank(filePath)) {
+			long existing = addressService.count();
+			if (existing > 0) {
+				// database persists between restarts
+				log.info("Database contains {} addresses, skipping load", existing);
+			} else if (!StringUtils.isBlank(filePath)) {
+				// load addresses from resources
 				Resource resource = resourceLoader.getResource(CLASSPATH_URL_PREFIX + filePath);
 				ObjectMapper objectMapper = new ObjectMapper();
 
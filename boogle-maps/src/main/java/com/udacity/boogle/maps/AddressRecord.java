@@ -11,6 +11,8 @@ public class AddressRecord {
     public static final double MAX_LATITUDE = 90;
     public static final double MIN_LONGITUDE = -180;
     public static final double MAX_LONGITUDE = 180;
+    public static final double UNASSIGNED_LATITUDE = MAX_LATITUDE + 1;    // invalid latitude i.e. not allocated to vehicle
+    public static final double UNASSIGNED_LONGITUDE = MAX_LONGITUDE + 1;  // invalid longitude i.e. not allocated to vehicle
 
     @Id
     @GeneratedValue
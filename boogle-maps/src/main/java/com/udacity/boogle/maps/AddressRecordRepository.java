@@ -1,9 +1,11 @@
 package com.udacity.boogle.maps;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -33,5 +35,48 @@ public interface AddressRecordRepository extends JpaRepository<AddressRecord, Lo
     @Query("SELECT m FROM #{#entityName} m WHERE m NOT IN (:addressRecords)")
     List<AddressRecord> findAllByNotIn(List<AddressRecord> addressRecords);
 
+    /**
+     * Set the location of all AddressRecords allocated to the specified vehicles
+     * @param ids - list of vehicle ids
+     * @param lat - latitude to set
+     * @param lon - longitude to set
+     * @return number of AddressRecords updated
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE #{#entityName} m SET m.lat=:lat, m.lon=:lon WHERE m.id IN " +
+            "(SELECT r.id FROM #{#entityName} r WHERE r.vehicle.id IN (:ids))")
+    int updateLocationByVehicleIdIn(Collection<Long> ids, Double lat, Double lon);
+
+    /**
+     * Set the location of all AddressRecords allocated to vehicles in the specified id range
+     * @param from - first vehicle id, inclusive
+     * @param to - last vehicle id, inclusive
+     * @param lat - latitude to set
+     * @param lon - longitude to set
+     * @return number of AddressRecords updated
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE #{#entityName} m SET m.lat=:lat, m.lon=:lon WHERE m.id IN " +
+            "(SELECT r.id FROM #{#entityName} r WHERE r.vehicle.id BETWEEN :from AND :to)")
+    int updateLocationByVehicleIdBetween(Long from, Long to, Double lat, Double lon);
+
+    /**
+     * Delete the address-vehicle mappings of the specified vehicles
+     * @param ids - list of vehicle ids
+     * @return number of mappings deleted
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM address_vehicle WHERE vehicle_id IN (:ids)", nativeQuery = true)
+    int deleteAllocationByVehicleIdIn(Collection<Long> ids);
+
+    /**
+     * Delete the address-vehicle mappings of vehicles in the specified id range
+     * @param from - first vehicle id, inclusive
+     * @param to - last vehicle id, inclusive
+     * @return number of mappings deleted
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM address_vehicle WHERE vehicle_id BETWEEN :from AND :to", nativeQuery = true)
+    int deleteAllocationByVehicleIdBetween(Long from, Long to);
 
 }
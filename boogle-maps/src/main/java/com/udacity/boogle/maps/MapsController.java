@@ -4,11 +4,16 @@ import com.udacity.boogle.service.AddressService;
 import com.udacity.boogle.service.VehicleService;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 import static com.udacity.boogle.config.Config.*;
 import static com.udacity.boogle.config.OpenApiConfig.*;
 
@@ -22,6 +27,8 @@ public class MapsController {
     public static final String LATITUDE_PARAM = "lat";
     public static final String LONGITUDE_PARAM = "lon";
     public static final String VEHICLE_ID_PARAM = "vehicleId";
+    public static final String FROM_PARAM = "from";
+    public static final String TO_PARAM = "to";
 
     private AddressService addressService;
     private VehicleService vehicleService;
@@ -34,7 +41,7 @@ public class MapsController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = NOT_FOUND, description = "A record could not be found matching the request, please verify the request parameters."),
     })
-    @GetMapping(MAPS_GET_URL)
+    @GetMapping(value = MAPS_GET_URL, produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
     public Address get(@RequestParam Double lat, @RequestParam Double lon, @RequestParam Long vehicleId) {
         if (!AddressRecord.latitudeIsValid(lat) || !AddressRecord.longitudeIsValid(lon)) {
             throw new InvalidLocationException();
@@ -50,6 +57,27 @@ public class MapsController {
         return addressService.deleteAddress(vehicleId);
     }
 
+    /**
+     * Release the address allocations of a list of vehicles
+     * @param vehicleIds - ids of vehicles
+     * @return number of allocations released
+     */
+    @PostMapping(MAPS_RELEASE_URL)
+    public long release(@RequestBody List<Long> vehicleIds) {
+        return addressService.releaseAllocations(vehicleIds);
+    }
+
+    /**
+     * Release the address allocations of a range of vehicles
+     * @param from - first vehicle id, inclusive
+     * @param to - last vehicle id, inclusive
+     * @return number of allocations released
+     */
+    @DeleteMapping(MAPS_RELEASE_URL)
+    public long release(@RequestParam Long from, @RequestParam Long to) {
+        return addressService.releaseAllocations(from, to);
+    }
+
     @GetMapping(VEHICLES_GET_URL)
     public long getVehicleCount() {
         return vehicleService.count();
@@ -1,12 +1,14 @@
 package com.udacity.boogle.maps;
 
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.Id;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 import java.util.Objects;
 
 @Entity
+@EntityListeners(VehicleCountListener.class)
 @Table(name = "vehicles", uniqueConstraints={@UniqueConstraint(columnNames={"id"})})
 public class Vehicle {
 
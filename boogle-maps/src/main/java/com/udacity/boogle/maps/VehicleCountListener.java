@@ -0,0 +1,26 @@
+package com.udacity.boogle.maps;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+
+/**
+ * Entity listener which keeps the {@link VehicleCounter} in step with the vehicles persisted and removed.
+ */
+public class VehicleCountListener {
+
+    private final VehicleCounter counter;
+
+    public VehicleCountListener(VehicleCounter counter) {
+        this.counter = counter;
+    }
+
+    @PostPersist
+    public void postPersist(Vehicle vehicle) {
+        counter.increment();
+    }
+
+    @PostRemove
+    public void postRemove(Vehicle vehicle) {
+        counter.decrement();
+    }
+}
@@ -0,0 +1,82 @@
+package com.udacity.boogle.maps;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Maintains the number of stored vehicles in memory, so it may be read without querying the database.
+ * <p>
+ * The count is updated by {@link VehicleCountListener} as vehicles are persisted and removed, and is
+ * periodically reconciled against the database to correct for statements which bypass the entity lifecycle.
+ * The count is also exposed as the <code>maps.vehicles.count</code> gauge.
+ */
+@Component
+public class VehicleCounter {
+
+    public static final String VEHICLES_COUNT_GAUGE = "maps.vehicles.count";
+
+    private final LongAdder count;
+
+    public VehicleCounter(MeterRegistry meterRegistry) {
+        this.count = new LongAdder();
+
+        Gauge.builder(VEHICLES_COUNT_GAUGE, this, VehicleCounter::get)
+                .description("Number of stored vehicles")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Increment the count, once the current transaction (if any) commits
+     */
+    public void increment() {
+        addOnCommit(1);
+    }
+
+    /**
+     * Decrement the count, once the current transaction (if any) commits
+     */
+    public void decrement() {
+        addOnCommit(-1);
+    }
+
+    /**
+     * Get the number of stored vehicles
+     * @return number of vehicles
+     */
+    public long get() {
+        return count.sum();
+    }
+
+    /**
+     * Reconcile the count against the database
+     * @param actual - supplier of the number of vehicles in the database
+     * @return correction applied to the count
+     */
+    public long reconcile(LongSupplier actual) {
+        long correction = actual.getAsLong() - count.sum();
+        if (correction != 0) {
+            count.add(correction);
+        }
+        return correction;
+    }
+
+    private void addOnCommit(long delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // don't count changes which are rolled back
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    count.add(delta);
+                }
+            });
+        } else {
+            count.add(delta);
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package com.udacity.boogle.service;
 
 import com.google.common.collect.Lists;
+import com.udacity.deadline.Deadline;
+import com.udacity.deadline.DeadlineExceededException;
 import com.udacity.boogle.maps.*;
+import com.udacity.events.ChangeEvent;
+import com.udacity.events.ChangeEventBus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.validation.Valid;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicReference;
@@ -18,11 +25,14 @@ public class AddressService {
 
     private VehicleRepository vehicleRepository;
 
+    private ChangeEventBus eventBus;
+
     public AddressService(AddressRecordRepository addressRecordRepository, VehicleService vehicleService,
-                          VehicleRepository vehicleRepository) {
+                          VehicleRepository vehicleRepository, ChangeEventBus eventBus) {
         this.repository = addressRecordRepository;
         this.vehicleService = vehicleService;
         this.vehicleRepository = vehicleRepository;
+        this.eventBus = eventBus;
     }
 
     /**
@@ -37,8 +47,21 @@ public class AddressService {
         } else{
             result = repository.findById(addressRecord.getId())
                     .map(carToBeUpdated -> {
+                        Vehicle previous = carToBeUpdated.getVehicle();
                         carToBeUpdated.setVehicle(addressRecord.getVehicle());
-                        return repository.save(carToBeUpdated);
+                        AddressRecord saved = repository.save(carToBeUpdated);
+                        if (!Objects.equals(previous, saved.getVehicle())) {
+                            // allocation changed for both the previous and new vehicles
+                            List<Long> vehicleIds = Lists.newArrayList();
+                            if (previous != null) {
+                                vehicleIds.add(previous.getId());
+                            }
+                            if (saved.getVehicle() != null) {
+                                vehicleIds.add(saved.getVehicle().getId());
+                            }
+                            eventBus.publish(ChangeEvent.of(ChangeEvent.Type.ADDRESS, vehicleIds));
+                        }
+                        return saved;
                     }).orElseThrow(AddressRecordNotFoundException::new);
         }
         return result;
@@ -76,8 +99,10 @@ public class AddressService {
      * @param lon - longitude
      * @param vehicleId - id of vehicle
      * @return
+     * @throws DeadlineExceededException if the deadline of the current request has passed
      */
     public Address getAddress(Double lat, Double lon, Long vehicleId) {
+        Deadline.check();
 
         AtomicReference<AddressRecord> selected = new AtomicReference<>();
 
@@ -94,6 +119,8 @@ public class AddressService {
             if (allNotAllocated.size() == 0) {
                 throw new AddressRecordNotFoundException();
             }
+            // caller has stopped waiting, don't change the allocation
+            Deadline.check();
 
             deleteAllocation(vehicleId);    // delete any existing allocation
 
@@ -143,6 +170,45 @@ public class AddressService {
                     .setVehicle(null);
             repository.save(addressRecord);
             result = 1;
+
+            eventBus.publish(ChangeEvent.of(ChangeEvent.Type.ADDRESS, vehicleId));
+        }
+        return result;
+    }
+
+    /**
+     * Release the address allocations of the specified vehicles
+     * @param vehicleIds - ids of vehicles
+     * @return number of allocations released
+     */
+    @Transactional
+    public long releaseAllocations(Collection<Long> vehicleIds) {
+        long result = 0;
+        if (!vehicleIds.isEmpty()) {
+            repository.updateLocationByVehicleIdIn(vehicleIds,
+                    AddressRecord.UNASSIGNED_LATITUDE, AddressRecord.UNASSIGNED_LONGITUDE);
+            result = repository.deleteAllocationByVehicleIdIn(vehicleIds);
+
+            eventBus.publish(ChangeEvent.of(ChangeEvent.Type.ADDRESS, vehicleIds));
+        }
+        return result;
+    }
+
+    /**
+     * Release the address allocations of vehicles in the specified id range
+     * @param from - first vehicle id, inclusive
+     * @param to - last vehicle id, inclusive
+     * @return number of allocations released
+     */
+    @Transactional
+    public long releaseAllocations(Long from, Long to) {
+        long result = 0;
+        if (from <= to) {
+            repository.updateLocationByVehicleIdBetween(from, to,
+                    AddressRecord.UNASSIGNED_LATITUDE, AddressRecord.UNASSIGNED_LONGITUDE);
+            result = repository.deleteAllocationByVehicleIdBetween(from, to);
+
+            eventBus.publish(ChangeEvent.range(ChangeEvent.Type.ADDRESS, from, to));
         }
         return result;
     }
@@ -156,8 +222,8 @@ public class AddressService {
     }
 
     private AddressRecord setUnassignedLocation(AddressRecord addressRecord) {
-        addressRecord.setLat(AddressRecord.MAX_LATITUDE + 1);  // invalid latitude i.e. not allocated to vehicle
-        addressRecord.setLon(AddressRecord.MAX_LONGITUDE + 1); // invalid longitude i.e. not allocated to vehicle
+        addressRecord.setLat(AddressRecord.UNASSIGNED_LATITUDE);
+        addressRecord.setLon(AddressRecord.UNASSIGNED_LONGITUDE);
         return addressRecord;
     }
 }
@@ -1,19 +1,30 @@
 package com.udacity.boogle.service;
 
 import com.udacity.boogle.maps.Vehicle;
+import com.udacity.boogle.maps.VehicleCounter;
 import com.udacity.boogle.maps.VehicleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import javax.validation.Valid;
 import java.util.List;
 
 @Service
 public class VehicleService {
 
+    private static final Logger log = LoggerFactory.getLogger(VehicleService.class);
+
+    public static final String COUNT_RECONCILE_INTERVAL = "maps.count.reconcile-interval";
+
     private VehicleRepository repository;
+    private VehicleCounter counter;
 
-    public VehicleService(VehicleRepository vehicleRepository) {
+    public VehicleService(VehicleRepository vehicleRepository, VehicleCounter vehicleCounter) {
         this.repository = vehicleRepository;
+        this.counter = vehicleCounter;
     }
 
     public Vehicle save(@Valid Vehicle vehicle) {
@@ -32,7 +43,24 @@ public class VehicleService {
         return repository.findAllId();
     }
 
+    /**
+     * Get the number of vehicles, from the in-memory count
+     * @return
+     */
     public long count() {
-        return repository.count();
+        return counter.get();
+    }
+
+    /**
+     * Reconcile the in-memory count of vehicles against the database
+     */
+    @PostConstruct
+    @Scheduled(initialDelayString = "${" + COUNT_RECONCILE_INTERVAL + ":30000}",
+            fixedDelayString = "${" + COUNT_RECONCILE_INTERVAL + ":30000}")
+    public void reconcileCount() {
+        long correction = counter.reconcile(repository::count);
+        if (correction != 0) {
+            log.debug("Vehicle count corrected by {}", correction);
+        }
     }
 }
@@ -2,9 +2,13 @@ package com.udacity.boogle.maps;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.udacity.boogle.config.Config;
 import com.udacity.boogle.service.AddressService;
 import com.udacity.boogle.service.VehicleService;
+import com.udacity.events.ChangeEvent;
+import com.udacity.events.ChangeEventBus;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.assertj.core.util.Lists;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,15 +23,23 @@ import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
+import static com.udacity.boogle.config.Config.APPLICATION_SMILE_VALUE;
 import static com.udacity.boogle.config.Config.MAPS_GET_URL;
+import static com.udacity.boogle.config.Config.MAPS_RELEASE_URL;
+import static com.udacity.deadline.Deadline.REQUEST_TIMEOUT_HEADER;
+import static com.udacity.boogle.config.Config.VEHICLES_GET_URL;
 import static com.udacity.boogle.maps.MapsController.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -51,6 +63,12 @@ public class MapsControllerTest extends AbstractTest {
     @Autowired
     VehicleRepository vehicleRepository;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    ChangeEventBus eventBus;
+
     @BeforeAll
     public static void beforeAll() {
         AbstractTest.beforeAll();
@@ -104,6 +122,47 @@ public class MapsControllerTest extends AbstractTest {
         getAddressAndVerify(MAPS_GET_URL, LAT_0, LON_0, CAR_ID);
     }
 
+    @DisplayName("Get address as binary json")
+    @Test
+    public void binaryAddress() throws Exception {
+        Address address = getAddressAndVerify(MAPS_GET_URL, LAT_0, LON_0, CAR_ID);
+        MediaType smile = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+        ObjectMapper smileMapper = new SmileMapper();
+
+        mockMvc.perform(
+            get(getMapUri(MAPS_GET_URL, LAT_0, LON_0, CAR_ID))
+                    .accept(smile, MediaType.valueOf(MediaType.APPLICATION_JSON_VALUE + ";q=0.9")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(smile))
+                .andExpect(mvcResult -> assertEquals(address,
+                        smileMapper.readValue(mvcResult.getResponse().getContentAsByteArray(), Address.class)));
+    }
+
+    @DisplayName("Deadline honoured")
+    @Test
+    public void deadline() throws Exception {
+        // expired budget is rejected
+        mockMvc.perform(
+            get(getMapUri(MAPS_GET_URL, LAT_0, LON_0, CAR_ID))
+                    .header(REQUEST_TIMEOUT_HEADER, 0))
+                .andExpect(status().isGatewayTimeout());
+        assertNull(addressRecordRepository.findAddressRecordByVehicleId(CAR_ID));
+
+        mockMvc.perform(
+            get(getMapUri(MAPS_GET_URL, LAT_0, LON_0, CAR_ID))
+                    .header(REQUEST_TIMEOUT_HEADER, 5000))
+                .andExpect(status().isOk());
+
+        // work is aborted once the deadline has passed
+        Deadline.bind(Deadline.in(0));
+        try {
+            assertThrows(DeadlineExceededException.class, () -> addressService.getAddress(LAT_0, LON_0, CAR_ID + 1));
+        } finally {
+            Deadline.clear();
+        }
+        assertNull(addressRecordRepository.findAddressRecordByVehicleId(CAR_ID + 1));
+    }
+
     Address getAddressAndVerify(String baseUrl, double lat, double lon, long id) throws Exception {
         AtomicReference<Address> response = new AtomicReference<>();
         mockMvc.perform(
@@ -167,6 +226,27 @@ public class MapsControllerTest extends AbstractTest {
 
     }
 
+    @DisplayName("Vehicle count maintained in memory")
+    @Test
+    public void vehicleCount() throws Exception {
+
+        getAddressAndVerify(MAPS_GET_URL, LAT_0, LON_0, CAR_ID);
+        getAddressAndVerify(MAPS_GET_URL, LAT_0, LON_0, CAR_ID + 1);
+        // moving an existing vehicle doesn't change the count
+        getAddressAndVerify(MAPS_GET_URL, LAT_1, LON_1, CAR_ID);
+
+        mockMvc.perform(
+            get(VEHICLES_GET_URL))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+
+        assertEquals(vehicleRepository.count(), vehicleService.count());
+        assertEquals(2.0, meterRegistry.get(VehicleCounter.VEHICLES_COUNT_GAUGE).gauge().value());
+
+        vehicleService.reconcileCount();
+        assertEquals(2, vehicleService.count());
+    }
+
     @DisplayName("Delete address allocation")
     @Test
     public void deleteAddress() throws Exception {
@@ -186,6 +266,73 @@ public class MapsControllerTest extends AbstractTest {
         assignAllAndVerify();
     }
 
+    @DisplayName("Address change events published")
+    @Test
+    public void addressChangeEvents() throws Exception {
+        List<ChangeEvent> received = new CopyOnWriteArrayList<>();
+        Consumer<ChangeEvent> subscriber = received::add;
+        eventBus.subscribe(subscriber);
+
+        try {
+            getAddressAndVerify(MAPS_GET_URL, LAT_0, LON_0, CAR_ID);
+            // new allocation, nothing to invalidate
+            assertTrue(received.isEmpty());
+
+            // moving releases the previous allocation
+            getAddressAndVerify(MAPS_GET_URL, LAT_1, LON_1, CAR_ID);
+            assertEquals(List.of(ChangeEvent.of(ChangeEvent.Type.ADDRESS, CAR_ID)), received);
+
+            received.clear();
+            mockMvc.perform(
+                delete(getReleaseUri(MAPS_RELEASE_URL, CAR_ID, CAR_ID + 1)))
+                    .andExpect(status().isOk());
+            assertEquals(List.of(ChangeEvent.range(ChangeEvent.Type.ADDRESS, CAR_ID, CAR_ID + 1)), received);
+        } finally {
+            eventBus.unsubscribe(subscriber);
+        }
+    }
+
+    @DisplayName("Bulk release address allocations by list")
+    @Test
+    public void releaseAddresses() throws Exception {
+
+        assignAllAndVerify();
+
+        List<Long> vehicleIds = LongStream.range(CAR_ID, repositoryAddressRecords.size() + CAR_ID)
+                .boxed()
+                .collect(Collectors.toList());
+        mockMvc.perform(
+            post(MAPS_RELEASE_URL)
+                    .content(objectMapper.writeValueAsString(vehicleIds))
+                    .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string(Integer.toString(vehicleIds.size())));
+
+        assignAllAndVerify();
+    }
+
+    @DisplayName("Bulk release address allocations by range")
+    @Test
+    public void releaseAddressRange() throws Exception {
+
+        assignAllAndVerify();
+
+        long to = repositoryAddressRecords.size() + CAR_ID - 1;
+        mockMvc.perform(
+            delete(getReleaseUri(MAPS_RELEASE_URL, CAR_ID, to)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string(Integer.toString(repositoryAddressRecords.size())));
+
+        mockMvc.perform(
+            delete(getReleaseUri(MAPS_RELEASE_URL, CAR_ID, to)))
+                .andExpect(status().isOk())
+                .andExpect(content().string("0"));
+
+        assignAllAndVerify();
+    }
+
 
     private Address assertValidAddress(Address address) {
         assertFalse(StringUtils.isBlank(address.getAddress()));
@@ -219,4 +366,16 @@ public class MapsControllerTest extends AbstractTest {
         return uri;
     }
 
+    public static URI getReleaseUri(String baseUrl, long from, long to) {
+        URI uri = null;
+        try {
+            uri = new URI(
+                    Config.getUrl(baseUrl, Map.of(FROM_PARAM, from, TO_PARAM, to)));
+        } catch (URISyntaxException e) {
+            e.printStackTrace();
+            fail();
+        }
+        return uri;
+    }
+
 }
\ No newline at end of file
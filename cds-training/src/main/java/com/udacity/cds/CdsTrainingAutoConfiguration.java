@@ -0,0 +1,22 @@
+package com.udacity.cds;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static com.udacity.cds.CdsTrainingRun.*;
+
+/**
+ * Auto-configuration of the class data sharing training run, enabled by the <code>cds.training</code> property.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = CDS_TRAINING, havingValue = "true")
+public class CdsTrainingAutoConfiguration {
+
+    @Bean
+    public CdsTrainingRun cdsTrainingRun(
+            @Value("${" + CDS_TRAINING_PATH + ":" + DEFAULT_CDS_TRAINING_PATH + "}") String path) {
+        return new CdsTrainingRun(path);
+    }
+}
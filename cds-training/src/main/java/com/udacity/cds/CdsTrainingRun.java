@@ -0,0 +1,51 @@
+package com.udacity.cds;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Training run for the class data sharing archive, enabled by <code>cds.training</code>.
+ * Once the application is ready, a request is made to <code>cds.training.path</code> so the classes used to serve
+ * it are loaded, and the application exits.
+ */
+public class CdsTrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+
+    public static final String CDS_TRAINING = "cds.training";
+    public static final String CDS_TRAINING_PATH = "cds.training.path";
+    public static final String DEFAULT_CDS_TRAINING_PATH = "/";
+
+    private static final Logger log = LoggerFactory.getLogger(CdsTrainingRun.class);
+
+    private final String path;
+
+    /**
+     * Constructor
+     * @param path - path of the training request
+     */
+    public CdsTrainingRun(String path) {
+        this.path = path;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        String port = context.getEnvironment().getProperty("local.server.port");
+        try {
+            HttpURLConnection connection =
+                    (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+            log.info("Training request to {} returned {}", path, connection.getResponseCode());
+            connection.disconnect();
+        } catch (IOException e) {
+            log.warn("Training request to {} failed: {}", path, e.getMessage());
+        }
+        System.exit(SpringApplication.exit(context));
+    }
+}
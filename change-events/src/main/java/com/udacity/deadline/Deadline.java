@@ -0,0 +1,97 @@
+package com.udacity.deadline;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline by which the current request must complete.
+ * A deadline is bound to the thread handling a request by the {@link DeadlineFilter}, from the time budget in the
+ * <code>X-Request-Timeout</code> header.
+ */
+public final class Deadline {
+
+    public static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long expires;
+
+    private Deadline(long expires) {
+        this.expires = expires;
+    }
+
+    /**
+     * Create a deadline
+     * @param millis - time budget in milliseconds
+     * @return deadline
+     */
+    public static Deadline in(long millis) {
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    /**
+     * Parse a time budget
+     * @param millis - time budget in milliseconds
+     * @return time budget, or empty if not specified or invalid
+     */
+    public static Optional<Long> parse(String millis) {
+        Optional<Long> budget = Optional.empty();
+        if (millis != null) {
+            try {
+                budget = Optional.of(Long.parseLong(millis.trim()));
+            } catch (NumberFormatException e) {
+                // ignore invalid budget
+            }
+        }
+        return budget;
+    }
+
+    /**
+     * Get the remaining time budget
+     * @return remaining time in milliseconds, or 0 if expired
+     */
+    public long remaining() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(expires - System.nanoTime()));
+    }
+
+    /**
+     * Check if the deadline has passed
+     * @return <code>true</code> if expired
+     */
+    public boolean isExpired() {
+        return expires - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Get the deadline of the current request
+     * @return deadline, or empty if none is bound to the current thread
+     */
+    public static Optional<Deadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Bind a deadline to the current thread
+     * @param deadline - deadline
+     */
+    public static void bind(Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    /**
+     * Remove the deadline bound to the current thread
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Abort the current request if its deadline has passed
+     * @throws DeadlineExceededException if the deadline has passed
+     */
+    public static void check() {
+        if (current().map(Deadline::isExpired).orElse(false)) {
+            throw new DeadlineExceededException();
+        }
+    }
+}
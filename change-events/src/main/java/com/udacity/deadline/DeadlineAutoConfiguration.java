@@ -0,0 +1,24 @@
+package com.udacity.deadline;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static com.udacity.deadline.DeadlineFilter.REQUEST_TIMEOUT;
+
+/**
+ * Auto-configuration of the request deadline filter in servlet web applications, with the default time budget
+ * configured by the <code>request.timeout</code> property.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class DeadlineAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public DeadlineFilter deadlineFilter(@Value("${" + REQUEST_TIMEOUT + ":0}") long timeout) {
+        return new DeadlineFilter(timeout);
+    }
+}
@@ -0,0 +1,15 @@
+package com.udacity.deadline;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.GATEWAY_TIMEOUT, reason = "Deadline exceeded")
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException() {
+    }
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,56 @@
+package com.udacity.deadline;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Optional;
+
+import static com.udacity.deadline.Deadline.REQUEST_TIMEOUT_HEADER;
+
+/**
+ * Binds the deadline of a request from the time budget in its <code>X-Request-Timeout</code> header, so work is
+ * aborted once the caller has stopped waiting for it. If a default budget is configured by the
+ * <code>request.timeout</code> property, it applies to requests without a budget and limits the budget of those
+ * with one. A request whose budget has already expired is rejected.
+ */
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_TIMEOUT = "request.timeout";
+
+    /** Default time budget in ms, or 0 if none */
+    private final long timeout;
+
+    /**
+     * Constructor
+     * @param timeout - default time budget in ms, or 0 if none
+     */
+    public DeadlineFilter(long timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Optional<Long> budget = Deadline.parse(request.getHeader(REQUEST_TIMEOUT_HEADER));
+        if (timeout > 0) {
+            budget = Optional.of(budget.map(millis -> Math.min(millis, timeout)).orElse(timeout));
+        }
+        if (budget.isEmpty()) {
+            filterChain.doFilter(request, response);
+        } else if (budget.get() <= 0) {
+            response.sendError(HttpStatus.GATEWAY_TIMEOUT.value(), "Deadline exceeded");
+        } else {
+            Deadline.bind(Deadline.in(budget.get()));
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                Deadline.clear();
+            }
+        }
+    }
+}
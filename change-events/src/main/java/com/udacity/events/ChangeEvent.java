@@ -0,0 +1,144 @@
+package com.udacity.events;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Represents a change to the price or address allocation records of a set of vehicles.
+ * The vehicles are identified either by a list of ids, or by an inclusive id range.
+ */
+public class ChangeEvent {
+
+    public enum Type { PRICE, ADDRESS }
+
+    private Type type;
+
+    private List<Long> vehicleIds;
+
+    private Long from;
+
+    private Long to;
+
+    public ChangeEvent() {
+        this.vehicleIds = new ArrayList<>();
+    }
+
+    public ChangeEvent(Type type, List<Long> vehicleIds, Long from, Long to) {
+        this.type = type;
+        this.vehicleIds = vehicleIds;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Create an event for a list of vehicles
+     * @param type - type of record changed
+     * @param vehicleIds - ids of vehicles
+     * @return event
+     */
+    public static ChangeEvent of(Type type, Collection<Long> vehicleIds) {
+        return new ChangeEvent(type, new ArrayList<>(vehicleIds), null, null);
+    }
+
+    /**
+     * Create an event for a vehicle
+     * @param type - type of record changed
+     * @param vehicleId - id of vehicle
+     * @return event
+     */
+    public static ChangeEvent of(Type type, Long vehicleId) {
+        return of(type, List.of(vehicleId));
+    }
+
+    /**
+     * Create an event for a range of vehicles
+     * @param type - type of record changed
+     * @param from - first vehicle id, inclusive
+     * @param to - last vehicle id, inclusive
+     * @return event
+     */
+    public static ChangeEvent range(Type type, Long from, Long to) {
+        return new ChangeEvent(type, new ArrayList<>(), from, to);
+    }
+
+    /**
+     * Check if the event applies to a vehicle
+     * @param vehicleId - id of vehicle
+     * @return <code>true</code> if applies
+     */
+    public boolean appliesTo(Long vehicleId) {
+        boolean applies = vehicleIds != null && vehicleIds.contains(vehicleId);
+        if (!applies && from != null && to != null && vehicleId != null) {
+            applies = vehicleId >= from && vehicleId <= to;
+        }
+        return applies;
+    }
+
+    /**
+     * Check if the event is for a range of vehicles
+     * @return <code>true</code> if range
+     */
+    @JsonIgnore
+    public boolean isRange() {
+        return from != null && to != null;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public List<Long> getVehicleIds() {
+        return vehicleIds;
+    }
+
+    public void setVehicleIds(List<Long> vehicleIds) {
+        this.vehicleIds = vehicleIds;
+    }
+
+    public Long getFrom() {
+        return from;
+    }
+
+    public void setFrom(Long from) {
+        this.from = from;
+    }
+
+    public Long getTo() {
+        return to;
+    }
+
+    public void setTo(Long to) {
+        this.to = to;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ChangeEvent that = (ChangeEvent) o;
+        return type == that.type && Objects.equals(vehicleIds, that.vehicleIds) && Objects.equals(from, that.from) && Objects.equals(to, that.to);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, vehicleIds, from, to);
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent{" +
+                "type=" + type +
+                ", vehicleIds=" + vehicleIds +
+                ", from=" + from +
+                ", to=" + to +
+                '}';
+    }
+}
@@ -0,0 +1,70 @@
+package com.udacity.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process publish/subscribe channel for {@link ChangeEvent}s.
+ * <p>
+ * Events published within a transaction are only delivered once the transaction commits, so subscribers
+ * never see changes which are rolled back. The bus is registered by {@link ChangeEventsAutoConfiguration}.
+ */
+public class ChangeEventBus {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeEventBus.class);
+
+    private final List<Consumer<ChangeEvent>> subscribers;
+
+    public ChangeEventBus() {
+        this.subscribers = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Subscribe to events
+     * @param subscriber - event consumer
+     */
+    public void subscribe(Consumer<ChangeEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Unsubscribe from events
+     * @param subscriber - event consumer
+     */
+    public void unsubscribe(Consumer<ChangeEvent> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Publish an event to all subscribers, once the current transaction (if any) commits
+     * @param event - event to publish
+     */
+    public void publish(ChangeEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deliver(event);
+                }
+            });
+        } else {
+            deliver(event);
+        }
+    }
+
+    private void deliver(ChangeEvent event) {
+        subscribers.forEach(subscriber -> {
+            try {
+                subscriber.accept(event);
+            } catch (Exception e) {
+                log.warn("Subscriber failed to handle {}: {}", event, e.getMessage());
+            }
+        });
+    }
+}
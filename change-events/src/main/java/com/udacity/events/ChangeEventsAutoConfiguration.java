@@ -0,0 +1,39 @@
+package com.udacity.events;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static com.udacity.events.WebhookPublisher.*;
+
+/**
+ * Auto-configuration of the change event bus, and of the webhook publisher if a subscribing service is configured
+ * by the <code>events.webhook.service-id</code> property.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ChangeEventsAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ChangeEventBus changeEventBus() {
+        return new ChangeEventBus();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(EVENTS_WEBHOOK_SERVICE_ID)
+    public WebhookPublisher webhookPublisher(
+            ChangeEventBus eventBus, DiscoveryClient discoveryClient, RestTemplateBuilder restTemplateBuilder,
+            @Value("${" + EVENTS_WEBHOOK_SERVICE_ID + "}") String serviceId,
+            @Value("${" + EVENTS_WEBHOOK_PATH + ":" + DEFAULT_EVENTS_WEBHOOK_PATH + "}") String path,
+            @Value("${" + EVENTS_WEBHOOK_RETRY_DELAY + ":" + DEFAULT_EVENTS_WEBHOOK_RETRY_DELAY + "}") long retryDelay,
+            @Value("${" + EVENTS_WEBHOOK_MAX_RETRY_DELAY + ":" + DEFAULT_EVENTS_WEBHOOK_MAX_RETRY_DELAY + "}") long maxRetryDelay,
+            @Value("${" + EVENTS_WEBHOOK_MAX_ATTEMPTS + ":" + DEFAULT_EVENTS_WEBHOOK_MAX_ATTEMPTS + "}") int maxAttempts) {
+        return new WebhookPublisher(eventBus, discoveryClient, restTemplateBuilder.build(),
+                serviceId, path, retryDelay, maxRetryDelay, maxAttempts);
+    }
+}
@@ -0,0 +1,149 @@
+package com.udacity.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Forwards the {@link ChangeEvent}s published on the {@link ChangeEventBus} to the webhook of each instance of the
+ * subscribing service, as registered with the discovery service.
+ * <p>
+ * Events are posted from a background thread, so publishers are not delayed by subscribers, and events
+ * raised while a post is in progress are batched into the next post. A failed post is retried with an exponential
+ * backoff, until the maximum number of attempts is reached.
+ */
+public class WebhookPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookPublisher.class);
+
+    public static final String EVENTS_WEBHOOK_SERVICE_ID = "events.webhook.service-id";
+    public static final String EVENTS_WEBHOOK_PATH = "events.webhook.path";
+    public static final String EVENTS_WEBHOOK_RETRY_DELAY = "events.webhook.retry-delay";
+    public static final String EVENTS_WEBHOOK_MAX_RETRY_DELAY = "events.webhook.max-retry-delay";
+    public static final String EVENTS_WEBHOOK_MAX_ATTEMPTS = "events.webhook.max-attempts";
+
+    public static final String DEFAULT_EVENTS_WEBHOOK_PATH = "/events";
+    public static final String DEFAULT_EVENTS_WEBHOOK_RETRY_DELAY = "500";
+    public static final String DEFAULT_EVENTS_WEBHOOK_MAX_RETRY_DELAY = "30000";
+    public static final String DEFAULT_EVENTS_WEBHOOK_MAX_ATTEMPTS = "8";
+
+    private final DiscoveryClient discoveryClient;
+    private final RestTemplate restTemplate;
+    private final String serviceId;
+    private final String path;
+    private final long retryDelay;
+    private final long maxRetryDelay;
+    private final int maxAttempts;
+    private final LinkedBlockingQueue<ChangeEvent> pending;
+    private final AtomicBoolean scheduled;
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Constructor
+     * @param eventBus - bus to forward events from
+     * @param discoveryClient - client to resolve the instances of the subscribing service
+     * @param restTemplate - template to post events with
+     * @param serviceId - id of the subscribing service
+     * @param path - path of the webhook of the subscribing service
+     * @param retryDelay - delay in ms before the first retry of a failed post
+     * @param maxRetryDelay - maximum delay in ms between retries
+     * @param maxAttempts - maximum number of attempts to post events
+     */
+    public WebhookPublisher(ChangeEventBus eventBus, DiscoveryClient discoveryClient, RestTemplate restTemplate,
+                            String serviceId, String path, long retryDelay, long maxRetryDelay, int maxAttempts) {
+        this.discoveryClient = discoveryClient;
+        this.restTemplate = restTemplate;
+        this.serviceId = serviceId;
+        this.path = path;
+        this.retryDelay = retryDelay;
+        this.maxRetryDelay = maxRetryDelay;
+        this.maxAttempts = maxAttempts;
+        this.pending = new LinkedBlockingQueue<>();
+        this.scheduled = new AtomicBoolean(false);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "webhook-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        eventBus.subscribe(this::send);
+    }
+
+    private void send(ChangeEvent event) {
+        pending.add(event);
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::flush);
+        }
+    }
+
+    private void flush() {
+        scheduled.set(false);
+        List<ChangeEvent> events = new ArrayList<>();
+        pending.drainTo(events);
+        if (!events.isEmpty()) {
+            List<ServiceInstance> instances = discoveryClient.getInstances(serviceId);
+            if (instances.isEmpty()) {
+                log.debug("No instances of {} to post {} events to", serviceId, events.size());
+            }
+            instances.forEach(instance -> post(webhookUri(instance), events, 1));
+        }
+    }
+
+    /**
+     * Post events to a webhook, scheduling a retry if the post fails
+     * @param uri - webhook uri
+     * @param events - events to post
+     * @param attempt - number of this attempt
+     */
+    private void post(URI uri, List<ChangeEvent> events, int attempt) {
+        try {
+            restTemplate.postForEntity(uri, events, Void.class);
+        } catch (RestClientException e) {
+            if (attempt < maxAttempts && !executor.isShutdown()) {
+                long delay = backoff(attempt);
+                log.debug("Unable to post {} events to {}, retry in {}ms: {}", events.size(), uri, delay,
+                        e.getMessage());
+                executor.schedule(() -> post(uri, events, attempt + 1), delay, TimeUnit.MILLISECONDS);
+            } else {
+                log.warn("Unable to post {} events to {} after {} attempts: {}", events.size(), uri, attempt,
+                        e.getMessage());
+            }
+        }
+    }
+
+    private URI webhookUri(ServiceInstance instance) {
+        return UriComponentsBuilder.fromUri(instance.getUri())
+                .path(path)
+                .build()
+                .toUri();
+    }
+
+    /**
+     * Get the delay before the next attempt of a post
+     * @param attempts - number of failed attempts
+     * @return delay in milliseconds
+     */
+    private long backoff(int attempts) {
+        long delay = retryDelay << Math.min(attempts - 1, 20);
+        return Math.min(delay, maxRetryDelay);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,114 @@
+package com.udacity.events;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Implements testing of the WebhookPublisher class.
+ */
+public class WebhookPublisherTest {
+
+    private static final String SERVICE_ID = "subscriber";
+    private static final String PATH = "/events";
+    private static final int MAX_ATTEMPTS = 3;
+
+    private HttpServer server;
+    private AtomicInteger failures;
+    private AtomicInteger attempts;
+    private LinkedBlockingQueue<String> received;
+    private ChangeEventBus eventBus;
+    private WebhookPublisher publisher;
+
+    @BeforeEach
+    public void beforeEach() throws IOException {
+        failures = new AtomicInteger();
+        attempts = new AtomicInteger();
+        received = new LinkedBlockingQueue<>();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(PATH, exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                attempts.incrementAndGet();
+                if (failures.getAndDecrement() > 0) {
+                    exchange.sendResponseHeaders(HttpStatus.SERVICE_UNAVAILABLE.value(), -1);
+                } else {
+                    received.add(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+                    exchange.sendResponseHeaders(HttpStatus.OK.value(), -1);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        InetSocketAddress address = server.getAddress();
+        DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+        given(discoveryClient.getInstances(SERVICE_ID)).willReturn(List.of(
+                new DefaultServiceInstance("1", SERVICE_ID, address.getHostString(), address.getPort(), false)));
+
+        eventBus = new ChangeEventBus();
+        publisher = new WebhookPublisher(eventBus, discoveryClient, new RestTemplate(), SERVICE_ID, PATH,
+                10, 50, MAX_ATTEMPTS);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        publisher.shutdown();
+        server.stop(0);
+    }
+
+    /**
+     * Tests events are posted to the discovered instances of the subscribing service, and failed posts are retried.
+     *
+     * @throws Exception if interrupted while waiting for the events
+     */
+    @DisplayName("Post events with retry")
+    @Test
+    public void postWithRetry() throws Exception {
+        failures.set(MAX_ATTEMPTS - 1);
+        eventBus.publish(ChangeEvent.of(ChangeEvent.Type.PRICE, 1L));
+
+        String events = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(events, "events received after retries");
+        assertTrue(events.contains("\"vehicleIds\":[1]"));
+        assertEquals(MAX_ATTEMPTS, attempts.get());
+    }
+
+    /**
+     * Tests events are dropped once the maximum number of attempts to post them have failed.
+     *
+     * @throws Exception if interrupted while waiting for the events
+     */
+    @DisplayName("Drop events after max attempts")
+    @Test
+    public void dropAfterMaxAttempts() throws Exception {
+        failures.set(MAX_ATTEMPTS);
+        eventBus.publish(ChangeEvent.of(ChangeEvent.Type.ADDRESS, 1L));
+
+        assertNull(received.poll(500, TimeUnit.MILLISECONDS));
+        assertEquals(MAX_ATTEMPTS, attempts.get());
+    }
+}
@@ -1,9 +1,6 @@
 package com.udacity.pricing;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.udacity.pricing.domain.price.Price;
-import com.udacity.pricing.domain.price.PriceRepository;
+import com.udacity.pricing.service.PreloadService;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,15 +14,12 @@ import org.springframework.core.annotation.Order;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
-import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
-import javax.sql.DataSource;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
-import java.util.List;
 
 import static org.springframework.core.io.ResourceLoader.CLASSPATH_URL_PREFIX;
 
@@ -37,6 +31,7 @@ import static org.springframework.core.io.ResourceLoader.CLASSPATH_URL_PREFIX;
 @SpringBootApplication
 @EnableJpaRepositories
 @EnableTransactionManagement
+@EnableScheduling
 public class PricingServiceApplication {
 
     private static final Logger log = LoggerFactory.getLogger(PricingServiceApplication.class);
@@ -52,36 +47,28 @@ public class PricingServiceApplication {
         SpringApplication.run(PricingServiceApplication.class, args);
     }
 
-    /**
-     * Bootstraps an in-memory H2 database.
-     */
-    @Order(1)
-    @Bean
-    public DataSource dataSource(@Value("${database_name}") String databaseName) {
-        EmbeddedDatabaseBuilder builder = new EmbeddedDatabaseBuilder();
-        return builder.setType(EmbeddedDatabaseType.H2)
-                .setName(databaseName)
-                .build();
-    }
-
     public static final String PRELOAD_FILE = "preload.file";
 
+    /**
+     * Loads prices from the preload file.
+     * The load is skipped if the file is unchanged since the previous load, otherwise only the prices which differ
+     * from the database are saved.
+     */
     @Order(2)
     @Bean
-    public CommandLineRunner run(PriceRepository priceRepository, @Value("${"+PRELOAD_FILE+":}") String filePath) {
+    public CommandLineRunner run(PreloadService preloadService, @Value("${"+PRELOAD_FILE+":}") String filePath) {
         return args -> {
             if (!StringUtils.isBlank(filePath)) {
                 // load prices from resources
                 Resource resource = resourceLoader.getResource(CLASSPATH_URL_PREFIX + filePath);
-                ObjectMapper objectMapper = new ObjectMapper();
-                TypeReference<List<Price>> mapType = new TypeReference<>() {
-                };
 
                 try (InputStream is = resource.getInputStream()) {
-                    List<Price> priceList = objectMapper.readValue(is, mapType);
-                    priceRepository.saveAll(priceList);
-
-                    log.info("Loaded {} prices", priceRepository.count());
+                    int applied = preloadService.preloadPrices(filePath, is.readAllBytes());
+                    if (applied == PreloadService.UNCHANGED) {
+                        log.info("Prices unchanged in {}, skipping load", filePath);
+                    } else {
+                        log.info("Loaded {} price changes", applied);
+                    }
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
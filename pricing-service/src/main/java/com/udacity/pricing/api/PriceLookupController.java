@@ -0,0 +1,75 @@
+package com.udacity.pricing.api;
+
+import com.udacity.pricing.domain.price.PriceDto;
+import com.udacity.pricing.service.PricingService;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static com.udacity.pricing.config.Config.APPLICATION_SMILE_VALUE;
+import static com.udacity.pricing.config.Config.PRICING_LEAN_COUNT_URL;
+import static com.udacity.pricing.config.Config.PRICING_LEAN_DELETE_URL;
+import static com.udacity.pricing.config.Config.PRICING_LEAN_GET_BY_VEHICLEID_URL;
+import static com.udacity.pricing.config.OpenApiConfig.*;
+
+/**
+ * Implements a REST-based controller providing compact json versions of the high-volume price lookups and deletes.
+ * Unlike the Spring Data REST endpoints, responses are plain json with no hypermedia links, or binary Smile json
+ * if preferred by the client.
+ */
+@RestController
+@ApiResponses(value = {
+    @ApiResponse(responseCode = BAD_REQUEST, description = "This is a bad request, please follow the API documentation for the proper request format."),
+    @ApiResponse(responseCode = INTERNAL_SERVER_ERROR, description = "The server is down. Please make sure that the Pricing microservice is running.")
+})
+public class PriceLookupController {
+
+    public static final String VEHICLE_ID_PARAM = "vehicleId";
+
+    private final PricingService pricingService;
+
+    public PriceLookupController(PricingService pricingService) {
+        this.pricingService = pricingService;
+    }
+
+    /**
+     * Get the price of a vehicle.
+     * @param vehicleId id of vehicle
+     * @return the price
+     */
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = NOT_FOUND, description = "A record could not be found matching the request, please verify the request parameters."),
+    })
+    @GetMapping(value = PRICING_LEAN_GET_BY_VEHICLEID_URL, produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+    public PriceDto findPriceByVehicleId(@RequestParam(VEHICLE_ID_PARAM) Long vehicleId) {
+        return pricingService.findByVehicleId(vehicleId);
+    }
+
+    /**
+     * Delete the prices of a list of vehicles.
+     * @param vehicleIds ids of vehicles
+     * @return number of prices deleted
+     */
+    @PostMapping(value = PRICING_LEAN_DELETE_URL,
+            consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+    public long deletePrices(@RequestBody List<Long> vehicleIds) {
+        return pricingService.deleteAll(vehicleIds);
+    }
+
+    /**
+     * Get the number of stored prices.
+     * @return number of prices
+     */
+    @GetMapping(value = PRICING_LEAN_COUNT_URL, produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+    public long countPrices() {
+        return pricingService.count();
+    }
+}
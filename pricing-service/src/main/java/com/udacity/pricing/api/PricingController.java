@@ -0,0 +1,73 @@
+package com.udacity.pricing.api;
+
+import com.udacity.pricing.domain.price.Price;
+import com.udacity.pricing.domain.price.PriceRequest;
+import com.udacity.pricing.service.PricingService;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static com.udacity.pricing.config.Config.APPLICATION_SMILE_VALUE;
+import static com.udacity.pricing.config.Config.PRICING_QUOTE_BATCH_URL;
+import static com.udacity.pricing.config.Config.PRICING_QUOTE_BY_VEHICLEID_URL;
+import static com.udacity.pricing.config.Config.PRICING_QUOTE_URL;
+import static com.udacity.pricing.config.OpenApiConfig.*;
+
+/**
+ * Implements a REST-based controller to compute vehicle prices.
+ * Requests and responses may be json, or binary Smile json.
+ */
+@RestController
+@ApiResponses(value = {
+    @ApiResponse(responseCode = BAD_REQUEST, description = "This is a bad request, please follow the API documentation for the proper request format."),
+    @ApiResponse(responseCode = INTERNAL_SERVER_ERROR, description = "The server is down. Please make sure that the Pricing microservice is running.")
+})
+public class PricingController {
+
+    private final PricingService pricingService;
+
+    public PricingController(PricingService pricingService) {
+        this.pricingService = pricingService;
+    }
+
+    /**
+     * Compute the price of a vehicle, without storing it.
+     * @param request vehicle attributes
+     * @return the price
+     */
+    @PostMapping(PRICING_QUOTE_URL)
+    public Price quote(@RequestBody PriceRequest request) {
+        return pricingService.quote(request);
+    }
+
+    /**
+     * Compute and store the price of a vehicle, replacing any existing price.
+     * This operation is idempotent, and costs a single database statement.
+     * @param vehicleId id of vehicle
+     * @param request vehicle attributes
+     * @return the stored price
+     */
+    @PutMapping(value = PRICING_QUOTE_BY_VEHICLEID_URL,
+            consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+    public Price upsert(@PathVariable Long vehicleId, @RequestBody PriceRequest request) {
+        return pricingService.upsert(vehicleId, request);
+    }
+
+    /**
+     * Compute the prices of a list of vehicles, without storing them.
+     * @param requests vehicle attributes
+     * @return the prices, in request order
+     */
+    @PostMapping(PRICING_QUOTE_BATCH_URL)
+    public List<Price> quoteAll(@RequestBody List<PriceRequest> requests) {
+        return pricingService.quoteAll(requests);
+    }
+}
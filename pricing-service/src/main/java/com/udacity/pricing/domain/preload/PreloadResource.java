@@ -0,0 +1,128 @@
+package com.udacity.pricing.domain.preload;
+
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.OrderColumn;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Records the checksum and row count of a preload resource, so an unchanged resource may be skipped on boot,
+ * and the checksum and vehicle id of each of its rows, so a changed resource may be applied incrementally.
+ */
+@Entity
+public class PreloadResource {
+
+    /** Resource name */
+    @Id
+    private String name;
+
+    @NotNull
+    private String checksum;
+
+    private int rowCount;
+
+    private LocalDateTime loadedAt;
+
+    /** Rows in resource order, with the ids of the vehicles they price */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "preload_resource_row")
+    @OrderColumn(name = "row_index")
+    private List<PreloadRow> rows = new ArrayList<>();
+
+    /** Entity ids in resource row order, i.e. vehicle ids, recorded by loads without row checksums; no longer written */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "preload_resource_entity")
+    @OrderColumn(name = "row_index")
+    @Column(name = "entity_id")
+    private List<Long> entityIds = new ArrayList<>();
+
+    public PreloadResource() {
+    }
+
+    public PreloadResource(String name, String checksum, int rowCount, List<PreloadRow> rows) {
+        this.name = name;
+        this.checksum = checksum;
+        this.rowCount = rowCount;
+        this.loadedAt = LocalDateTime.now();
+        this.rows = new ArrayList<>(rows);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public void setRowCount(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+
+    public void setLoadedAt(LocalDateTime loadedAt) {
+        this.loadedAt = loadedAt;
+    }
+
+    public List<PreloadRow> getRows() {
+        return rows;
+    }
+
+    public void setRows(List<PreloadRow> rows) {
+        this.rows = rows;
+    }
+
+    public List<Long> getEntityIds() {
+        return entityIds;
+    }
+
+    public void setEntityIds(List<Long> entityIds) {
+        this.entityIds = entityIds;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PreloadResource that = (PreloadResource) o;
+        return rowCount == that.rowCount && Objects.equals(name, that.name) && Objects.equals(checksum, that.checksum);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, checksum, rowCount);
+    }
+
+    @Override
+    public String toString() {
+        return "PreloadResource{" +
+                "name='" + name + '\'' +
+                ", checksum='" + checksum + '\'' +
+                ", rowCount=" + rowCount +
+                ", loadedAt=" + loadedAt +
+                '}';
+    }
+}
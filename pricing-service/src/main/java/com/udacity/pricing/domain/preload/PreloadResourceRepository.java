@@ -0,0 +1,10 @@
+package com.udacity.pricing.domain.preload;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@RepositoryRestResource(exported = false)
+public interface PreloadResourceRepository extends CrudRepository<PreloadResource, String> {
+}
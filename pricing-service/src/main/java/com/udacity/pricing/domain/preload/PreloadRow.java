@@ -0,0 +1,64 @@
+package com.udacity.pricing.domain.preload;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.util.Objects;
+
+/**
+ * Records a row of a preload resource, by the id of the vehicle it prices.
+ */
+@Embeddable
+public class PreloadRow {
+
+    /** Checksum of the row content */
+    @Column(name = "row_checksum")
+    private String checksum;
+
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    public PreloadRow() {
+    }
+
+    public PreloadRow(String checksum, Long entityId) {
+        this.checksum = checksum;
+        this.entityId = entityId;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PreloadRow that = (PreloadRow) o;
+        return Objects.equals(checksum, that.checksum) && Objects.equals(entityId, that.entityId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(checksum, entityId);
+    }
+
+    @Override
+    public String toString() {
+        return "PreloadRow{" +
+                "checksum='" + checksum + '\'' +
+                ", entityId=" + entityId +
+                '}';
+    }
+}
@@ -10,6 +10,7 @@ import java.util.Objects;
  * Represents the price of a given vehicle, including currency.
  */
 @Entity
+@EntityListeners({PriceCountListener.class, PriceChangeListener.class})
 public class Price {
 
     @Id
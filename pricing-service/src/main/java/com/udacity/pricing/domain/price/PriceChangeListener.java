@@ -0,0 +1,27 @@
+package com.udacity.pricing.domain.price;
+
+import com.udacity.events.ChangeEvent;
+import com.udacity.events.ChangeEventBus;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Entity listener which publishes a {@link ChangeEvent} whenever a price is stored, updated or removed.
+ */
+public class PriceChangeListener {
+
+    private final ChangeEventBus eventBus;
+
+    public PriceChangeListener(ChangeEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Price price) {
+        eventBus.publish(ChangeEvent.of(ChangeEvent.Type.PRICE, price.getVehicleId()));
+    }
+}
@@ -0,0 +1,26 @@
+package com.udacity.pricing.domain.price;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+
+/**
+ * Entity listener which keeps the {@link PriceCounter} in step with the prices persisted and removed.
+ */
+public class PriceCountListener {
+
+    private final PriceCounter counter;
+
+    public PriceCountListener(PriceCounter counter) {
+        this.counter = counter;
+    }
+
+    @PostPersist
+    public void postPersist(Price price) {
+        counter.increment();
+    }
+
+    @PostRemove
+    public void postRemove(Price price) {
+        counter.decrement();
+    }
+}
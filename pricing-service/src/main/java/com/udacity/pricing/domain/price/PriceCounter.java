@@ -0,0 +1,94 @@
+package com.udacity.pricing.domain.price;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Maintains the number of stored prices in memory, so it may be read without querying the database.
+ * <p>
+ * The count is updated by {@link PriceCountListener} as prices are persisted and removed, and is
+ * periodically reconciled against the database to correct for statements which bypass the entity lifecycle and
+ * are not counted by their callers. The count is also exposed as the <code>pricing.prices.count</code> gauge.
+ */
+@Component
+public class PriceCounter {
+
+    public static final String PRICES_COUNT_GAUGE = "pricing.prices.count";
+
+    private final LongAdder count;
+
+    public PriceCounter(MeterRegistry meterRegistry) {
+        this.count = new LongAdder();
+
+        Gauge.builder(PRICES_COUNT_GAUGE, this, PriceCounter::get)
+                .description("Number of stored prices")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Increment the count, once the current transaction (if any) commits
+     */
+    public void increment() {
+        addOnCommit(1);
+    }
+
+    /**
+     * Decrement the count, once the current transaction (if any) commits
+     */
+    public void decrement() {
+        addOnCommit(-1);
+    }
+
+    /**
+     * Decrease the count by the number of prices removed, once the current transaction (if any) commits
+     * @param removed - number of prices removed
+     */
+    public void subtract(long removed) {
+        addOnCommit(-removed);
+    }
+
+    /**
+     * Get the number of stored prices
+     * @return number of prices
+     */
+    public long get() {
+        return count.sum();
+    }
+
+    /**
+     * Reconcile the count against the database
+     * @param actual - supplier of the number of prices in the database
+     * @return correction applied to the count
+     */
+    public long reconcile(LongSupplier actual) {
+        long correction = actual.getAsLong() - count.sum();
+        if (correction != 0) {
+            count.add(correction);
+        }
+        return correction;
+    }
+
+    private void addOnCommit(long delta) {
+        onCommit(() -> count.add(delta));
+    }
+
+    private void onCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // don't count changes which are rolled back
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
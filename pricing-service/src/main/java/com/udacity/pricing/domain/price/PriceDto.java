@@ -0,0 +1,46 @@
+package com.udacity.pricing.domain.price;
+
+import java.math.BigDecimal;
+
+/**
+ * Compact representation of the price of a vehicle, without hypermedia links or database id.
+ */
+public class PriceDto {
+
+    private String currency;
+    private BigDecimal price;
+    private Long vehicleId;
+
+    public PriceDto() {
+    }
+
+    public PriceDto(String currency, BigDecimal price, Long vehicleId) {
+        this.currency = currency;
+        this.price = price;
+        this.vehicleId = vehicleId;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+
+    public void setVehicleId(Long vehicleId) {
+        this.vehicleId = vehicleId;
+    }
+}
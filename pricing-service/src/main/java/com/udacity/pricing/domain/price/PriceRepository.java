@@ -3,20 +3,83 @@ package com.udacity.pricing.domain.price;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.rest.core.annotation.RestResource;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+
 @Repository
 public interface PriceRepository extends CrudRepository<Price, Long> {
 
     @Query("SELECT p FROM #{#entityName} p WHERE p.vehicleId=:vehicleId")
     Price findPriceByVehicleId(Long vehicleId);
 
+    /**
+     * Delete the price of a vehicle. This is a derived delete, so the removal is seen by the entity listeners
+     * @param vehicleId - id of vehicle
+     * @return number of prices deleted
+     */
     @Transactional
-    @Modifying
-    @Query("DELETE FROM #{#entityName} p WHERE p.vehicleId=:vehicleId")
     int deleteByVehicleId(Long vehicleId);
 
+    /**
+     * Delete the prices of the specified vehicles in a single statement. Deletes are not seen by the entity
+     * listeners, so the caller must update the count and publish the change
+     * @param vehicleIds - ids of vehicles
+     * @return number of prices deleted
+     */
+    @RestResource(exported = false)
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM #{#entityName} p WHERE p.vehicleId IN :vehicleIds")
+    int deleteByVehicleIdIn(Collection<Long> vehicleIds);
+
     @Query("SELECT COUNT(p) FROM #{#entityName} p")
     long countPrices();
+
+    /**
+     * Get the compact representation of the price of a vehicle
+     * @param vehicleId - id of vehicle
+     * @return price or <code>null</code> if not found
+     */
+    @RestResource(exported = false)
+    @Query("SELECT new com.udacity.pricing.domain.price.PriceDto(p.currency, p.price, p.vehicleId) " +
+            "FROM #{#entityName} p WHERE p.vehicleId=:vehicleId")
+    PriceDto findPriceDtoByVehicleId(Long vehicleId);
+
+    /**
+     * Update the price of a vehicle. Updates are not seen by the entity listeners, so must be published by the caller
+     * @param vehicleId - id of vehicle
+     * @param currency - currency
+     * @param price - price
+     * @return number of rows affected
+     */
+    @RestResource(exported = false)
+    @Transactional
+    @Modifying
+    @Query("UPDATE #{#entityName} p SET p.currency=:currency, p.price=:price WHERE p.vehicleId=:vehicleId")
+    int updateByVehicleId(Long vehicleId, String currency, BigDecimal price);
+
+    /**
+     * Insert or update the price of a vehicle in a single atomic statement, keyed on the unique vehicle id.
+     * Inserts are not seen by the entity listeners, so the caller must update the count and publish the change
+     * @param vehicleId - id of vehicle
+     * @param currency - currency
+     * @param price - price
+     * @return number of rows affected
+     */
+    @RestResource(exported = false)
+    @Transactional
+    @Modifying
+    @Query(value = "MERGE INTO price p " +
+            "USING (SELECT CAST(:vehicleId AS BIGINT) AS vehicle_id, CAST(:currency AS VARCHAR) AS currency, " +
+                "CAST(:price AS DECIMAL(19,2)) AS price FROM DUAL) v " +
+            "ON (p.vehicle_id = v.vehicle_id) " +
+            "WHEN MATCHED THEN UPDATE SET currency = v.currency, price = v.price " +
+            "WHEN NOT MATCHED THEN INSERT (id, currency, price, vehicle_id) " +
+                "VALUES (NEXT VALUE FOR hibernate_sequence, v.currency, v.price, v.vehicle_id)",
+            nativeQuery = true)
+    int upsertByVehicleId(Long vehicleId, String currency, BigDecimal price);
 }
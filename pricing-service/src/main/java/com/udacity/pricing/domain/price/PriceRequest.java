@@ -0,0 +1,114 @@
+package com.udacity.pricing.domain.price;
+
+import javax.validation.constraints.NotNull;
+import java.util.Objects;
+
+/**
+ * Represents the vehicle attributes a price is computed from.
+ */
+public class PriceRequest {
+
+    @NotNull
+    private Long vehicleId;
+
+    private String currency;
+
+    private Integer manufacturerCode;
+
+    private Integer modelYear;
+
+    private Integer mileage;
+
+    private String condition;
+
+    public PriceRequest() {
+    }
+
+    public PriceRequest(Long vehicleId, String currency, Integer manufacturerCode, Integer modelYear,
+                        Integer mileage, String condition) {
+        this.vehicleId = vehicleId;
+        this.currency = currency;
+        this.manufacturerCode = manufacturerCode;
+        this.modelYear = modelYear;
+        this.mileage = mileage;
+        this.condition = condition;
+    }
+
+    public static PriceRequest of(Long vehicleId, String currency, Integer manufacturerCode, Integer modelYear,
+                                  Integer mileage, String condition) {
+        return new PriceRequest(vehicleId, currency, manufacturerCode, modelYear, mileage, condition);
+    }
+
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+
+    public void setVehicleId(Long vehicleId) {
+        this.vehicleId = vehicleId;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public Integer getManufacturerCode() {
+        return manufacturerCode;
+    }
+
+    public void setManufacturerCode(Integer manufacturerCode) {
+        this.manufacturerCode = manufacturerCode;
+    }
+
+    public Integer getModelYear() {
+        return modelYear;
+    }
+
+    public void setModelYear(Integer modelYear) {
+        this.modelYear = modelYear;
+    }
+
+    public Integer getMileage() {
+        return mileage;
+    }
+
+    public void setMileage(Integer mileage) {
+        this.mileage = mileage;
+    }
+
+    public String getCondition() {
+        return condition;
+    }
+
+    public void setCondition(String condition) {
+        this.condition = condition;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PriceRequest that = (PriceRequest) o;
+        return Objects.equals(vehicleId, that.vehicleId) && Objects.equals(currency, that.currency) && Objects.equals(manufacturerCode, that.manufacturerCode) && Objects.equals(modelYear, that.modelYear) && Objects.equals(mileage, that.mileage) && Objects.equals(condition, that.condition);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(vehicleId, currency, manufacturerCode, modelYear, mileage, condition);
+    }
+
+    @Override
+    public String toString() {
+        return "PriceRequest{" +
+                "vehicleId=" + vehicleId +
+                ", currency='" + currency + '\'' +
+                ", manufacturerCode=" + manufacturerCode +
+                ", modelYear=" + modelYear +
+                ", mileage=" + mileage +
+                ", condition='" + condition + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,15 @@
+package com.udacity.pricing.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.BAD_REQUEST, reason = "Invalid price request")
+public class InvalidPriceRequestException extends RuntimeException {
+
+    public InvalidPriceRequestException() {
+    }
+
+    public InvalidPriceRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,133 @@
+package com.udacity.pricing.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.udacity.pricing.domain.preload.PreloadResource;
+import com.udacity.pricing.domain.preload.PreloadResourceRepository;
+import com.udacity.pricing.domain.preload.PreloadRow;
+import com.udacity.pricing.domain.price.Price;
+import com.udacity.pricing.domain.price.PriceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Loads prices from a preload resource.
+ * <p>
+ * The checksum and row count of the resource is recorded, so an unchanged resource is skipped, along with the
+ * checksum of each row, so only the rows which have changed are applied when it has changed.
+ */
+@Service
+public class PreloadService {
+
+    private static final Logger log = LoggerFactory.getLogger(PreloadService.class);
+
+    /** Result of a preload which was skipped as the resource is unchanged */
+    public static final int UNCHANGED = -1;
+
+    private final PreloadResourceRepository repository;
+    private final PriceRepository priceRepository;
+    private final ObjectMapper objectMapper;
+
+    public PreloadService(PreloadResourceRepository repository, PriceRepository priceRepository) {
+        this.repository = repository;
+        this.priceRepository = priceRepository;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * Load prices, saving those whose rows are new or have changed since the previous load, matched by vehicle id.
+     * Prices whose rows are unchanged are left as they are, including any updates made through the API, and prices
+     * whose rows have been removed from the resource since the previous load are deleted. Rows without a recorded
+     * checksum, e.g. recorded by an earlier load, are saved if they differ from the database.
+     * @param name - resource name
+     * @param content - resource content
+     * @return number of prices saved or deleted, or {@link #UNCHANGED} if the resource is unchanged
+     * @throws IOException if the resource could not be parsed
+     */
+    @Transactional
+    public int preloadPrices(String name, byte[] content) throws IOException {
+        String checksum = checksum(content);
+        Optional<PreloadResource> previous = repository.findById(name);
+        if (previous.map(p -> p.getChecksum().equals(checksum)).orElse(false)) {
+            return UNCHANGED;
+        }
+        // previous row checksums by vehicle id
+        Map<Long, String> previousRows = new HashMap<>();
+        previous.map(PreloadResource::getRows).orElse(Collections.emptyList())
+                .forEach(row -> previousRows.put(row.getEntityId(), row.getChecksum()));
+        Set<Long> removed = new HashSet<>(previousRows.keySet());
+        removed.addAll(previous.map(PreloadResource::getEntityIds).orElse(Collections.emptyList()));
+
+        List<ObjectNode> list = objectMapper.readValue(content, new TypeReference<List<ObjectNode>>() {
+        });
+        Map<Long, Price> existing = new HashMap<>();
+        priceRepository.findAll().forEach(p -> existing.put(p.getVehicleId(), p));
+
+        List<PreloadRow> rows = new ArrayList<>(list.size());
+        int applied = 0;
+        for (ObjectNode row : list) {
+            String rowChecksum = checksum(objectMapper.writeValueAsBytes(row));
+            Price price = objectMapper.treeToValue(row, Price.class);
+            Long vehicleId = price.getVehicleId();
+            removed.remove(vehicleId);
+            rows.add(new PreloadRow(rowChecksum, vehicleId));
+
+            Price current = existing.get(vehicleId);
+            if (current == null) {
+                priceRepository.save(price);
+                ++applied;
+            } else if (previousRows.containsKey(vehicleId) ?
+                    !rowChecksum.equals(previousRows.get(vehicleId)) : !samePrice(price, current)) {
+                // row has changed, or is not recorded and differs from the database
+                current.setCurrency(price.getCurrency());
+                current.setPrice(price.getPrice());
+                priceRepository.save(current);
+                ++applied;
+            }
+        }
+
+        // delete prices whose rows have been removed
+        for (Long vehicleId : removed) {
+            applied += priceRepository.deleteByVehicleId(vehicleId);
+        }
+
+        repository.save(new PreloadResource(name, checksum, list.size(), rows));
+        log.info("Recorded preload of {}: {} rows, checksum {}", name, list.size(), checksum);
+
+        return applied;
+    }
+
+    private static boolean samePrice(Price price, Price other) {
+        return Objects.equals(price.getCurrency(), other.getCurrency())
+                && samePrice(price.getPrice(), other.getPrice());
+    }
+
+    private static boolean samePrice(BigDecimal price, BigDecimal other) {
+        return price == null ? other == null : other != null && price.compareTo(other) == 0;
+    }
+
+    /**
+     * Calculate the checksum of a resource
+     * @param content - resource content
+     * @return checksum
+     */
+    public static String checksum(byte[] content) {
+        return DigestUtils.md5DigestAsHex(content);
+    }
+}
@@ -0,0 +1,199 @@
+package com.udacity.pricing.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udacity.pricing.domain.price.PriceRequest;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Year;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.core.io.ResourceLoader.CLASSPATH_URL_PREFIX;
+
+/**
+ * Computes vehicle prices from vehicle attributes using the rule tables in {@link PriceRules}.
+ * <p>
+ * Depreciation factors are pre-computed when the rules are loaded, and results are memoized per
+ * (manufacturer, model year, mileage band, condition) tuple, so repeat lookups are a single map access.
+ */
+@Component
+public class PriceEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceEngine.class);
+
+    public static final String PRICE_RULES_FILE = "price.rules.file";
+    public static final String DEFAULT_PRICE_RULES_FILE = "price-rules.json";
+    public static final String PRICE_CACHE_MAX_SIZE = "price.cache.max-size";
+
+    private static final String UNKNOWN_CONDITION = "UNKNOWN";
+
+    private final PriceRules rules;
+    private final int referenceYear;
+    private final double[] yearFactors;
+    private final double[] mileageFactors;
+    private final int cacheMaxSize;
+    private final Map<Key, BigDecimal> cache;
+
+    @Autowired
+    public PriceEngine(ResourceLoader resourceLoader,
+                       @Value("${" + PRICE_RULES_FILE + ":" + DEFAULT_PRICE_RULES_FILE + "}") String filePath,
+                       @Value("${" + PRICE_CACHE_MAX_SIZE + ":100000}") int cacheMaxSize) {
+        this(loadRules(resourceLoader, filePath), cacheMaxSize);
+    }
+
+    public PriceEngine(PriceRules rules, int cacheMaxSize) {
+        this.rules = rules;
+        this.referenceYear = rules.getReferenceYear() > 0 ? rules.getReferenceYear() : Year.now().getValue();
+        this.yearFactors = factorTable(rules.getYearDepreciation(), rules.getMaxAge());
+        this.mileageFactors = factorTable(rules.getMileageDepreciation(), rules.getMaxMileageBands());
+        this.cacheMaxSize = cacheMaxSize;
+        this.cache = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Load the rule tables from resources
+     * @param resourceLoader - resource loader
+     * @param filePath - rules file name
+     * @return rules, or the default rules if the file could not be read
+     */
+    private static PriceRules loadRules(ResourceLoader resourceLoader, String filePath) {
+        PriceRules rules = new PriceRules();
+        if (!StringUtils.isBlank(filePath)) {
+            Resource resource = resourceLoader.getResource(CLASSPATH_URL_PREFIX + filePath);
+            try (InputStream is = resource.getInputStream()) {
+                rules = new ObjectMapper().readValue(is, PriceRules.class);
+                log.info("Loaded price rules from {}", filePath);
+            } catch (IOException e) {
+                log.warn(e.getMessage() + ": Using default price rules");
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Generate a table of compounded depreciation factors
+     * @param depreciation - fractional depreciation per step
+     * @param maxSteps - maximum number of steps
+     * @return table where index <code>n</code> is the factor after <code>n</code> steps
+     */
+    private static double[] factorTable(double depreciation, int maxSteps) {
+        double[] table = new double[Math.max(maxSteps, 0) + 1];
+        table[0] = 1.0;
+        for (int i = 1; i < table.length; i++) {
+            table[i] = table[i - 1] * (1.0 - depreciation);
+        }
+        return table;
+    }
+
+    /**
+     * Get the price for the specified vehicle attributes
+     * @param request - vehicle attributes
+     * @return price
+     */
+    public BigDecimal getPrice(PriceRequest request) {
+        Key key = new Key(request.getManufacturerCode(), ageIndex(request.getModelYear()),
+                mileageIndex(request.getMileage()), normaliseCondition(request.getCondition()));
+        BigDecimal price = cache.get(key);
+        if (price == null) {
+            if (cache.size() >= cacheMaxSize) {
+                cache.clear();
+            }
+            price = cache.computeIfAbsent(key, this::compute);
+        }
+        return price;
+    }
+
+    /**
+     * Get the currency to use for the specified request
+     * @param request - vehicle attributes
+     * @return currency
+     */
+    public String getCurrency(PriceRequest request) {
+        return StringUtils.isBlank(request.getCurrency()) ? rules.getCurrency() : request.getCurrency();
+    }
+
+    /**
+     * Get the number of memoized prices
+     * @return number of entries
+     */
+    public int cacheSize() {
+        return cache.size();
+    }
+
+    private BigDecimal compute(Key key) {
+        BigDecimal base = key.manufacturerCode == null ? null : rules.getBasePrices().get(key.manufacturerCode);
+        if (base == null) {
+            base = rules.getDefaultBasePrice();
+        }
+        Double condition = rules.getConditionFactors().get(key.condition);
+        if (condition == null) {
+            condition = rules.getConditionFactors().getOrDefault(UNKNOWN_CONDITION, 1.0);
+        }
+        double factor = Math.max(
+                yearFactors[key.ageIndex] * mileageFactors[key.mileageIndex] * condition,
+                rules.getMinimumFactor());
+        return base.multiply(BigDecimal.valueOf(factor))
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private int ageIndex(Integer modelYear) {
+        int maxIndex = yearFactors.length - 1;
+        int index = modelYear == null ? maxIndex : referenceYear - modelYear;
+        return Math.min(Math.max(index, 0), maxIndex);
+    }
+
+    private int mileageIndex(Integer mileage) {
+        int maxIndex = mileageFactors.length - 1;
+        int index = (mileage == null || rules.getMileageBand() <= 0) ? 0 : mileage / rules.getMileageBand();
+        return Math.min(Math.max(index, 0), maxIndex);
+    }
+
+    private static String normaliseCondition(String condition) {
+        return StringUtils.isBlank(condition) ? UNKNOWN_CONDITION : condition.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Memoization key, consisting of the attributes which affect the computed price
+     */
+    private static final class Key {
+        final Integer manufacturerCode;
+        final int ageIndex;
+        final int mileageIndex;
+        final String condition;
+        final int hash;
+
+        Key(Integer manufacturerCode, int ageIndex, int mileageIndex, String condition) {
+            this.manufacturerCode = manufacturerCode;
+            this.ageIndex = ageIndex;
+            this.mileageIndex = mileageIndex;
+            this.condition = condition;
+            this.hash = Objects.hash(manufacturerCode, ageIndex, mileageIndex, condition);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return ageIndex == key.ageIndex && mileageIndex == key.mileageIndex && Objects.equals(manufacturerCode, key.manufacturerCode) && Objects.equals(condition, key.condition);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.udacity.pricing.service;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rule tables used by the {@link PriceEngine} to compute vehicle prices.
+ * Loaded from a json file on application boot.
+ */
+public class PriceRules {
+
+    /** Currency of computed prices, if not specified in the request */
+    private String currency = "€";
+
+    /** Base price for manufacturers not in <code>basePrices</code> */
+    private BigDecimal defaultBasePrice = BigDecimal.valueOf(25000);
+
+    /** Base price of a new vehicle keyed by manufacturer code */
+    private Map<Integer, BigDecimal> basePrices = new HashMap<>();
+
+    /** Year the age of a vehicle is calculated from; 0 means the current year */
+    private int referenceYear = 0;
+
+    /** Fractional depreciation per year of age, compounded */
+    private double yearDepreciation = 0.08;
+
+    /** Maximum age in years, older vehicles are priced as this age */
+    private int maxAge = 25;
+
+    /** Size of the mileage bands used to depreciate by mileage */
+    private int mileageBand = 10000;
+
+    /** Fractional depreciation per mileage band, compounded */
+    private double mileageDepreciation = 0.025;
+
+    /** Maximum number of mileage bands, higher mileage vehicles are priced as this */
+    private int maxMileageBands = 40;
+
+    /** Lower bound of the combined depreciation factor */
+    private double minimumFactor = 0.05;
+
+    /** Price multiplier keyed by vehicle condition */
+    private Map<String, Double> conditionFactors = new HashMap<>();
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public BigDecimal getDefaultBasePrice() {
+        return defaultBasePrice;
+    }
+
+    public void setDefaultBasePrice(BigDecimal defaultBasePrice) {
+        this.defaultBasePrice = defaultBasePrice;
+    }
+
+    public Map<Integer, BigDecimal> getBasePrices() {
+        return basePrices;
+    }
+
+    public void setBasePrices(Map<Integer, BigDecimal> basePrices) {
+        this.basePrices = basePrices;
+    }
+
+    public int getReferenceYear() {
+        return referenceYear;
+    }
+
+    public void setReferenceYear(int referenceYear) {
+        this.referenceYear = referenceYear;
+    }
+
+    public double getYearDepreciation() {
+        return yearDepreciation;
+    }
+
+    public void setYearDepreciation(double yearDepreciation) {
+        this.yearDepreciation = yearDepreciation;
+    }
+
+    public int getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(int maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public int getMileageBand() {
+        return mileageBand;
+    }
+
+    public void setMileageBand(int mileageBand) {
+        this.mileageBand = mileageBand;
+    }
+
+    public double getMileageDepreciation() {
+        return mileageDepreciation;
+    }
+
+    public void setMileageDepreciation(double mileageDepreciation) {
+        this.mileageDepreciation = mileageDepreciation;
+    }
+
+    public int getMaxMileageBands() {
+        return maxMileageBands;
+    }
+
+    public void setMaxMileageBands(int maxMileageBands) {
+        this.maxMileageBands = maxMileageBands;
+    }
+
+    public double getMinimumFactor() {
+        return minimumFactor;
+    }
+
+    public void setMinimumFactor(double minimumFactor) {
+        this.minimumFactor = minimumFactor;
+    }
+
+    public Map<String, Double> getConditionFactors() {
+        return conditionFactors;
+    }
+
+    public void setConditionFactors(Map<String, Double> conditionFactors) {
+        this.conditionFactors = conditionFactors;
+    }
+}
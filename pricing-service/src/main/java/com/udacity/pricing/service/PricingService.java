@@ -0,0 +1,154 @@
+package com.udacity.pricing.service;
+
+import com.udacity.deadline.Deadline;
+import com.udacity.deadline.DeadlineExceededException;
+import com.udacity.events.ChangeEvent;
+import com.udacity.events.ChangeEventBus;
+import com.udacity.pricing.domain.price.Price;
+import com.udacity.pricing.domain.price.PriceCounter;
+import com.udacity.pricing.domain.price.PriceDto;
+import com.udacity.pricing.domain.price.PriceRepository;
+import com.udacity.pricing.domain.price.PriceRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Implements the pricing service to compute and store vehicle prices.
+ * Work is aborted with a {@link DeadlineExceededException} once the deadline of the current request has passed.
+ */
+@Service
+public class PricingService {
+
+    private static final Logger log = LoggerFactory.getLogger(PricingService.class);
+
+    public static final String COUNT_RECONCILE_INTERVAL = "pricing.count.reconcile-interval";
+
+    private final PriceRepository repository;
+    private final PriceEngine engine;
+    private final PriceCounter counter;
+    private final ChangeEventBus eventBus;
+
+    public PricingService(PriceRepository repository, PriceEngine engine, PriceCounter counter,
+                          ChangeEventBus eventBus) {
+        this.repository = repository;
+        this.engine = engine;
+        this.counter = counter;
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * Compute the price for the specified vehicle, without storing it.
+     * Prices are only stored by {@link #upsert(Long, PriceRequest)}, as a vehicle may only have one stored price.
+     * @param request - vehicle attributes
+     * @return price
+     * @throws InvalidPriceRequestException if no vehicle id is specified
+     * @throws DeadlineExceededException if the deadline of the current request has passed
+     */
+    public Price quote(PriceRequest request) {
+        return compute(request);
+    }
+
+    /**
+     * Compute the price for the specified vehicle and insert or update its stored price.
+     * An existing price is updated in place, and otherwise the price is inserted by an atomic upsert, so there is no
+     * point at which the vehicle has no price. Prices which were inserted are counted once committed; the count may
+     * drift if concurrent upserts insert the same vehicle, which is corrected when the count is next reconciled.
+     * @param vehicleId - id of vehicle
+     * @param request - vehicle attributes
+     * @return stored price; the database id is not read back so is not set
+     */
+    @Transactional
+    public Price upsert(Long vehicleId, PriceRequest request) {
+        request.setVehicleId(vehicleId);
+        Price price = compute(request);
+        if (repository.updateByVehicleId(price.getVehicleId(), price.getCurrency(), price.getPrice()) == 0) {
+            repository.upsertByVehicleId(price.getVehicleId(), price.getCurrency(), price.getPrice());
+            counter.increment();
+        }
+        eventBus.publish(ChangeEvent.of(ChangeEvent.Type.PRICE, price.getVehicleId()));
+        return price;
+    }
+
+    /**
+     * Compute the prices for the specified vehicles, without storing them
+     * @param requests - vehicle attributes
+     * @return prices in the same order as the requests
+     * @throws InvalidPriceRequestException if a vehicle id is not specified
+     * @throws DeadlineExceededException if the deadline of the current request has passed
+     */
+    public List<Price> quoteAll(List<PriceRequest> requests) {
+        return requests.stream()
+                .map(this::compute)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the price of the specified vehicle
+     * @param vehicleId - id of vehicle
+     * @return price
+     * @throws PriceNotFoundException if there is no price for the vehicle
+     * @throws DeadlineExceededException if the deadline of the current request has passed
+     */
+    public PriceDto findByVehicleId(Long vehicleId) {
+        Deadline.check();
+        PriceDto price = repository.findPriceDtoByVehicleId(vehicleId);
+        if (price == null) {
+            throw new PriceNotFoundException();
+        }
+        return price;
+    }
+
+    /**
+     * Delete the stored prices of the specified vehicles
+     * @param vehicleIds - ids of vehicles
+     * @return number of prices deleted
+     */
+    @Transactional
+    public long deleteAll(Collection<Long> vehicleIds) {
+        long result = 0;
+        if (!vehicleIds.isEmpty()) {
+            result = repository.deleteByVehicleIdIn(vehicleIds);
+            counter.subtract(result);
+            eventBus.publish(ChangeEvent.of(ChangeEvent.Type.PRICE, vehicleIds));
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of stored prices, from the in-memory count
+     * @return number of prices
+     */
+    public long count() {
+        return counter.get();
+    }
+
+    /**
+     * Reconcile the in-memory count of prices against the database
+     */
+    @PostConstruct
+    @Scheduled(initialDelayString = "${" + COUNT_RECONCILE_INTERVAL + ":30000}",
+            fixedDelayString = "${" + COUNT_RECONCILE_INTERVAL + ":30000}")
+    public void reconcileCount() {
+        long correction = counter.reconcile(repository::countPrices);
+        if (correction != 0) {
+            log.debug("Price count corrected by {}", correction);
+        }
+    }
+
+    private Price compute(PriceRequest request) {
+        if (request.getVehicleId() == null) {
+            throw new InvalidPriceRequestException("Vehicle id is mandatory");
+        }
+        Deadline.check();
+        return Price.of(engine.getCurrency(request), engine.getPrice(request), request.getVehicleId());
+    }
+}
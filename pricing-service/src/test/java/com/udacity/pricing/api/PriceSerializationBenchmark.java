@@ -0,0 +1,177 @@
+package com.udacity.pricing.api;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.udacity.pricing.AbstractTest;
+import com.udacity.pricing.domain.price.Price;
+import com.udacity.pricing.domain.price.PriceRepository;
+import org.assertj.core.util.Streams;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static com.udacity.pricing.api.PricingControllerTest.*;
+import static com.udacity.pricing.config.Config.APPLICATION_SMILE_VALUE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Compares the cost of the HAL Spring Data REST price lookup with the lean json lookup, and json with binary Smile
+ * json.
+ * Run with <code>mvn test -Dbenchmark=true -Dtest=PriceSerializationBenchmark</code>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PriceSerializationBenchmark extends AbstractTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceSerializationBenchmark.class);
+
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 10_000;
+    private static final int LIST_SIZE = 1_000;
+
+    @Autowired
+    PriceRepository priceRepository;
+
+    List<Price> repositoryEntries;
+
+    ObjectMapper objectMapper;
+
+    ObjectMapper smileMapper;
+
+    @BeforeEach
+    public void beforeEach() {
+        objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        smileMapper = new SmileMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        clearRepository(priceRepository);
+        repositoryEntries = Streams.stream(
+                    priceRepository.saveAll(PRICES))
+                .collect(Collectors.toList());
+    }
+
+    @DisplayName("Benchmark HAL vs lean price lookup")
+    @Test
+    public void benchmarkLookup() throws Exception {
+        Price price = repositoryEntries.get(0);
+        String halUrl = getPriceByVehicleIdUrl(price.getVehicleId());
+        String leanUrl = getLeanPriceByVehicleIdUrl(price.getVehicleId());
+
+        Result hal = run(halUrl);
+        Result lean = run(leanUrl);
+
+        log.info("HAL : {} bytes, {} us/request, {} us/parse", hal.bytes, hal.requestMicros, hal.parseMicros);
+        log.info("Lean: {} bytes, {} us/request, {} us/parse", lean.bytes, lean.requestMicros, lean.parseMicros);
+
+        assertTrue(lean.bytes < hal.bytes, "Lean payload not smaller than HAL payload");
+    }
+
+    @DisplayName("Benchmark json vs binary json lean price lookup")
+    @Test
+    public void benchmarkBinaryLookup() throws Exception {
+        String leanUrl = getLeanPriceByVehicleIdUrl(repositoryEntries.get(0).getVehicleId());
+
+        Result json = run(leanUrl, MediaType.APPLICATION_JSON, objectMapper);
+        Result smile = run(leanUrl, MediaType.valueOf(APPLICATION_SMILE_VALUE), smileMapper);
+
+        log.info("Json : {} bytes, {} us/request, {} us/parse", json.bytes, json.requestMicros, json.parseMicros);
+        log.info("Smile: {} bytes, {} us/request, {} us/parse", smile.bytes, smile.requestMicros, smile.parseMicros);
+
+        assertTrue(smile.bytes < json.bytes, "Smile payload not smaller than json payload");
+    }
+
+    @DisplayName("Benchmark json vs binary json encode/decode of 1k prices")
+    @Test
+    public void benchmarkBinaryList() throws Exception {
+        List<Price> prices = LongStream.rangeClosed(1, LIST_SIZE)
+                .mapToObj(i -> Price.of("€", BigDecimal.valueOf(10000 + i, 2), i))
+                .collect(Collectors.toList());
+
+        Result json = encodeDecode(prices, objectMapper);
+        Result smile = encodeDecode(prices, smileMapper);
+
+        log.info("Json : {} bytes, {} us/encode, {} us/decode", json.bytes, json.requestMicros, json.parseMicros);
+        log.info("Smile: {} bytes, {} us/encode, {} us/decode", smile.bytes, smile.requestMicros, smile.parseMicros);
+
+        assertTrue(smile.bytes < json.bytes, "Smile payload not smaller than json payload");
+    }
+
+    private Result run(String url) throws Exception {
+        return run(url, MediaType.ALL, objectMapper);
+    }
+
+    private Result run(String url, MediaType accept, ObjectMapper mapper) throws Exception {
+        byte[] body = new byte[0];
+        for (int i = 0; i < WARMUP; i++) {
+            body = mockMvc.perform(get(url).accept(accept)).andReturn().getResponse().getContentAsByteArray();
+            mapper.readValue(body, Price.class);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            body = mockMvc.perform(get(url).accept(accept)).andReturn().getResponse().getContentAsByteArray();
+        }
+        long requestNanos = System.nanoTime() - start;
+
+        Price parsed = null;
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            parsed = mapper.readValue(body, Price.class);
+        }
+        long parseNanos = System.nanoTime() - start;
+        assertEquals(repositoryEntries.get(0).getVehicleId(), parsed.getVehicleId());
+
+        return new Result(body.length,
+                requestNanos / 1000.0 / ITERATIONS, parseNanos / 1000.0 / ITERATIONS);
+    }
+
+    private Result encodeDecode(List<Price> prices, ObjectMapper mapper) throws Exception {
+        int iterations = ITERATIONS / 10;
+        byte[] body = new byte[0];
+        for (int i = 0; i < WARMUP / 10; i++) {
+            body = mapper.writeValueAsBytes(prices);
+            mapper.readValue(body, Price[].class);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            body = mapper.writeValueAsBytes(prices);
+        }
+        long encodeNanos = System.nanoTime() - start;
+
+        Price[] parsed = null;
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            parsed = mapper.readValue(body, Price[].class);
+        }
+        long decodeNanos = System.nanoTime() - start;
+        assertEquals(prices.size(), parsed.length);
+
+        return new Result(body.length,
+                encodeNanos / 1000.0 / iterations, decodeNanos / 1000.0 / iterations);
+    }
+
+    private static class Result {
+        final int bytes;
+        final double requestMicros;
+        final double parseMicros;
+
+        Result(int bytes, double requestMicros, double parseMicros) {
+            this.bytes = bytes;
+            this.requestMicros = requestMicros;
+            this.parseMicros = parseMicros;
+        }
+    }
+}
@@ -1,10 +1,20 @@
 package com.udacity.pricing.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.udacity.deadline.Deadline;
+import com.udacity.deadline.DeadlineExceededException;
+import com.udacity.events.ChangeEvent;
+import com.udacity.events.ChangeEventBus;
 import com.udacity.pricing.AbstractTest;
 import com.udacity.pricing.config.Config;
 import com.udacity.pricing.domain.price.Price;
+import com.udacity.pricing.domain.price.PriceCounter;
 import com.udacity.pricing.domain.price.PriceRepository;
+import com.udacity.pricing.domain.price.PriceRequest;
+import com.udacity.pricing.service.PreloadService;
+import com.udacity.pricing.service.PricingService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.assertj.core.util.Streams;
 import org.hamcrest.CoreMatchers;
 import org.hamcrest.Matcher;
@@ -13,20 +23,25 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
 
+import static com.udacity.deadline.Deadline.REQUEST_TIMEOUT_HEADER;
 import static com.udacity.pricing.config.Config.*;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.hateoas.MediaTypes.HAL_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -36,6 +51,18 @@ class PricingControllerTest extends AbstractTest {
     @Autowired
     PriceRepository priceRepository;
 
+    @Autowired
+    PricingService pricingService;
+
+    @Autowired
+    PreloadService preloadService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    ChangeEventBus eventBus;
+
     public List<Price> repositoryEntries;
     private static final int NUM_PRICES = 3;
     public static List<Price> PRICES = LongStream.range(0, NUM_PRICES)
@@ -88,6 +115,167 @@ class PricingControllerTest extends AbstractTest {
         });
     }
 
+    @DisplayName("Get lean price by vehicle id")
+    @Test
+    public void getLeanPrice() {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        repositoryEntries.forEach(p -> {
+            try {
+                mockMvc.perform(get(
+                            getLeanPriceByVehicleIdUrl(p.getVehicleId())))
+                        .andExpect(status().isOk())
+                        .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                        .andExpect(mvcResult -> {
+                            String body = mvcResult.getResponse().getContentAsString();
+                            assertFalse(body.contains("_links"));
+                            Price price = objectMapper.readValue(body, Price.class);
+                            assertTrue(p.equalsExId(price));
+                        });
+            } catch (Exception e) {
+                e.printStackTrace();
+                fail();
+            }
+        });
+
+        try {
+            mockMvc.perform(get(
+                        getLeanPriceByVehicleIdUrl((long) (NUM_PRICES + 10))))
+                    .andExpect(status().isNotFound());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    @DisplayName("Get lean price and upsert price as binary json")
+    @Test
+    public void binaryPrice() {
+        ObjectMapper smileMapper = new SmileMapper();
+        MediaType smile = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+        Price existing = repositoryEntries.get(0);
+
+        try {
+            // binary json is preferred over json
+            mockMvc.perform(get(
+                        getLeanPriceByVehicleIdUrl(existing.getVehicleId()))
+                            .accept(smile, MediaType.valueOf(MediaType.APPLICATION_JSON_VALUE + ";q=0.9")))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(smile))
+                    .andExpect(mvcResult -> {
+                        Price price = smileMapper.readValue(mvcResult.getResponse().getContentAsByteArray(), Price.class);
+                        assertTrue(existing.equalsExId(price));
+                    });
+
+            // json is still the default
+            mockMvc.perform(get(
+                        getLeanPriceByVehicleIdUrl(existing.getVehicleId())))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+
+            PriceRequest update = PriceRequest.of(null, "$", 101, 2015, 80000, "USED");
+            mockMvc.perform(put(
+                        PRICING_QUOTE_BY_VEHICLEID_URL, existing.getVehicleId())
+                            .content(smileMapper.writeValueAsBytes(update))
+                            .contentType(smile)
+                            .accept(smile))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(smile))
+                    .andExpect(mvcResult -> {
+                        Price price = smileMapper.readValue(mvcResult.getResponse().getContentAsByteArray(), Price.class);
+                        assertEquals(existing.getVehicleId(), price.getVehicleId());
+                        assertEquals(update.getCurrency(), price.getCurrency());
+                    });
+            assertEquals(update.getCurrency(), priceRepository.findPriceByVehicleId(existing.getVehicleId()).getCurrency());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    @DisplayName("Deadline honoured")
+    @Test
+    public void deadline() {
+        Price existing = repositoryEntries.get(0);
+        try {
+            // expired budget is rejected
+            mockMvc.perform(get(
+                        getLeanPriceByVehicleIdUrl(existing.getVehicleId()))
+                            .header(REQUEST_TIMEOUT_HEADER, 0))
+                    .andExpect(status().isGatewayTimeout());
+
+            mockMvc.perform(get(
+                        getLeanPriceByVehicleIdUrl(existing.getVehicleId()))
+                            .header(REQUEST_TIMEOUT_HEADER, 5000))
+                    .andExpect(status().isOk());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        }
+
+        // work is aborted once the deadline has passed
+        Deadline.bind(Deadline.in(0));
+        try {
+            assertThrows(DeadlineExceededException.class, () -> pricingService.findByVehicleId(existing.getVehicleId()));
+            assertThrows(DeadlineExceededException.class,
+                    () -> pricingService.quote(PriceRequest.of(existing.getVehicleId(), "$", 101, 2015, 80000, "USED")));
+        } finally {
+            Deadline.clear();
+        }
+    }
+
+    @DisplayName("Preload prices incrementally")
+    @Test
+    public void preloadPrices() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        String name = "preload-test.json";
+        long vehicleId = NUM_PRICES + 20;
+        List<Price> prices = List.of(
+                Price.of("€", BigDecimal.valueOf(1000), vehicleId),
+                Price.of("€", BigDecimal.valueOf(2000), vehicleId + 1));
+        byte[] content = objectMapper.writeValueAsBytes(prices);
+
+        assertEquals(2, preloadService.preloadPrices(name, content));
+        assertEquals(NUM_PRICES + 2, priceRepository.count());
+
+        // unchanged resource is skipped
+        assertEquals(PreloadService.UNCHANGED, preloadService.preloadPrices(name, content));
+
+        // only the changed & removed rows are applied
+        Price first = priceRepository.findPriceByVehicleId(vehicleId);
+        List<Price> changed = List.of(Price.of("$", BigDecimal.valueOf(1000), vehicleId));
+        assertEquals(2, preloadService.preloadPrices(name, objectMapper.writeValueAsBytes(changed)));
+
+        Price updated = priceRepository.findPriceByVehicleId(vehicleId);
+        assertEquals(first.getId(), updated.getId());
+        assertEquals("$", updated.getCurrency());
+        assertNull(priceRepository.findPriceByVehicleId(vehicleId + 1));
+        assertEquals(NUM_PRICES + 1, priceRepository.count());
+
+        // price updated through the api isn't overwritten when its row is unchanged
+        updated.setPrice(BigDecimal.valueOf(1500));
+        priceRepository.save(updated);
+        List<Price> added = List.of(changed.get(0), Price.of("$", BigDecimal.valueOf(3000), vehicleId + 2));
+        assertEquals(1, preloadService.preloadPrices(name, objectMapper.writeValueAsBytes(added)));
+        assertEquals(0, BigDecimal.valueOf(1500).compareTo(priceRepository.findPriceByVehicleId(vehicleId).getPrice()));
+        assertNotNull(priceRepository.findPriceByVehicleId(vehicleId + 2));
+    }
+
+    @DisplayName("Get lean count")
+    @Test
+    public void getLeanCount() {
+        try {
+            mockMvc.perform(get(
+                        PRICING_LEAN_COUNT_URL))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(content().string(Integer.toString(NUM_PRICES)));
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
     @DisplayName("Post price")
     @Test
     public void postPrice() {
@@ -105,6 +293,116 @@ class PricingControllerTest extends AbstractTest {
         }
     }
 
+    @DisplayName("Compute price from vehicle attributes")
+    @Test
+    public void quotePrice() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        PriceRequest request = PriceRequest.of((long) (NUM_PRICES + 5), "€", 100, 2018, 32280, "USED");
+        Price existing = repositoryEntries.get(0);
+        PriceRequest existingRequest = PriceRequest.of(existing.getVehicleId(), "€", 100, 2018, 32280, "USED");
+        long count = priceRepository.count();
+
+        try {
+            mockMvc.perform(post(
+                        PRICING_QUOTE_URL)
+                            .content(objectMapper.writeValueAsString(request))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(mvcResult -> {
+                        Price price = objectMapper.readValue(mvcResult.getResponse().getContentAsString(), Price.class);
+                        assertEquals(request.getVehicleId(), price.getVehicleId());
+                        assertEquals(request.getCurrency(), price.getCurrency());
+                        assertTrue(price.getPrice().signum() > 0);
+                        assertNull(priceRepository.findPriceByVehicleId(request.getVehicleId()));   // not stored
+                    });
+
+            // quoting a vehicle which has a stored price leaves it unchanged
+            mockMvc.perform(post(
+                        PRICING_QUOTE_URL)
+                            .content(objectMapper.writeValueAsString(existingRequest))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk());
+            assertEquals(0, existing.getPrice().compareTo(
+                    priceRepository.findPriceByVehicleId(existing.getVehicleId()).getPrice()));
+            assertEquals(count, priceRepository.count());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    @DisplayName("Upsert price by vehicle id")
+    @Test
+    public void upsertPrice() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Price existing = repositoryEntries.get(0);
+        Long newVehicleId = (long) (NUM_PRICES + 6);
+
+        try {
+            // update existing price
+            PriceRequest update = PriceRequest.of(null, "$", 101, 2015, 80000, "USED");
+            mockMvc.perform(put(
+                        PRICING_QUOTE_BY_VEHICLEID_URL, existing.getVehicleId())
+                            .content(objectMapper.writeValueAsString(update))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk());
+
+            Price updated = priceRepository.findPriceByVehicleId(existing.getVehicleId());
+            assertEquals(existing.getId(), updated.getId());
+            assertEquals(update.getCurrency(), updated.getCurrency());
+            assertNotEquals(existing.getPrice(), updated.getPrice());
+            assertEquals(NUM_PRICES, priceRepository.count());
+
+            // insert new price, twice to verify idempotent
+            PriceRequest insert = PriceRequest.of(null, "€", 102, 2019, 20000, "NEW");
+            for (int i = 0; i < 2; i++) {
+                mockMvc.perform(put(
+                            PRICING_QUOTE_BY_VEHICLEID_URL, newVehicleId)
+                                .content(objectMapper.writeValueAsString(insert))
+                                .contentType(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isOk());
+            }
+            assertNotNull(priceRepository.findPriceByVehicleId(newVehicleId));
+            assertEquals(NUM_PRICES + 1, priceRepository.count());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    @DisplayName("Compute batch of prices from vehicle attributes")
+    @Test
+    public void quoteBatch() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<PriceRequest> requests = List.of(
+                PriceRequest.of(1000L, null, 100, 2020, 1000, "NEW"),
+                PriceRequest.of(1001L, null, 100, 2020, 1000, "NEW"),  // same attributes, same price
+                PriceRequest.of(1002L, null, 100, 2010, 150000, "USED")
+        );
+
+        try {
+            mockMvc.perform(post(
+                        PRICING_QUOTE_BATCH_URL)
+                            .content(objectMapper.writeValueAsString(requests))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(mvcResult -> {
+                        Price[] prices = objectMapper.readValue(mvcResult.getResponse().getContentAsString(), Price[].class);
+                        assertEquals(requests.size(), prices.length);
+                        for (int i = 0; i < prices.length; i++) {
+                            assertEquals(requests.get(i).getVehicleId(), prices[i].getVehicleId());
+                        }
+                        assertEquals(prices[0].getPrice(), prices[1].getPrice());
+                        assertTrue(prices[2].getPrice().compareTo(prices[0].getPrice()) < 0);
+                    });
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        }
+        // batch prices are not stored
+        assertEquals(NUM_PRICES, priceRepository.count());
+    }
+
     @DisplayName("Get count")
     @Test
     public void getCount() {
@@ -120,6 +418,77 @@ class PricingControllerTest extends AbstractTest {
         }
     }
 
+    @DisplayName("Count maintained in memory")
+    @Test
+    public void countMaintained() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Price delete = repositoryEntries.get(0);
+        Long newVehicleId = (long) (NUM_PRICES + 7);
+
+        assertEquals(NUM_PRICES, pricingService.count());
+        try {
+            mockMvc.perform(get(
+                        getDeleteByVehicleIdUrl(delete.getVehicleId())))
+                    .andExpect(status().isOk());
+            assertEquals(NUM_PRICES - 1, pricingService.count());
+
+            // new vehicle is counted once, update of existing is not counted
+            PriceRequest insert = PriceRequest.of(null, "€", 102, 2019, 20000, "NEW");
+            for (int i = 0; i < 2; i++) {
+                mockMvc.perform(put(
+                            PRICING_QUOTE_BY_VEHICLEID_URL, newVehicleId)
+                                .content(objectMapper.writeValueAsString(insert))
+                                .contentType(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isOk());
+            }
+            assertEquals(NUM_PRICES, pricingService.count());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        }
+
+        assertEquals(priceRepository.count(), pricingService.count());
+        assertEquals((double) NUM_PRICES,
+                meterRegistry.get(PriceCounter.PRICES_COUNT_GAUGE).gauge().value());
+
+        // bulk changes bypassing the entity lifecycle are corrected by reconciliation
+        priceRepository.upsertByVehicleId(newVehicleId + 1, "€", BigDecimal.TEN);
+        assertEquals(NUM_PRICES, pricingService.count());
+        pricingService.reconcileCount();
+        assertEquals(NUM_PRICES + 1, pricingService.count());
+    }
+
+    @DisplayName("Price change events published")
+    @Test
+    public void priceChangeEvents() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Price existing = repositoryEntries.get(0);
+        List<ChangeEvent> received = new CopyOnWriteArrayList<>();
+        Consumer<ChangeEvent> subscriber = received::add;
+        eventBus.subscribe(subscriber);
+
+        try {
+            PriceRequest update = PriceRequest.of(null, "$", 101, 2015, 80000, "USED");
+            mockMvc.perform(put(
+                        PRICING_QUOTE_BY_VEHICLEID_URL, existing.getVehicleId())
+                            .content(objectMapper.writeValueAsString(update))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk());
+            assertEquals(List.of(ChangeEvent.of(ChangeEvent.Type.PRICE, existing.getVehicleId())), received);
+
+            received.clear();
+            mockMvc.perform(get(
+                        getDeleteByVehicleIdUrl(existing.getVehicleId())))
+                    .andExpect(status().isOk());
+            assertEquals(List.of(ChangeEvent.of(ChangeEvent.Type.PRICE, existing.getVehicleId())), received);
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            eventBus.unsubscribe(subscriber);
+        }
+    }
+
     @Transactional
     @DisplayName("Delete price by vehicle id")
     @Test
@@ -144,6 +513,36 @@ class PricingControllerTest extends AbstractTest {
         assertFalse(remaining.contains(delete));
     }
 
+    @DisplayName("Delete prices by vehicle ids")
+    @Test
+    public void deletePrices() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Long> vehicleIds = List.of(repositoryEntries.get(0).getVehicleId(), repositoryEntries.get(1).getVehicleId(),
+                (long) (NUM_PRICES + 8));   // not priced
+        List<ChangeEvent> received = new CopyOnWriteArrayList<>();
+        Consumer<ChangeEvent> subscriber = received::add;
+        eventBus.subscribe(subscriber);
+
+        try {
+            mockMvc.perform(post(
+                        PRICING_LEAN_DELETE_URL)
+                            .content(objectMapper.writeValueAsString(vehicleIds))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("2"));
+            assertEquals(List.of(ChangeEvent.of(ChangeEvent.Type.PRICE, vehicleIds)), received);
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            eventBus.unsubscribe(subscriber);
+        }
+
+        vehicleIds.forEach(vehicleId -> assertNull(priceRepository.findPriceByVehicleId(vehicleId)));
+        assertEquals(NUM_PRICES - 2, priceRepository.count());
+        assertEquals(NUM_PRICES - 2, pricingService.count());
+    }
+
     /**
      * Get the url for the price of the specified vehicle
      * @param vehicleId - id of vehicle
@@ -162,6 +561,15 @@ class PricingControllerTest extends AbstractTest {
         return getUrlWithVehicleIdUrl(PRICING_GET_BY_VEHICLEID_URL, vehicleId);
     }
 
+    /**
+     * Get the url for the lean price of the specified vehicle
+     * @param vehicleId - id of vehicle
+     * @return
+     */
+    public static String getLeanPriceByVehicleIdUrl(Long vehicleId) {
+        return getUrlWithVehicleIdUrl(PRICING_LEAN_GET_BY_VEHICLEID_URL, vehicleId);
+    }
+
     /**
      * Get the url to delete the price of the specified vehicle
      * @param vehicleId - id of vehicle
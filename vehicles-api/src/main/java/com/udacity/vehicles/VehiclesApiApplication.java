@@ -1,13 +1,11 @@
 package com.udacity.vehicles;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.udacity.vehicles.domain.car.Car;
-import com.udacity.vehicles.domain.car.CarRepository;
-import com.udacity.vehicles.domain.manufacturer.Manufacturer;
-import com.udacity.vehicles.service.ManufacturerNotFoundException;
+import com.udacity.vehicles.service.CarLocationIndex;
 import com.udacity.vehicles.service.ManufacturerService;
+import com.udacity.vehicles.service.PreloadRunner;
+import com.udacity.vehicles.service.PreloadService;
+import com.udacity.vehicles.service.ScheduledOutboxTask;
+import com.udacity.vehicles.service.ScheduledServiceTask;
 import com.udacity.vehicles.service.ServicesService;
 import org.apache.commons.lang.StringUtils;
 import org.modelmapper.ModelMapper;
@@ -16,6 +14,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.LazyInitializationExcludeFilter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -35,8 +34,6 @@ import javax.validation.ConstraintViolationException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
-import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.springframework.core.io.ResourceLoader.CLASSPATH_URL_PREFIX;
 import static org.springframework.hateoas.config.EnableHypermediaSupport.HypermediaType.COLLECTION_JSON;
@@ -88,27 +85,35 @@ public class VehiclesApiApplication {
 
     /**
      * Initializes the cars & manufacturers available to the Vehicle API.
+     * The load runs in the background if <code>preload.async</code> is set.
+     * The load is skipped if the resource is unchanged since the previous load, otherwise only the manufacturers
+     * which differ from the database are saved.
      * @param manufacturerService - where the manufacturer information persists.
+     * @param preloadService - loads the resource
+     * @param preloadRunner - runs the load
      * @return the resources to add to the related repositories
      */
     @ConditionalOnProperty(prefix = "job.autorun", name = "enabled", havingValue = "true", matchIfMissing = true)
     @Order(2)
     @Bean
-    CommandLineRunner initManufacturerDatabase(ManufacturerService manufacturerService,
+    CommandLineRunner initManufacturerDatabase(ManufacturerService manufacturerService, PreloadService preloadService,
+                                               PreloadRunner preloadRunner,
                                                @Value("${"+ PRELOAD_MANUFACTURER_FILE +":"+ DEFAULT_MANUFACTURER_FILE +"}") String filePath) {
-        return args -> {
+        return args -> preloadRunner.run("manufacturers", () -> {
             if (!StringUtils.isBlank(filePath)) {
                 // load manufacturers from resources
                 Resource resource = resourceLoader.getResource(CLASSPATH_URL_PREFIX + filePath);
-                ObjectMapper objectMapper = new ObjectMapper();
-                List<Manufacturer> manufacturerList;
 
                 try (InputStream is = resource.getInputStream()) {
-                    TypeReference<List<Manufacturer>> mapType = new TypeReference<>() {
-                    };
-                    List<Manufacturer> list = objectMapper.readValue(is, mapType);
-                    manufacturerList = manufacturerService.saveAll(list);
-                    log.info("Database populated with {} manufacturers", manufacturerList.size());
+                    int saved = preloadService.preloadManufacturers(filePath, is.readAllBytes());
+                    if (saved == PreloadService.UNCHANGED) {
+                        log.info("Manufacturers unchanged in {}, skipping load", filePath);
+                    } else {
+                        log.info("Database populated with {} manufacturers", saved);
+
+                        // add unknown manufacturer
+                        manufacturerService.addUnknownManufacturer();
+                    }
                 } catch (ConstraintViolationException cve) {
                     log.warn(cve.getMessage() + ": Manufacturers not saved");
                     cve.getConstraintViolations()
@@ -118,69 +123,52 @@ public class VehiclesApiApplication {
                     log.warn(ioe.getMessage() + ": Manufacturers not saved");
                     ioe.printStackTrace();
                 }
-
-                // add unknown manufacturer
-                manufacturerService.addUnknownManufacturer();
             }
-        };
+        });
     }
 
     /**
      * Initializes the cars available to the Vehicle API.
-     * @param manufacturerService - where the manufacturer information persists.
-     * @param carRepository - where the car information persists.
+     * The load runs in the background, after the manufacturers, if <code>preload.async</code> is set.
+     * The load is skipped if the resource is unchanged since the previous load, otherwise only the cars which differ
+     * from the database are saved.
+     * @param preloadService - loads the resource
+     * @param preloadRunner - runs the load
      * @return the resources to add to the related repositories
      */
     @ConditionalOnProperty(prefix = "job.autorun", name = "enabled", havingValue = "true", matchIfMissing = true)
     @Order(3)
     @Bean
-    CommandLineRunner initCarDatabase(ManufacturerService manufacturerService, CarRepository carRepository,
-                                      @Value("${"+ PRELOAD_CAR_FILE +":}") String filePath,
-                                      @Value("${car.price.consult}") String consultPrice) {
-        return args -> {
+    CommandLineRunner initCarDatabase(PreloadService preloadService, PreloadRunner preloadRunner,
+                                      @Value("${"+ PRELOAD_CAR_FILE +":}") String filePath) {
+        return args -> preloadRunner.run("cars", () -> {
             if (!StringUtils.isBlank(filePath)) {
                 // load cars from resources
                 Resource resource = resourceLoader.getResource(CLASSPATH_URL_PREFIX + filePath);
-                ObjectMapper objectMapper = new ObjectMapper();
-                objectMapper.registerModule(new JavaTimeModule());
-                List<Manufacturer> manufacturerList = manufacturerService.list();
 
                 try (InputStream is = resource.getInputStream()) {
-                    TypeReference<List<Car>> mapType = new TypeReference<>() {
-                    };
-                    List<Car> list = objectMapper.readValue(is, mapType);
-                    AtomicInteger count = new AtomicInteger(0);
-
-                    for (Car car : list) {
-                        car.ensureValid();
-
-                        // get manufacturer from database
-                        Manufacturer manufacturer = car.getDetails().getManufacturer();
-                        boolean added = false;
-                        try {
-                            manufacturer = manufacturerService.findByNameOrId(manufacturer);
-
-                            car.getDetails().setManufacturer(manufacturer);
-
-                            // save car
-                            carRepository.save(car);
-                            added = true;
-                            count.incrementAndGet();
-
-                        } catch (ManufacturerNotFoundException mnf){
-                            log.warn(String.format("Manufacturer '%s' not found", manufacturer));
-                        }
-
-                        if (!added) {
-                            log.warn(String.format("Not adding car: %s", car));
-                        }
+                    int applied = preloadService.preloadCars(filePath, is.readAllBytes());
+                    if (applied == PreloadService.UNCHANGED) {
+                        log.info("Cars unchanged in {}, skipping load", filePath);
+                    } else {
+                        log.info("Database populated with {} car changes", applied);
                     }
-                    log.info("Database populated with {} cars", count.get());
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
             }
-        };
+        });
+    }
+
+    /**
+     * Beans which must be created on startup when lazy initialization is enabled, i.e. background tasks and
+     * the location index, which is built when the application is ready.
+     * @return filter excluding beans from lazy initialization
+     */
+    @Bean
+    static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(ScheduledServiceTask.class, ScheduledOutboxTask.class,
+                CarLocationIndex.class, PreloadRunner.class);
     }
 
     @Bean
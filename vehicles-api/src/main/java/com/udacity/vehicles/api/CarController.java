@@ -2,15 +2,25 @@ package com.udacity.vehicles.api;
 
 
 import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.service.CarFields;
+import com.udacity.vehicles.service.CarSearch;
 import com.udacity.vehicles.service.CarService;
+import com.udacity.vehicles.service.CarVersions;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springdoc.api.annotations.ParameterObject;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.PagedResourcesAssembler;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.PagedModel;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
@@ -32,70 +42,170 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 @RequestMapping(CARS_URL)
 class CarController {
 
+    public static final String ASYNC_PARAM = "async";
+    public static final String FIELDS_PARAM = "fields";
+    public static final String LATITUDE_PARAM = "lat";
+    public static final String LONGITUDE_PARAM = "lon";
+    public static final String RADIUS_PARAM = "radiusKm";
+    public static final String K_PARAM = "k";
+
     private final CarService carService;
     private final CarResourceAssembler assembler;
+    private final CarVersions versions;
 
-    CarController(CarService carService, CarResourceAssembler assembler) {
+    CarController(CarService carService, CarResourceAssembler assembler, CarVersions versions) {
         this.carService = carService;
         this.assembler = assembler;
+        this.versions = versions;
     }
 
     /**
      * Creates a list to store any vehicles.
-     * @return list of vehicles
+     * @param fields Comma-separated list of the fields to include, e.g. <code>id,condition,details.model</code>;
+     *               all fields if not specified
+     * @param request Request, checked for conditional headers
+     * @return list of vehicles, or <code>null</code> if not modified
      */
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = BAD_REQUEST, description = "Unknown field requested."),
+        @ApiResponse(responseCode = NOT_MODIFIED, description = "Vehicles not modified."),
+    })
     @GetMapping
-    CollectionModel<EntityModel<Car>> list() {
-        List<EntityModel<Car>> resources = carService.list().stream().map(assembler::toModel)
+    CollectionModel<EntityModel<?>> list(@RequestParam(value = FIELDS_PARAM, required = false) String fields,
+                                         WebRequest request) {
+        CarFields carFields = CarFields.parse(fields);
+        List<Car> cars = carService.loadAll(carFields);
+        if (request.checkNotModified(versions.etag(cars, carFields), versions.lastModified(cars))) {
+            return null;    // not modified, so no enrichment required
+        }
+        List<EntityModel<?>> resources = cars.stream()
+                .map(car -> toModel(carService.enrich(car, carFields), carFields))
+                .collect(Collectors.toList());
+        return CollectionModel.of(resources,
+                linkTo(methodOn(CarController.class).list(fields, null)).withSelfRel());
+    }
+
+    /**
+     * Searches for vehicles matching the specified criteria.
+     * @param search Criteria to match; unspecified criteria match all vehicles
+     * @param pageable Page to get
+     * @param pagedAssembler Assembler for pages of vehicles
+     * @return page of matching vehicles
+     */
+    @GetMapping(CARS_SEARCH_URL)
+    PagedModel<EntityModel<Car>> search(@ParameterObject CarSearch search,
+                                        @ParameterObject @PageableDefault(sort = "id") Pageable pageable,
+                                        PagedResourcesAssembler<Car> pagedAssembler) {
+        return pagedAssembler.toModel(carService.search(search, pageable), assembler);
+    }
+
+    /**
+     * Gets the vehicles within a distance of a location.
+     * @param lat Latitude of location
+     * @param lon Longitude of location
+     * @param radiusKm Distance from location in km
+     * @return list of vehicles, nearest first
+     */
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = BAD_REQUEST, description = "Invalid location or distance."),
+    })
+    @GetMapping(CARS_NEAR_URL)
+    CollectionModel<EntityModel<Car>> near(@RequestParam(LATITUDE_PARAM) double lat,
+                                           @RequestParam(LONGITUDE_PARAM) double lon,
+                                           @RequestParam(RADIUS_PARAM) double radiusKm) {
+        List<EntityModel<Car>> resources = carService.near(lat, lon, radiusKm).stream().map(assembler::toModel)
                 .collect(Collectors.toList());
         return CollectionModel.of(resources,
-                linkTo(methodOn(CarController.class).list()).withSelfRel());
+                linkTo(methodOn(CarController.class).near(lat, lon, radiusKm)).withSelfRel());
+    }
+
+    /**
+     * Gets the vehicles nearest to a location.
+     * @param lat Latitude of location
+     * @param lon Longitude of location
+     * @param k Maximum number of vehicles
+     * @return list of up to <code>k</code> vehicles, nearest first
+     */
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = BAD_REQUEST, description = "Invalid location or number of vehicles."),
+    })
+    @GetMapping(CARS_NEAREST_URL)
+    CollectionModel<EntityModel<Car>> nearest(@RequestParam(LATITUDE_PARAM) double lat,
+                                              @RequestParam(LONGITUDE_PARAM) double lon,
+                                              @RequestParam(value = K_PARAM, defaultValue = "10") int k) {
+        List<EntityModel<Car>> resources = carService.nearest(lat, lon, k).stream().map(assembler::toModel)
+                .collect(Collectors.toList());
+        return CollectionModel.of(resources,
+                linkTo(methodOn(CarController.class).nearest(lat, lon, k)).withSelfRel());
     }
 
     /**
      * Gets information of a specific car by ID.
      * @param id the id number of the given vehicle
-     * @return all information for the requested vehicle
+     * @param fields Comma-separated list of the fields to include, e.g. <code>id,condition,details.model</code>;
+     *               all fields if not specified
+     * @param request Request, checked for conditional headers
+     * @return all information, or the requested fields, for the requested vehicle, or <code>null</code> if
+     * not modified
      */
     @ApiResponses(value = {
         @ApiResponse(responseCode = NOT_FOUND, description = "A record could not be found matching the request, please verify the request parameters."),
+        @ApiResponse(responseCode = BAD_REQUEST, description = "Unknown field requested."),
+        @ApiResponse(responseCode = NOT_MODIFIED, description = "Vehicle not modified."),
     })
     @GetMapping(CARS_GET_BY_ID_URL)
-    EntityModel<Car> get(@PathVariable Long id) {
+    EntityModel<?> get(@PathVariable Long id, @RequestParam(value = FIELDS_PARAM, required = false) String fields,
+                       WebRequest request) {
         /**
          * TODO: Use the `findById` method from the Car Service to get car information.
          * TODO: Use the `assembler` on that car and return the resulting output.
          *   Update the first line as part of the above implementing.
          */
-        Car car = carService.findById(id);
-        return assembler.toModel(car);
+        CarFields carFields = CarFields.parse(fields);
+        Car car = carService.load(id, carFields);
+        if (request.checkNotModified(versions.etag(car, carFields), versions.lastModified(car))) {
+            return null;    // not modified, so no enrichment required
+        }
+        return toModel(carService.enrich(car, carFields), carFields);
+    }
+
+    private EntityModel<?> toModel(Car car, CarFields fields) {
+        return fields == null ? assembler.toModel(car) : assembler.toModel(car, fields);
     }
 
     /**
      * Posts information to create a new vehicle in the system.
      * @param car A new vehicle to add to the system.
-     * @return response that the new vehicle was added to the system
+     * @param async Create asynchronously; the vehicle is stored immediately, and its price and address are
+     *              assigned in the background
+     * @return response that the new vehicle was added to the system, or if asynchronous, that it was accepted
+     * and is pending price and address assignment
      * @throws URISyntaxException if the request contains invalid fields or syntax
      */
     @ApiResponses(value = {
         @ApiResponse(responseCode = CREATED, description = "Entity successfully created"),
+        @ApiResponse(responseCode = ACCEPTED, description = "Entity created, enrichment pending"),
     })
     @PostMapping
-    ResponseEntity<?> post(@Valid @RequestBody Car car) throws URISyntaxException {
+    ResponseEntity<?> post(@Valid @RequestBody Car car,
+                           @RequestParam(value = ASYNC_PARAM, defaultValue = "false") boolean async)
+            throws URISyntaxException {
         /**
          * TODO: Use the `save` method from the Car Service to save the input car.
          * TODO: Use the `assembler` on that saved car and return as part of the response.
          *   Update the first line as part of the above implementing.
          */
         car.setId(null);    // new addition, so id is assigned
-        Car newCar = carService.save(car.ensureValid());
+        car.ensureValid();
+        Car newCar = async ? carService.saveAsync(car) : carService.save(car);
         EntityModel<Car> resource = assembler.toModel(newCar);
-        return ResponseEntity.created(
-                    linkTo(Car.class)
-                            .slash(Objects.requireNonNull(resource.getContent()).getId())
-                            .withSelfRel()
-                            .toUri()
-            ).body(resource);
+        URI location = linkTo(Car.class)
+                .slash(Objects.requireNonNull(resource.getContent()).getId())
+                .withSelfRel()
+                .toUri();
+        return async ?
+                ResponseEntity.accepted().location(location).body(resource) :
+                ResponseEntity.created(location).body(resource);
     }
 
     /**
@@ -115,8 +225,7 @@ class CarController {
          * TODO: Use the `assembler` on that updated car and return as part of the response.
          *   Update the first line as part of the above implementing.
          */
-        Car existing = carService.findById(id); // check if id is valid
-        car.setId(existing.getId());
+        car.setId(id);  // save verifies id is valid
         Car newCar = carService.save(car);
         EntityModel<Car> resource = assembler.toModel(newCar);
         return ResponseEntity.ok(resource);
@@ -135,16 +244,24 @@ class CarController {
         /**
          * TODO: Use the Car Service to delete the requested vehicle.
          */
-        Car existing = carService.findById(id); // check if id is valid
-
         ResponseEntity<?> responseEntity;
-        Car deleted = carService.delete(id);
+        Car deleted = carService.delete(id);    // delete verifies id is valid
         if (deleted.equals(Car.EMPTY)) {
             responseEntity = ResponseEntity.badRequest().build();
         } else {
-            EntityModel<Car> resource = assembler.toModel(existing);
+            EntityModel<Car> resource = assembler.toModel(deleted);
             responseEntity = ResponseEntity.ok(resource);
         }
         return responseEntity;
     }
+
+    /**
+     * Removes a list of vehicles from the system.
+     * @param ids The ID numbers of the vehicles to remove.
+     * @return response with the number of vehicles removed from the system
+     */
+    @DeleteMapping
+    ResponseEntity<Long> deleteAll(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(carService.deleteAll(ids));
+    }
 }
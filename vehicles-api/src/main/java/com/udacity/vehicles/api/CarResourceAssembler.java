@@ -1,22 +1,78 @@
 package com.udacity.vehicles.api;
 
 import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.service.CarFields;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import static com.udacity.vehicles.config.Config.CARS_GET_BY_ID_URL;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
 
 /**
  * Maps the CarController to the Car class using HATEOAS
+ * <p>
+ * The links are built from templates created once per request, so assembling a collection only requires the
+ * id of each car to be expanded, rather than recording a controller method invocation for each link.
  */
 @Component
 public class CarResourceAssembler implements RepresentationModelAssembler<Car, EntityModel<Car>> {
 
+    private static final String LINKS_ATTRIBUTE = CarResourceAssembler.class.getName() + ".links";
+    private static final String ID_VARIABLE = "{id}";
+
     @Override
     public EntityModel<Car> toModel(Car car) {
-        return EntityModel.of(car,
-                linkTo(methodOn(CarController.class).get(car.getId())).withSelfRel(),
-                linkTo(methodOn(CarController.class).list()).withRel("cars"));
+        CarLinks links = links();
+        return EntityModel.of(car, links.self(car.getId()), links.cars);
+    }
+
+    /**
+     * Converts a car to a model consisting of the specified fields
+     * @param car - car to convert
+     * @param fields - fields to include
+     * @return model
+     */
+    public EntityModel<PartialCar> toModel(Car car, CarFields fields) {
+        CarLinks links = links();
+        return EntityModel.of(new PartialCar(fields.select(car)), links.self(car.getId()), links.cars);
+    }
+
+    /**
+     * Get the link templates for the current request
+     * @return links
+     */
+    private CarLinks links() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        CarLinks links = attributes == null ? null :
+                (CarLinks) attributes.getAttribute(LINKS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (links == null) {
+            links = new CarLinks(linkTo(CarController.class).toUri().toString());
+            if (attributes != null) {
+                attributes.setAttribute(LINKS_ATTRIBUTE, links, RequestAttributes.SCOPE_REQUEST);
+            }
+        }
+        return links;
+    }
+
+    /**
+     * Links of cars, relative to the base uri of the request
+     */
+    private static final class CarLinks {
+        final String selfTemplate;
+        final Link cars;
+
+        CarLinks(String carsUri) {
+            this.selfTemplate = carsUri + CARS_GET_BY_ID_URL;
+            this.cars = Link.of(carsUri, "cars");
+        }
+
+        Link self(Long id) {
+            return Link.of(selfTemplate.replace(ID_VARIABLE, String.valueOf(id)), IanaLinkRelations.SELF);
+        }
     }
 }
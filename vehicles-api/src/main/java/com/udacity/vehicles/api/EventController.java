@@ -0,0 +1,44 @@
+package com.udacity.vehicles.api;
+
+import com.udacity.events.ChangeEvent;
+import com.udacity.events.ChangeEventBus;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static com.udacity.vehicles.config.Config.EVENTS_URL;
+import static com.udacity.vehicles.config.OpenApiConfig.*;
+
+/**
+ * Implements a webhook receiving change events from the Pricing and Maps services, and publishing them
+ * to the subscribers in this service.
+ */
+@RestController
+@ApiResponses(value = {
+    @ApiResponse(responseCode = BAD_REQUEST, description = "This is a bad request, please follow the API documentation for the proper request format."),
+    @ApiResponse(responseCode = INTERNAL_SERVER_ERROR, description = "The server is down. Please make sure that the Vehicle microservice is running.")
+})
+class EventController {
+
+    private final ChangeEventBus eventBus;
+
+    EventController(ChangeEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * Receive change events
+     * @param events - events
+     * @return response that the events were accepted
+     */
+    @PostMapping(EVENTS_URL)
+    ResponseEntity<Void> receive(@RequestBody List<ChangeEvent> events) {
+        events.forEach(eventBus::publish);
+        return ResponseEntity.accepted().build();
+    }
+}
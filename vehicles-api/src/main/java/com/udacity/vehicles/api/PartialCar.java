@@ -0,0 +1,17 @@
+package com.udacity.vehicles.api;
+
+import org.springframework.hateoas.server.core.Relation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Representation of a car consisting of a subset of its fields, as requested by a <code>fields</code> parameter.
+ */
+@Relation(itemRelation = "car", collectionRelation = "cars")
+public class PartialCar extends LinkedHashMap<String, Object> {
+
+    public PartialCar(Map<String, Object> fields) {
+        super(fields);
+    }
+}
@@ -1,26 +1,71 @@
 package com.udacity.vehicles.client;
 
+import com.udacity.deadline.Deadline;
 import com.udacity.vehicles.service.ServicesService;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.util.UriBuilder;
+import reactor.core.publisher.Mono;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 
+import static com.udacity.deadline.Deadline.REQUEST_TIMEOUT_HEADER;
+import static com.udacity.vehicles.config.Config.APPLICATION_SMILE_VALUE;
+
 /**
  * Base class to interface with a Client for data.
+ * <p>
+ * Requests to endpoints which support it negotiate binary Smile json; the response format is accepted in preference
+ * to json, and once the service has responded with Smile, request bodies are also sent as Smile. A request whose
+ * Smile body is rejected with <code>415 Unsupported Media Type</code> is resent as json.
+ * <p>
+ * Each request is limited to the remaining time budget of the current request's {@link Deadline}, and at most
+ * <code>client.timeout</code>, and the budget is passed to the service in the <code>X-Request-Timeout</code> header.
+ * A request which is not sent as the budget is exhausted, or which times out, returns no response.
  */
 @Component
 public abstract class AbstractClient {
 
+    public static final String CLIENT_CACHE_TTL = "client.cache.ttl";
+    public static final String DEFAULT_CLIENT_CACHE_TTL = "3600000";
+    public static final String CLIENT_CACHE_MAX_SIZE = "client.cache.max-size";
+    public static final String DEFAULT_CLIENT_CACHE_MAX_SIZE = "10000";
+    public static final String CLIENT_TIMEOUT = "client.timeout";
+    public static final String DEFAULT_CLIENT_TIMEOUT = "3000";
+    public static final String CLIENT_HEDGE_ENABLED = "client.hedge.enabled";
+    public static final String CLIENT_HEDGE_PERCENTILE = "client.hedge.percentile";
+    public static final String DEFAULT_CLIENT_HEDGE_PERCENTILE = "0.95";
+    public static final String CLIENT_HEDGE_MIN_DELAY = "client.hedge.min-delay";
+    public static final String DEFAULT_CLIENT_HEDGE_MIN_DELAY = "20";
+
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+    /** Accept binary json in preference to json */
+    private static final MediaType[] ACCEPT_BINARY = {
+            APPLICATION_SMILE, MediaType.valueOf(MediaType.APPLICATION_JSON_VALUE + ";q=0.9")
+    };
+
     protected WebClient client;
     protected ServicesService servicesService;
+    /** Service has responded with binary json */
+    private volatile boolean binarySupported;
+    /** Maximum time to wait for a response in ms */
+    @Value("${" + CLIENT_TIMEOUT + ":" + DEFAULT_CLIENT_TIMEOUT + "}")
+    private long timeout;
+    /** Hedging of requests to hedgeable endpoints, or <code>null</code> if disabled */
+    private Hedging hedging;
 
     public AbstractClient(WebClient pricingWebClient, ServicesService servicesService) {
         this.client = pricingWebClient;
@@ -31,56 +76,98 @@ public abstract class AbstractClient {
 
     protected abstract Logger getLogger();
 
+    /**
+     * Check if the service endpoint at the specified path can produce and consume binary json
+     * @param path - endpoint path
+     * @return <code>true</code> if binary json may be negotiated
+     */
+    protected boolean binaryCapable(String path) {
+        return false;
+    }
+
+    /**
+     * Check if the service has responded with binary json
+     * @return <code>true</code> if binary json is in use
+     */
+    public boolean isBinarySupported() {
+        return binarySupported;
+    }
+
+    /**
+     * Check if the service endpoint at the specified path is an idempotent lookup, whose requests may be hedged
+     * @param path - endpoint path
+     * @return <code>true</code> if requests may be hedged
+     */
+    protected boolean hedgeable(String path) {
+        return false;
+    }
+
+    /**
+     * Enable hedging of requests to hedgeable endpoints
+     * @param hedging - hedging to apply
+     */
+    protected void setHedging(Hedging hedging) {
+        this.hedging = hedging;
+    }
+
     // In a real-world application we'll want to add some resilience
     // to this method with retries/CB/failover capabilities
-    // We may also want to cache the results so we don't need to
-    // do a request every time
     /**
      * Send a request to the client, given vehicle ID.
+     * GET requests to hedgeable endpoints are hedged, if enabled, by sending the request to another instance of the
+     * service if there is no response within the hedging delay.
      * @param info - request info
      * @return service response
      */
     protected <T> T send(String info, HttpMethod httpMethod, String path, Map<String, Object> query, Object body, Class<T> bodyClass) {
         T result = null;
-        Function<UriBuilder, URI> uriFunction = uriBuilder -> {
-            UriBuilder builder = servicesService.setBaseUrl(getServiceName(), uriBuilder)
-                    .path(path);
-            for (String key : query.keySet()) {
-                builder.queryParam(key, query.get(key));
-            }
-            return builder.build();
-        };
+        long budget = Deadline.current()
+                .map(deadline -> Math.min(deadline.remaining(), timeout))
+                .orElse(timeout);
         try {
-            if (ready()) {
-                WebClient.RequestHeadersSpec<?> headersSpec;
-                switch (httpMethod) {
-                    case GET:
-                    case DELETE:
-                        headersSpec = (httpMethod == HttpMethod.GET ? client.get() : client.delete())
-                            .uri(uriFunction);
-                        break;
-                    case PUT:
-                    case POST:
-                        if (body != null) {
-                            headersSpec = (httpMethod == HttpMethod.PUT ? client.put() : client.post())
-                                    .uri(uriFunction)
-                                    .bodyValue(body);
-                        } else {
-                            headersSpec = (httpMethod == HttpMethod.PUT ? client.put() : client.post())
-                                    .uri(uriFunction);
-                        }
-                        break;
-                    default:
-                        throw new UnsupportedOperationException(httpMethod.name() + " is not supported");
+            if (budget <= 0) {
+                getLogger().warn("Deadline exceeded, " + httpMethod.name() + " not sent to "
+                        + getServiceName().toUpperCase(Locale.ROOT) + " service: {}", info);
+            } else if (ready()) {
+                boolean binary = binaryCapable(path);
+                long expiresAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget);
+                Function<URI, Mono<ResponseEntity<T>>> exchange =
+                        baseUri -> exchange(httpMethod, baseUri, path, query, body, binary, expiresAt, bodyClass);
+                Mono<ResponseEntity<T>> request = exchange.apply(null);
+                if (hedging != null && httpMethod == HttpMethod.GET && hedgeable(path)) {
+                    request = hedging.hedge(request, exchange, servicesService.getAlternateURI(getServiceName()));
+                }
+                if (binary && body != null && binarySupported) {
+                    request = request.onErrorResume(WebClientResponseException.UnsupportedMediaType.class, e -> {
+                        // service no longer accepts binary json, revert to json and resend
+                        binarySupported = false;
+                        getLogger().warn("Binary json rejected, resending " + httpMethod.name() + " to "
+                                + getServiceName().toUpperCase(Locale.ROOT) + " service as json: {}", info);
+                        return exchange.apply(null);
+                    });
                 }
 
-                result = headersSpec
-                            .retrieve()
-                            .bodyToMono(bodyClass)
+                ResponseEntity<T> response = request
+                            .timeout(Duration.ofMillis(budget))
+                            .onErrorResume(TimeoutException.class, e -> {
+                                getLogger().warn("Timed out after " + budget + " ms, " + httpMethod.name() + " on "
+                                        + getServiceName().toUpperCase(Locale.ROOT) + " service: {}", info);
+                                return Mono.empty();
+                            })
                             .block();
-
+                if (response != null) {
+                    MediaType contentType = response.getHeaders().getContentType();
+                    if (binary && contentType != null) {
+                        binarySupported = APPLICATION_SMILE.isCompatibleWith(contentType);
+                    }
+                    result = response.getBody();
+                }
             }
         } catch (WebClientResponseException wcre) {
+            if (wcre.getStatusCode() == HttpStatus.UNSUPPORTED_MEDIA_TYPE && binarySupported) {
+                // service no longer accepts binary json, revert to json
+                binarySupported = false;
+            }
             getLogger().warn(wcre.getStatusText() + ": " + wcre.getMessage());
         } catch (Exception e) {
             getLogger().error("Unexpected error for " + httpMethod.name() + " on " + getServiceName().toUpperCase(Locale.ROOT)
@@ -89,6 +176,61 @@ public abstract class AbstractClient {
         return result;
     }
 
+    /**
+     * Create a request to the client; the request is sent on subscription.
+     * The remaining time budget is sent with the request, so a request created later, e.g. a hedge, is sent with
+     * the time remaining at that point.
+     * @param baseUri - base uri of service instance, or <code>null</code> for the configured instance
+     * @param expiresAt - time at which the time budget expires, as a {@link System#nanoTime()} value
+     * @return response
+     */
+    private <T> Mono<ResponseEntity<T>> exchange(HttpMethod httpMethod, URI baseUri, String path,
+                                                 Map<String, Object> query, Object body, boolean binary,
+                                                 long expiresAt, Class<T> bodyClass) {
+        Function<UriBuilder, URI> uriFunction = uriBuilder -> {
+            UriBuilder builder = (baseUri == null ?
+                        servicesService.setBaseUrl(getServiceName(), uriBuilder) :
+                        ServicesService.setBaseUrl(baseUri, uriBuilder))
+                    .path(path);
+            for (String key : query.keySet()) {
+                builder.queryParam(key, query.get(key));
+            }
+            return builder.build();
+        };
+        WebClient.RequestHeadersSpec<?> headersSpec;
+        switch (httpMethod) {
+            case GET:
+            case DELETE:
+                headersSpec = (httpMethod == HttpMethod.GET ? client.get() : client.delete())
+                    .uri(uriFunction);
+                break;
+            case PUT:
+            case POST:
+                if (body != null) {
+                    headersSpec = (httpMethod == HttpMethod.PUT ? client.put() : client.post())
+                            .uri(uriFunction)
+                            .contentType(binary && binarySupported ? APPLICATION_SMILE : MediaType.APPLICATION_JSON)
+                            .bodyValue(body);
+                } else {
+                    headersSpec = (httpMethod == HttpMethod.PUT ? client.put() : client.post())
+                            .uri(uriFunction);
+                }
+                break;
+            default:
+                throw new UnsupportedOperationException(httpMethod.name() + " is not supported");
+        }
+
+        if (binary) {
+            headersSpec.accept(ACCEPT_BINARY);
+        }
+        long remaining = Math.max(TimeUnit.NANOSECONDS.toMillis(expiresAt - System.nanoTime()), 0);
+        headersSpec.header(REQUEST_TIMEOUT_HEADER, Long.toString(remaining));
+
+        return headersSpec
+                .retrieve()
+                .toEntity(bodyClass);
+    }
+
     /**
      * Send a request to the client, given vehicle ID.
      * @param info - request info
@@ -0,0 +1,175 @@
+package com.udacity.vehicles.client;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Cache of client responses, with entries expiring after a time to live.
+ * <p>
+ * Entries are expected to be evicted when the source data changes, so the time to live can be long.
+ * To prevent a response requested before an eviction being cached after it, {@link #version()} should be
+ * read before sending the request, and passed to {@link #put(Object, Object, long)}, which will discard
+ * the response if the entry has since been evicted.
+ * @param <K> - key type
+ * @param <V> - value type
+ */
+public class ClientCache<K, V> {
+
+    private final long ttlMillis;
+    private final int maxSize;
+    private final ConcurrentHashMap<K, Entry<V>> entries;
+    /** version and time at which keys were last evicted */
+    private final ConcurrentHashMap<K, Eviction> evictions;
+    private final AtomicLong sequence;
+    /** responses requested before this version are discarded */
+    private volatile long floor;
+    /** time at which the floor was last raised */
+    private volatile long floorTime;
+
+    public ClientCache(long ttlMillis, int maxSize) {
+        this.ttlMillis = ttlMillis;
+        this.maxSize = maxSize;
+        this.entries = new ConcurrentHashMap<>();
+        this.evictions = new ConcurrentHashMap<>();
+        this.sequence = new AtomicLong();
+        this.floor = 0;
+        this.floorTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Get the current cache version
+     * @return version
+     */
+    public long version() {
+        return sequence.get();
+    }
+
+    /**
+     * Get the version at which a key was last evicted, i.e. the version of the source data of its value.
+     * Versions are only comparable with others from the same cache instance.
+     * @param key - key
+     * @return version
+     */
+    public long version(K key) {
+        Eviction eviction = evictions.get(key);
+        return eviction == null ? floor : Math.max(eviction.version, floor);
+    }
+
+    /**
+     * Get the time at which a key was last evicted, i.e. the time its source data was last known to change.
+     * Keys which haven't been evicted are considered to have changed when the cache was created.
+     * @param key - key
+     * @return time in milliseconds since the epoch
+     */
+    public long lastEvicted(K key) {
+        Eviction eviction = evictions.get(key);
+        return eviction == null ? floorTime : Math.max(eviction.time, floorTime);
+    }
+
+    /**
+     * Get a cached value
+     * @param key - key
+     * @return value or <code>null</code> if not cached or expired
+     */
+    public V get(K key) {
+        V value = null;
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            if (entry.expires > System.currentTimeMillis()) {
+                value = entry.value;
+            } else {
+                entries.remove(key, entry);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Cache a value, unless the key has been evicted since the value was requested
+     * @param key - key
+     * @param value - value
+     * @param version - cache version read before the value was requested
+     */
+    public void put(K key, V value, long version) {
+        if (ttlMillis <= 0 || value == null) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            entries.clear();
+        }
+        entries.compute(key, (k, entry) -> {
+            Eviction evicted = evictions.get(k);
+            if ((evicted != null && evicted.version > version) || version < floor) {
+                return entry;   // evicted since requested, value may be stale
+            }
+            return new Entry<>(value, System.currentTimeMillis() + ttlMillis);
+        });
+    }
+
+    /**
+     * Evict a value
+     * @param key - key
+     */
+    public void evict(K key) {
+        long version = sequence.incrementAndGet();
+        long time = System.currentTimeMillis();
+        if (evictions.size() >= maxSize) {
+            raiseFloor(version, time);
+            evictions.clear();
+        }
+        entries.compute(key, (k, entry) -> {
+            evictions.put(k, new Eviction(version, time));
+            return null;
+        });
+    }
+
+    /**
+     * Evict all values whose keys match a predicate
+     * @param predicate - key predicate
+     */
+    public void evictIf(Predicate<K> predicate) {
+        raiseFloor(sequence.incrementAndGet(), System.currentTimeMillis());
+        entries.keySet().removeIf(predicate);
+    }
+
+    private void raiseFloor(long version, long time) {
+        floorTime = time;
+        floor = version;
+    }
+
+    /**
+     * Evict all values
+     */
+    public void clear() {
+        evictIf(k -> true);
+    }
+
+    /**
+     * Get the number of cached values, including any which have expired but not yet been removed
+     * @return number of values
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class Eviction {
+        final long version;
+        final long time;
+
+        Eviction(long version, long time) {
+            this.version = version;
+            this.time = time;
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expires;
+
+        Entry(V value, long expires) {
+            this.value = value;
+            this.expires = expires;
+        }
+    }
+}
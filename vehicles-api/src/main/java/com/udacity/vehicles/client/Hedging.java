@@ -0,0 +1,175 @@
+package com.udacity.vehicles.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Hedges requests, by sending a second request to another instance of a service if no response has been received
+ * within a delay, and using whichever successful response arrives first. An error only fails the request once the
+ * other request has also failed, or if it occurs before the hedge is sent.
+ * <p>
+ * The delay is the configured percentile of recent response times, or the minimum delay if greater, so only the
+ * slowest requests are hedged. Metrics:
+ * <ul>
+ *     <li><code>client.hedge.latency</code> - response times</li>
+ *     <li><code>client.hedge.requests</code> - requests which could be hedged, tagged with whether they were</li>
+ *     <li><code>client.hedge.rate</code> - fraction of requests which were hedged</li>
+ *     <li><code>client.hedge.wins</code> - responses of hedged requests, tagged with whether the hedge won</li>
+ * </ul>
+ */
+public class Hedging {
+
+    public static final String LATENCY_METRIC = "client.hedge.latency";
+    public static final String REQUESTS_METRIC = "client.hedge.requests";
+    public static final String RATE_METRIC = "client.hedge.rate";
+    public static final String WINS_METRIC = "client.hedge.wins";
+
+    /** response times required before the percentile is used */
+    static final int MIN_SAMPLES = 20;
+
+    private final double percentile;
+    private final long minDelay;
+    private final Timer latency;
+    private final Counter unhedged;
+    private final Counter hedged;
+    private final Counter primaryWins;
+    private final Counter hedgeWins;
+
+    /**
+     * Constructor
+     * @param client - name of client, used to tag metrics
+     * @param registry - registry for metrics
+     * @param percentile - percentile of response times after which a request is hedged, e.g. 0.95
+     * @param minDelay - minimum delay in ms before a request is hedged
+     */
+    public Hedging(String client, MeterRegistry registry, double percentile, long minDelay) {
+        this.percentile = percentile;
+        this.minDelay = minDelay;
+        this.latency = Timer.builder(LATENCY_METRIC)
+                .tag("client", client)
+                .publishPercentiles(percentile)
+                .register(registry);
+        this.unhedged = requestCounter(client, registry, false);
+        this.hedged = requestCounter(client, registry, true);
+        this.primaryWins = winCounter(client, registry, false);
+        this.hedgeWins = winCounter(client, registry, true);
+        Gauge.builder(RATE_METRIC, this, Hedging::hedgeRate)
+                .tag("client", client)
+                .register(registry);
+    }
+
+    private static Counter requestCounter(String client, MeterRegistry registry, boolean hedged) {
+        return Counter.builder(REQUESTS_METRIC)
+                .tag("client", client)
+                .tag("hedged", Boolean.toString(hedged))
+                .register(registry);
+    }
+
+    private static Counter winCounter(String client, MeterRegistry registry, boolean hedge) {
+        return Counter.builder(WINS_METRIC)
+                .tag("client", client)
+                .tag("winner", hedge ? "hedge" : "primary")
+                .register(registry);
+    }
+
+    /**
+     * Hedge a request
+     * @param primary - request to the configured instance
+     * @param alternate - request to the specified instance
+     * @param alternateUri - base uri of another instance, or <code>null</code> if there is none
+     * @param <T> - response type
+     * @return response of whichever request responds successfully first
+     */
+    public <T> Mono<T> hedge(Mono<T> primary, Function<URI, Mono<T>> alternate, URI alternateUri) {
+        Mono<T> request;
+        if (alternateUri == null) {
+            unhedged.increment();
+            request = timed(primary);
+        } else {
+            AtomicBoolean sent = new AtomicBoolean();
+            // a primary error before the hedge is sent isn't hedged, so the hedge is abandoned
+            Sinks.One<Boolean> primaryFailed = Sinks.one();
+            Mono<T> hedge = Mono.delay(delay())
+                    .takeUntilOther(primaryFailed.asMono())
+                    .flatMap(tick -> Mono.defer(() -> {
+                        sent.set(true);
+                        hedged.increment();
+                        return timed(alternate.apply(alternateUri));
+                    }))
+                    .doOnNext(response -> hedgeWins.increment());
+            request = Mono.firstWithValue(
+                    timed(primary)
+                            .doOnNext(response -> {
+                                if (sent.get()) {
+                                    primaryWins.increment();
+                                }
+                            })
+                            .doOnError(e -> primaryFailed.tryEmitValue(true)),
+                    hedge)
+                    .onErrorMap(NoSuchElementException.class, Hedging::firstError)
+                    .doOnTerminate(() -> countUnhedged(sent))
+                    .doOnCancel(() -> countUnhedged(sent));
+        }
+        return request;
+    }
+
+    /**
+     * Get the error of the first request to fail, in preference to the error reporting that no request succeeded
+     * @param e - error reporting that no request succeeded, with the request errors suppressed in request order
+     * @return error
+     */
+    private static Throwable firstError(NoSuchElementException e) {
+        Throwable[] suppressed = e.getSuppressed();
+        return suppressed.length > 0 ? suppressed[0] : e;
+    }
+
+    private void countUnhedged(AtomicBoolean sent) {
+        if (!sent.get()) {
+            unhedged.increment();
+        }
+    }
+
+    /**
+     * Get the delay after which a request is hedged
+     * @return delay
+     */
+    public Duration delay() {
+        long delay = minDelay;
+        if (latency.count() >= MIN_SAMPLES) {
+            for (ValueAtPercentile value : latency.takeSnapshot().percentileValues()) {
+                if (value.percentile() == percentile) {
+                    delay = Math.max(delay, (long) value.value(TimeUnit.MILLISECONDS));
+                }
+            }
+        }
+        return Duration.ofMillis(delay);
+    }
+
+    /**
+     * Get the fraction of requests which have been hedged
+     * @return fraction, or 0 if no requests have been made
+     */
+    public double hedgeRate() {
+        double total = unhedged.count() + hedged.count();
+        return total == 0 ? 0 : hedged.count() / total;
+    }
+
+    private <T> Mono<T> timed(Mono<T> request) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return request.doOnSuccess(response -> latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+}
@@ -0,0 +1,126 @@
+package com.udacity.vehicles.client;
+
+import com.udacity.deadline.Deadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key, so only the first makes the downstream request and the others
+ * wait for and share its result. Waiting calls are limited to the remaining time budget of the current request's
+ * {@link Deadline}, and return <code>null</code> if it expires, as a request which timed out would.
+ * <p>
+ * Calls are counted in the <code>client.requests</code> metric, tagged with whether they were coalesced, and the
+ * fraction which were coalesced is available from the <code>client.requests.coalesced.ratio</code> gauge.
+ * @param <K> - key type
+ * @param <V> - value type
+ */
+public class SingleFlight<K, V> {
+
+    public static final String REQUESTS_METRIC = "client.requests";
+    public static final String COALESCED_RATIO_METRIC = "client.requests.coalesced.ratio";
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight;
+    private final Counter leaders;
+    private final Counter coalesced;
+
+    /**
+     * Constructor
+     * @param client - name of client, used to tag metrics
+     * @param registry - registry for metrics
+     */
+    public SingleFlight(String client, MeterRegistry registry) {
+        this.inFlight = new ConcurrentHashMap<>();
+        this.leaders = Counter.builder(REQUESTS_METRIC)
+                .tag("client", client)
+                .tag("coalesced", "false")
+                .register(registry);
+        this.coalesced = Counter.builder(REQUESTS_METRIC)
+                .tag("client", client)
+                .tag("coalesced", "true")
+                .register(registry);
+        Gauge.builder(COALESCED_RATIO_METRIC, this, SingleFlight::coalescedRatio)
+                .tag("client", client)
+                .register(registry);
+    }
+
+    /**
+     * Make a call, or if a call for the same key is in flight, wait for its result
+     * @param key - key
+     * @param call - call to make
+     * @return result of call, or <code>null</code> if the deadline expired while waiting for the call in flight
+     */
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        leaders.increment();
+        try {
+            V value = call.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Wait for the result of a call in flight, for no longer than the remaining time budget of the current request
+     * @param future - result of call
+     * @return result of call, or <code>null</code> if the deadline expired
+     */
+    private static <V> V await(CompletableFuture<V> future) {
+        V value = null;
+        try {
+            Optional<Deadline> deadline = Deadline.current();
+            if (deadline.isPresent()) {
+                value = future.get(deadline.get().remaining(), TimeUnit.MILLISECONDS);
+            } else {
+                value = future.get();
+            }
+        } catch (TimeoutException e) {
+            // deadline expired, leave the call in flight for its leader
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new CompletionException(e.getCause());
+        }
+        return value;
+    }
+
+    /**
+     * Get the fraction of calls which have been coalesced
+     * @return fraction, or 0 if no calls have been made
+     */
+    public double coalescedRatio() {
+        double total = leaders.count() + coalesced.count();
+        return total == 0 ? 0 : coalesced.count() / total;
+    }
+
+    /**
+     * Get the number of calls in flight
+     * @return number of calls
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
@@ -1,8 +1,14 @@
 package com.udacity.vehicles.client.maps;
 
+import com.udacity.events.ChangeEvent;
+import com.udacity.events.ChangeEventBus;
 import com.udacity.vehicles.client.AbstractClient;
+import com.udacity.vehicles.client.ClientCache;
+import com.udacity.vehicles.client.Hedging;
+import com.udacity.vehicles.client.SingleFlight;
 import com.udacity.vehicles.domain.Location;
 import com.udacity.vehicles.service.ServicesService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,12 +17,17 @@ import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import static com.udacity.vehicles.config.Config.*;
 
 /**
  * Implements a class to interface with the Maps Client for location data.
+ * Addresses are cached, and evicted when an address change event is received from the Maps Service.
+ * Concurrent requests for the address of the same vehicle at the same location are coalesced into a single request.
  */
 @Component
 public class MapsClient extends AbstractClient  {
@@ -27,17 +38,35 @@ public class MapsClient extends AbstractClient  {
     public static final String LONGITUDE_PARAM = "lon";
     public static final String VEHICLE_ID_PARAM = "vehicleId";
 
-    @Value("${maps.service.name}")
-    private String serviceName;
+    private final String serviceName;
 
     @Value("${address.undetermined}")
     private String undetermined;
 
     private final ModelMapper mapper;
+    private final ClientCache<Long, CachedAddress> cache;
+    /** address requests in flight, keyed by vehicle id, latitude & longitude */
+    private final SingleFlight<List<Object>, Address> allocations;
 
-    public MapsClient(WebClient mapsWebClient, ServicesService servicesService, ModelMapper mapper) {
+    public MapsClient(WebClient mapsWebClient, ServicesService servicesService, ModelMapper mapper,
+                      ChangeEventBus eventBus, MeterRegistry meterRegistry,
+                      @Value("${maps.service.name}") String serviceName,
+                      @Value("${" + CLIENT_CACHE_TTL + ":" + DEFAULT_CLIENT_CACHE_TTL + "}") long cacheTtl,
+                      @Value("${" + CLIENT_CACHE_MAX_SIZE + ":" + DEFAULT_CLIENT_CACHE_MAX_SIZE + "}") int cacheMaxSize,
+                      @Value("${" + CLIENT_HEDGE_ENABLED + ":false}") boolean hedge,
+                      @Value("${" + CLIENT_HEDGE_PERCENTILE + ":" + DEFAULT_CLIENT_HEDGE_PERCENTILE + "}") double hedgePercentile,
+                      @Value("${" + CLIENT_HEDGE_MIN_DELAY + ":" + DEFAULT_CLIENT_HEDGE_MIN_DELAY + "}") long hedgeMinDelay) {
         super(mapsWebClient, servicesService);
+        this.serviceName = serviceName;
         this.mapper = mapper;
+        this.cache = new ClientCache<>(cacheTtl, cacheMaxSize);
+        this.allocations = new SingleFlight<>(serviceName, meterRegistry);
+
+        if (hedge) {
+            setHedging(new Hedging(serviceName, meterRegistry, hedgePercentile, hedgeMinDelay));
+        }
+
+        eventBus.subscribe(this::onChange);
     }
 
     /**
@@ -48,18 +77,67 @@ public class MapsClient extends AbstractClient  {
      *   or an exception message noting the Maps service is down
      */
     public Location getAddress(Location location, Long vehicleId) {
+        Address address = allocateAddress(location, vehicleId);
+        if (address == null) {
+            address = undeterminedAddress();
+        }
+        mapper.map(address, location);
+
+        return location;
+    }
+
+    /**
+     * Gets the cached address of a vehicle at a location, without making a request.
+     * @param location An object containing "lat" and "lon" of location
+     * @param vehicleId id of vehicle
+     * @return The location, including the address if cached for the vehicle at the location
+     */
+    public Location getCachedAddress(Location location, Long vehicleId) {
+        CachedAddress cached = cache.get(vehicleId);
+        if (cached != null && cached.isAt(location)) {
+            mapper.map(cached.address, location);
+        }
+        return location;
+    }
+
+    /**
+     * Gets the address allocated to a vehicle at a location from the Maps client.
+     * @param location An object containing "lat" and "lon" of location
+     * @param vehicleId id of vehicle for which request is being made
+     * @return The allocated address, or <code>null</code> if the request failed
+     */
+    public Address allocateAddress(Location location, Long vehicleId) {
+        Address address = null;
+        CachedAddress cached = cache.get(vehicleId);
+        if (cached != null && cached.isAt(location)) {
+            // vehicle hasn't moved, so maps service would return the same address
+            address = cached.address;
+        }
+        if (address == null) {
+            address = allocations.execute(Arrays.asList(vehicleId, location.getLat(), location.getLon()),
+                    () -> requestAddress(location, vehicleId));
+        }
+        return address;
+    }
+
+    /**
+     * Request the address allocated to a vehicle at a location from the Maps client, and cache it
+     * @param location An object containing "lat" and "lon" of location
+     * @param vehicleId id of vehicle for which request is being made
+     * @return The allocated address, or <code>null</code> if the request failed
+     */
+    private Address requestAddress(Location location, Long vehicleId) {
+        long version = cache.version();
         Address address = send(requestInfo(location) + requestInfo(vehicleId), HttpMethod.GET, MAPS_GET_URL,
                 Map.of(
                     LATITUDE_PARAM, location.getLat(),
                     LONGITUDE_PARAM, location.getLon(),
                     VEHICLE_ID_PARAM, vehicleId
             ), Address.class);
-        if (address == null) {
-            address = undeterminedAddress();
+        if (address != null) {
+            cache.put(vehicleId, new CachedAddress(location, address), version);
         }
-        mapper.map(address, location);
-
-        return location;
+        return address;
     }
 
     /**
@@ -69,11 +147,27 @@ public class MapsClient extends AbstractClient  {
      *   or an exception message noting the Maps service is down
      */
     public long delete(Long vehicleId) {
+        cache.evict(vehicleId);
         return send(requestInfo(vehicleId), HttpMethod.DELETE, MAPS_DELETE_URL, Map.of(
                 VEHICLE_ID_PARAM, vehicleId
         ), Long.class);
     }
 
+    /**
+     * Release the address allocations of a list of vehicles from the Maps client.
+     * @param vehicleIds ids of vehicles for which request is being made
+     * @return Number of allocations released, or <code>null</code> if the request failed
+     */
+    public Long release(List<Long> vehicleIds) {
+        Long affected = 0L;
+        vehicleIds.forEach(cache::evict);
+        if (!vehicleIds.isEmpty()) {
+            affected = send(requestInfo(vehicleIds), HttpMethod.POST, MAPS_RELEASE_URL, Map.of(),
+                    vehicleIds, Long.class);
+        }
+        return affected;
+    }
+
     /**
      * Get the number of vehicles with an allocation from the Maps client.
      * @return Number of allocations
@@ -82,6 +176,24 @@ public class MapsClient extends AbstractClient  {
         return send("", HttpMethod.GET, VEHICLES_GET_URL, Map.of(), Long.class);
     }
 
+    /**
+     * Get the version of a vehicle's address, which changes whenever the address is known to change
+     * @param vehicleId - id of vehicle
+     * @return version
+     */
+    public long getVersion(Long vehicleId) {
+        return cache.version(vehicleId);
+    }
+
+    /**
+     * Get the time a vehicle's address was last known to change
+     * @param vehicleId - id of vehicle
+     * @return time in milliseconds since the epoch
+     */
+    public long getLastModified(Long vehicleId) {
+        return cache.lastEvicted(vehicleId);
+    }
+
     /**
      * Get location string for errors
      * @param location
@@ -100,6 +212,28 @@ public class MapsClient extends AbstractClient  {
         return "vehicleId(" + vehicleId + ") ";
     }
 
+    /**
+     * Get vehicleIds string for errors
+     * @param vehicleIds
+     * @return
+     */
+    private String requestInfo(List<Long> vehicleIds) {
+        return "vehicleIds(" + vehicleIds.size() + " ids) ";
+    }
+
+    /**
+     * Evict the cached addresses of the vehicles affected by a change event
+     * @param event - change event
+     */
+    private void onChange(ChangeEvent event) {
+        if (event.getType() == ChangeEvent.Type.ADDRESS) {
+            event.getVehicleIds().forEach(cache::evict);
+            if (event.isRange()) {
+                cache.evictIf(event::appliesTo);
+            }
+        }
+    }
+
     private Address undeterminedAddress() {
         return Address.of(undetermined, undetermined, undetermined, undetermined);
     }
@@ -114,4 +248,40 @@ public class MapsClient extends AbstractClient  {
         return log;
     }
 
+    /**
+     * {@inheritDoc}
+     * The maps endpoints support binary json, the Spring Data REST endpoints do not.
+     */
+    @Override
+    protected boolean binaryCapable(String path) {
+        return path.startsWith(MAPS_GET_URL) || path.equals(VEHICLES_GET_URL);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The vehicle count endpoint is idempotent; an address lookup allocates the address to the vehicle, so is excluded.
+     */
+    @Override
+    protected boolean hedgeable(String path) {
+        return path.equals(VEHICLES_GET_URL);
+    }
+
+    /**
+     * Address allocated to a vehicle at a location
+     */
+    private static final class CachedAddress {
+        final Double lat;
+        final Double lon;
+        final Address address;
+
+        CachedAddress(Location location, Address address) {
+            this.lat = location.getLat();
+            this.lon = location.getLon();
+            this.address = address;
+        }
+
+        boolean isAt(Location location) {
+            return Objects.equals(lat, location.getLat()) && Objects.equals(lon, location.getLon());
+        }
+    }
 }
@@ -1,7 +1,15 @@
 package com.udacity.vehicles.client.prices;
 
+import com.udacity.events.ChangeEvent;
+import com.udacity.events.ChangeEventBus;
 import com.udacity.vehicles.client.AbstractClient;
+import com.udacity.vehicles.client.ClientCache;
+import com.udacity.vehicles.client.Hedging;
+import com.udacity.vehicles.client.SingleFlight;
+import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.domain.car.Details;
 import com.udacity.vehicles.service.ServicesService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,15 +18,15 @@ import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ThreadLocalRandom;
 
 import static com.udacity.vehicles.config.Config.*;
 
 /**
  * Implements a class to interface with the Pricing Client for price data.
+ * Prices are cached, and evicted when a price change event is received from the Pricing Service.
+ * Concurrent lookups of the price of the same vehicle are coalesced into a single request.
  */
 @Component
 public class PriceClient extends AbstractClient {
@@ -40,29 +48,41 @@ public class PriceClient extends AbstractClient {
     @Value("${car.price.consult}")
     private String consultPrice;
 
-    @Value("${pricing.service.name}")
-    private String serviceName;
+    private final String serviceName;
 
-    private WebClient client;
-    private ServicesService servicesService;
+    private final ClientCache<Long, Price> cache;
+    private final SingleFlight<Long, Price> lookups;
 
-    public PriceClient(WebClient pricingWebClient, ServicesService servicesService) {
+    public PriceClient(WebClient pricingWebClient, ServicesService servicesService, ChangeEventBus eventBus,
+                       MeterRegistry meterRegistry,
+                       @Value("${pricing.service.name}") String serviceName,
+                       @Value("${" + CLIENT_CACHE_TTL + ":" + DEFAULT_CLIENT_CACHE_TTL + "}") long cacheTtl,
+                       @Value("${" + CLIENT_CACHE_MAX_SIZE + ":" + DEFAULT_CLIENT_CACHE_MAX_SIZE + "}") int cacheMaxSize,
+                       @Value("${" + CLIENT_HEDGE_ENABLED + ":false}") boolean hedge,
+                       @Value("${" + CLIENT_HEDGE_PERCENTILE + ":" + DEFAULT_CLIENT_HEDGE_PERCENTILE + "}") double hedgePercentile,
+                       @Value("${" + CLIENT_HEDGE_MIN_DELAY + ":" + DEFAULT_CLIENT_HEDGE_MIN_DELAY + "}") long hedgeMinDelay) {
         super(pricingWebClient, servicesService);
+        this.serviceName = serviceName;
+        this.cache = new ClientCache<>(cacheTtl, cacheMaxSize);
+        this.lookups = new SingleFlight<>(serviceName, meterRegistry);
+
+        if (hedge) {
+            setHedging(new Hedging(serviceName, meterRegistry, hedgePercentile, hedgeMinDelay));
+        }
+
+        eventBus.subscribe(this::onChange);
     }
 
     /**
-     * Get a new price for the specified vehicle
+     * Get a new price for the specified vehicle.
+     * The price is computed and stored, replacing any existing price, in a single request.
      * @param currency - currency to use
-     * @param vehicleId - id of vehicle
+     * @param car - vehicle to price
      * @return
      */
-    public String getPrice(String currency, Long vehicleId) {
-        if (StringUtils.isEmpty(currency)) {
-            currency = defaultCurrency;
-        }
+    public String getPrice(String currency, Car car) {
         String priceStr;
-        Price price = send(requestInfo(vehicleId), HttpMethod.POST, PRICING_POST_URL, Map.of(),
-                Price.of(currency, randomPrice(), vehicleId), Price.class);
+        Price price = upsertPrice(currency, car);
         if (price == null) {
             // no response, get a new price
             priceStr = consultPrice;
@@ -72,50 +92,104 @@ public class PriceClient extends AbstractClient {
         return priceStr;
     }
 
+    /**
+     * Compute and store a new price for the specified vehicle, replacing any existing price.
+     * @param currency - currency to use
+     * @param car - vehicle to price
+     * @return price, or <code>null</code> if the request failed
+     */
+    public Price upsertPrice(String currency, Car car) {
+        if (StringUtils.isEmpty(currency)) {
+            currency = defaultCurrency;
+        }
+        long version = cache.version();
+        Price price = send(requestInfo(car.getId()), HttpMethod.PUT, upsertUrl(car.getId()), Map.of(),
+                priceRequest(currency, car), Price.class);
+        cache.put(car.getId(), price, version);
+        return price;
+    }
+
     /**
      * Get a new price for the specified vehicle in the default currency
-     * @param vehicleId - id of vehicle
+     * @param car - vehicle to price
      * @return
      */
-    public String getPrice(Long vehicleId) {
-        return getPrice(null, vehicleId);
+    public String getPrice(Car car) {
+        return getPrice(null, car);
     }
 
     /**
      * Get the price for the specified vehicle
-     * @param vehicleId - id of vehicle
+     * @param car - vehicle to price
+     * @param priceMode - price mode
      * @return
      */
-    public String getByVehicleId(Long vehicleId, PriceMode priceMode) {
+    public String getByVehicleId(Car car, PriceMode priceMode) {
         String priceStr;
         Price price = null;
+        Long vehicleId = car.getId();
         if (priceMode == PriceMode.EXISTING) {
-            price = send(requestInfo(vehicleId), HttpMethod.GET, PRICING_GET_BY_VEHICLEID_URL, Map.of(
-                    VEHICLE_ID_PARAM, vehicleId
-            ), Price.class);
+            price = cache.get(vehicleId);
+            if (price == null) {
+                price = lookups.execute(vehicleId, () -> lookupPrice(vehicleId));
+            }
         }
         if (price == null) {
             // nothing in database or getting new price, get a new price
-            deleteByVehicleId(vehicleId);
-            priceStr = getPrice(vehicleId);
+            priceStr = getPrice(car);
         } else {
             priceStr = formatPrice(price);
         }
         return priceStr;
     }
 
+    /**
+     * Get the cached price for the specified vehicle, without making a request
+     * @param vehicleId - id of vehicle
+     * @return price, or <code>null</code> if not cached
+     */
+    public String getCachedPrice(Long vehicleId) {
+        Price price = cache.get(vehicleId);
+        return price == null ? null : formatPrice(price);
+    }
+
+    /**
+     * Get the stored price for the specified vehicle, and cache it
+     * @param vehicleId - id of vehicle
+     * @return price, or <code>null</code> if there is no price or the request failed
+     */
+    private Price lookupPrice(Long vehicleId) {
+        long version = cache.version();
+        Price price = send(requestInfo(vehicleId), HttpMethod.GET, PRICING_LEAN_GET_BY_VEHICLEID_URL, Map.of(
+                VEHICLE_ID_PARAM, vehicleId
+        ), Price.class);
+        cache.put(vehicleId, price, version);
+        return price;
+    }
+
     /**
      * Delete the price for the specified vehicle
      * @param vehicleId - id of vehicle
-     * @return
+     * @return number of prices deleted, or <code>null</code> if the request failed
      */
-    public long deleteByVehicleId(Long vehicleId) {
-        long affected = 0L;
-        Long result = send(requestInfo(vehicleId), HttpMethod.GET, PRICING_DELETE_BY_VEHICLEID_URL, Map.of(
+    public Long deleteByVehicleId(Long vehicleId) {
+        cache.evict(vehicleId);
+        return send(requestInfo(vehicleId), HttpMethod.GET, PRICING_DELETE_BY_VEHICLEID_URL, Map.of(
                 VEHICLE_ID_PARAM, vehicleId
         ), Long.class);
-        if (result != null) {
-            affected = result;
+    }
+
+    /**
+     * Delete the prices of a list of vehicles
+     * @param vehicleIds - ids of vehicles
+     * @return number of prices deleted, or <code>null</code> if the request failed
+     */
+    public Long delete(List<Long> vehicleIds) {
+        Long affected = 0L;
+        vehicleIds.forEach(cache::evict);
+        if (!vehicleIds.isEmpty()) {
+            affected = send(requestInfo(vehicleIds), HttpMethod.POST, PRICING_LEAN_DELETE_URL, Map.of(),
+                    vehicleIds, Long.class);
         }
         return affected;
     }
@@ -125,13 +199,52 @@ public class PriceClient extends AbstractClient {
      * @return
      */
     public long getCount() {
-        return send("", HttpMethod.GET, PRICING_COUNT_URL, Map.of(), Long.class);
+        return send("", HttpMethod.GET, PRICING_LEAN_COUNT_URL, Map.of(), Long.class);
+    }
+
+    /**
+     * Get the version of a vehicle's price, which changes whenever the price is known to change
+     * @param vehicleId - id of vehicle
+     * @return version
+     */
+    public long getVersion(Long vehicleId) {
+        return cache.version(vehicleId);
+    }
+
+    /**
+     * Get the time a vehicle's price was last known to change
+     * @param vehicleId - id of vehicle
+     * @return time in milliseconds since the epoch
+     */
+    public long getLastModified(Long vehicleId) {
+        return cache.lastEvicted(vehicleId);
+    }
+
+    /**
+     * Evict the cached prices of the vehicles affected by a change event
+     * @param event - change event
+     */
+    private void onChange(ChangeEvent event) {
+        if (event.getType() == ChangeEvent.Type.PRICE) {
+            event.getVehicleIds().forEach(cache::evict);
+            if (event.isRange()) {
+                cache.evictIf(event::appliesTo);
+            }
+        }
+    }
+
+    private static String upsertUrl(Long vehicleId) {
+        return PRICING_QUOTE_BY_VEHICLEID_URL.replace("{" + VEHICLE_ID_PARAM + "}", vehicleId.toString());
     }
 
     private String requestInfo(Long vehicleId) {
         return "vehicleId - " + vehicleId;
     }
 
+    private String requestInfo(List<Long> vehicleIds) {
+        return "vehicleIds - " + vehicleIds.size() + " ids";
+    }
+
     @Override
     protected String getServiceName() {
         return serviceName;
@@ -142,17 +255,48 @@ public class PriceClient extends AbstractClient {
         return log;
     }
 
+    /**
+     * {@inheritDoc}
+     * The lean lookup and quote endpoints support binary json, the Spring Data REST endpoints do not.
+     */
+    @Override
+    protected boolean binaryCapable(String path) {
+        return path.startsWith(PRICING_LEAN_GET_BY_VEHICLEID_URL) || path.startsWith(PRICING_QUOTE_URL);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The lean lookup and count endpoints are idempotent; the Spring Data REST delete is also a GET, so is excluded.
+     */
+    @Override
+    protected boolean hedgeable(String path) {
+        return path.equals(PRICING_LEAN_GET_BY_VEHICLEID_URL) || path.equals(PRICING_LEAN_COUNT_URL);
+    }
+
     private String formatPrice(Price price) {
         return String.format(priceFormat, price.getCurrency(), price.getPrice().toString());
     }
 
     /**
-     * Gets a random price to fill in for a given vehicle ID.
-     * @return random price for a vehicle
+     * Get the pricing attributes of a vehicle
+     * @param currency - currency to use
+     * @param car - vehicle to price
+     * @return
      */
-    public static BigDecimal randomPrice() {
-        return BigDecimal.valueOf(ThreadLocalRandom.current().nextDouble(1, 5))
-                .multiply(new BigDecimal("5000")).setScale(2, RoundingMode.HALF_UP);
+    private static PriceRequest priceRequest(String currency, Car car) {
+        Details details = car.getDetails();
+        Integer manufacturerCode = null;
+        Integer modelYear = null;
+        Integer mileage = null;
+        if (details != null) {
+            if (details.getManufacturer() != null) {
+                manufacturerCode = details.getManufacturer().getCode();
+            }
+            modelYear = details.getModelYear();
+            mileage = details.getMileage();
+        }
+        return PriceRequest.of(car.getId(), currency, manufacturerCode, modelYear, mileage,
+                car.getCondition() == null ? null : car.getCondition().name());
     }
 
 }
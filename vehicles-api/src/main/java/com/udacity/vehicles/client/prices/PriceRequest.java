@@ -0,0 +1,80 @@
+package com.udacity.vehicles.client.prices;
+
+/**
+ * Represents the vehicle attributes the pricing service computes a price from.
+ */
+public class PriceRequest {
+
+    private Long vehicleId;
+    private String currency;
+    private Integer manufacturerCode;
+    private Integer modelYear;
+    private Integer mileage;
+    private String condition;
+
+    public PriceRequest() {
+    }
+
+    public PriceRequest(Long vehicleId, String currency, Integer manufacturerCode, Integer modelYear,
+                        Integer mileage, String condition) {
+        this.vehicleId = vehicleId;
+        this.currency = currency;
+        this.manufacturerCode = manufacturerCode;
+        this.modelYear = modelYear;
+        this.mileage = mileage;
+        this.condition = condition;
+    }
+
+    public static PriceRequest of(Long vehicleId, String currency, Integer manufacturerCode, Integer modelYear,
+                                  Integer mileage, String condition) {
+        return new PriceRequest(vehicleId, currency, manufacturerCode, modelYear, mileage, condition);
+    }
+
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+
+    public void setVehicleId(Long vehicleId) {
+        this.vehicleId = vehicleId;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public Integer getManufacturerCode() {
+        return manufacturerCode;
+    }
+
+    public void setManufacturerCode(Integer manufacturerCode) {
+        this.manufacturerCode = manufacturerCode;
+    }
+
+    public Integer getModelYear() {
+        return modelYear;
+    }
+
+    public void setModelYear(Integer modelYear) {
+        this.modelYear = modelYear;
+    }
+
+    public Integer getMileage() {
+        return mileage;
+    }
+
+    public void setMileage(Integer mileage) {
+        this.mileage = mileage;
+    }
+
+    public String getCondition() {
+        return condition;
+    }
+
+    public void setCondition(String condition) {
+        this.condition = condition;
+    }
+}
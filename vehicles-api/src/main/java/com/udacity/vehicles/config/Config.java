@@ -14,10 +14,17 @@ public class Config {
     public static final String PRICING_GET_URL = "/prices";
     public static final String PRICING_DELETE_BY_VEHICLEID_URL = "/prices/search/deleteByVehicleId";
     public static final String PRICING_COUNT_URL = "/prices/search/countPrices";
+    public static final String PRICING_QUOTE_URL = "/quotes";
+    public static final String PRICING_QUOTE_BATCH_URL = "/quotes/batch";
+    public static final String PRICING_QUOTE_BY_VEHICLEID_URL = "/quotes/{vehicleId}";
+    public static final String PRICING_LEAN_GET_BY_VEHICLEID_URL = "/lean/prices";
+    public static final String PRICING_LEAN_COUNT_URL = "/lean/prices/count";
+    public static final String PRICING_LEAN_DELETE_URL = "/lean/prices/delete";
 
     // maps related
     public static final String MAPS_GET_URL = "/maps";
     public static final String MAPS_DELETE_URL = MAPS_GET_URL;
+    public static final String MAPS_RELEASE_URL = "/maps/release";
     public static final String VEHICLES_GET_URL = "/vehicles";
 
     // vehicle related
@@ -25,6 +32,15 @@ public class Config {
     public static final String CARS_GET_BY_ID_URL = "/{id}";
     public static final String CARS_PUT_BY_ID_URL = "/{id}";
     public static final String CARS_DELETE_BY_ID_URL = "/{id}";
+    public static final String CARS_SEARCH_URL = "/search";
+    public static final String CARS_NEAR_URL = "/near";
+    public static final String CARS_NEAREST_URL = "/nearest";
+
+    // change event related
+    public static final String EVENTS_URL = "/events";
+
+    // binary json media type, negotiated for service-to-service calls
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
 
 
     public static String getUrl(String url, Map<String, Object> query) {
@@ -15,6 +15,8 @@ public class OpenApiConfig {
 
     public static final String OK = "200";   // HttpStatus.OK
     public static final String CREATED = "201"; // HttpStatus.CREATED
+    public static final String ACCEPTED = "202"; // HttpStatus.ACCEPTED
+    public static final String NOT_MODIFIED = "304"; // HttpStatus.NOT_MODIFIED
     public static final String BAD_REQUEST = "400"; // HttpStatus.BAD_REQUEST
     public static final String NOT_FOUND = "404";   // HttpStatus.NOT_FOUND
     public static final String INTERNAL_SERVER_ERROR = "500";   // HttpStatus.INTERNAL_SERVER_ERROR
@@ -6,6 +6,7 @@ import com.udacity.vehicles.domain.Location;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
+import javax.persistence.Cacheable;
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
 import javax.persistence.EntityListeners;
@@ -13,11 +14,16 @@ import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
 import javax.persistence.Transient;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.udacity.vehicles.domain.manufacturer.Manufacturer;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -27,6 +33,18 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
  */
 @Entity
 @EntityListeners(AuditingEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = {
+        @Index(name = "idx_car_manufacturer_model", columnList = "manufacturer_code, model"),
+        @Index(name = "idx_car_model", columnList = "model"),
+        @Index(name = "idx_car_body", columnList = "body"),
+        @Index(name = "idx_car_fuel_type", columnList = "fuel_type"),
+        @Index(name = "idx_car_model_year", columnList = "model_year"),
+        @Index(name = "idx_car_mileage", columnList = "mileage"),
+        @Index(name = "idx_car_condition", columnList = "condition"),
+        @Index(name = "idx_car_location", columnList = "lat, lon")
+})
 public class Car implements IValid<Car> {
 
     @Id
@@ -54,6 +72,9 @@ public class Car implements IValid<Car> {
     @Transient
     private String price;
 
+    @Enumerated(EnumType.STRING)
+    private Enrichment enrichment = Enrichment.COMPLETE;
+
     public Long getId() {
         return id;
     }
@@ -110,17 +131,34 @@ public class Car implements IValid<Car> {
         this.price = price;
     }
 
+    public Enrichment getEnrichment() {
+        return enrichment;
+    }
+
+    public void setEnrichment(Enrichment enrichment) {
+        this.enrichment = enrichment;
+    }
+
+    /**
+     * Check if price and address assignment is pending
+     * @return <code>true</code> if pending
+     */
+    @JsonIgnore
+    public boolean isEnrichmentPending() {
+        return enrichment == Enrichment.PENDING;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Car car = (Car) o;
-        return Objects.equals(id, car.id) && Objects.equals(createdAt, car.createdAt) && Objects.equals(modifiedAt, car.modifiedAt) && condition == car.condition && Objects.equals(details, car.details) && Objects.equals(location, car.location) && Objects.equals(price, car.price);
+        return Objects.equals(id, car.id) && Objects.equals(createdAt, car.createdAt) && Objects.equals(modifiedAt, car.modifiedAt) && condition == car.condition && Objects.equals(details, car.details) && Objects.equals(location, car.location) && Objects.equals(price, car.price) && enrichment == car.enrichment;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, createdAt, modifiedAt, condition, details, location, price);
+        return Objects.hash(id, createdAt, modifiedAt, condition, details, location, price, enrichment);
     }
 
     @Override
@@ -133,6 +171,7 @@ public class Car implements IValid<Car> {
                 ", details=" + details +
                 ", location=" + location +
                 ", price='" + price + '\'' +
+                ", enrichment=" + enrichment +
                 '}';
     }
 
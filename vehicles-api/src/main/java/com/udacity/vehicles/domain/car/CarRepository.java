@@ -1,9 +1,26 @@
 package com.udacity.vehicles.domain.car;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
 
 @Repository
-public interface CarRepository extends JpaRepository<Car, Long> {
+public interface CarRepository extends JpaRepository<Car, Long>, JpaSpecificationExecutor<Car>, CarRepositoryCustom {
 
+    /**
+     * Set the enrichment state of a list of cars. The modification time is also set, as bulk updates bypass
+     * auditing, so representations with the previous state are not considered current by conditional requests
+     * @param ids - ids of cars
+     * @param enrichment - enrichment state
+     * @return number of cars updated
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE #{#entityName} c SET c.enrichment=:enrichment, c.modifiedAt=CURRENT_TIMESTAMP WHERE c.id IN :ids")
+    int updateEnrichmentByIdIn(Collection<Long> ids, Enrichment enrichment);
 }
@@ -0,0 +1,18 @@
+package com.udacity.vehicles.domain.car;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Declares custom car repository queries.
+ */
+public interface CarRepositoryCustom {
+
+    /**
+     * Find cars, reading only the specified fields from the database
+     * @param fields - paths of the persistent fields to read, e.g. <code>details.model</code>
+     * @param id - id of car, or <code>null</code> for all cars
+     * @return list of cars with only the specified fields set
+     */
+    List<Car> findProjected(Collection<String> fields, Long id);
+}
@@ -0,0 +1,63 @@
+package com.udacity.vehicles.domain.car;
+
+import org.springframework.beans.ConfigurablePropertyAccessor;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Implements custom car repository queries.
+ */
+public class CarRepositoryImpl implements CarRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Car> findProjected(Collection<String> fields, Long id) {
+        List<String> paths = new ArrayList<>(fields);
+
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Car> root = query.from(Car.class);
+        List<Selection<?>> selections = paths.stream()
+                .map(path -> path(root, path))
+                .collect(Collectors.toList());
+        query.multiselect(selections);
+        if (id != null) {
+            query.where(builder.equal(root.get("id"), id));
+        }
+        query.orderBy(builder.asc(root.get("id")));
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(tuple -> {
+                    Car car = new Car();
+                    ConfigurablePropertyAccessor accessor = PropertyAccessorFactory.forDirectFieldAccess(car);
+                    accessor.setAutoGrowNestedPaths(true);
+                    for (int i = 0; i < paths.size(); i++) {
+                        accessor.setPropertyValue(paths.get(i), tuple.get(i));
+                    }
+                    return car;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static Path<?> path(Root<Car> root, String field) {
+        Path<?> path = root;
+        for (String name : field.split("\\.")) {
+            path = path.get(name);
+        }
+        return path;
+    }
+}
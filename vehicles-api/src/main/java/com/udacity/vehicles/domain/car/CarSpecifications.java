@@ -0,0 +1,91 @@
+package com.udacity.vehicles.domain.car;
+
+import com.udacity.vehicles.domain.Condition;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.Path;
+
+/**
+ * Specifications to filter cars.
+ * Each factory returns <code>null</code> if its criteria are not specified, so may be combined without checking.
+ */
+public class CarSpecifications {
+
+    private static final String DETAILS = "details";
+    private static final String LOCATION = "location";
+
+    private CarSpecifications() {
+        // non-instantiatable
+    }
+
+    public static Specification<Car> hasManufacturerCode(Integer code) {
+        return code == null ? null :
+                (root, query, builder) -> builder.equal(
+                        root.get(DETAILS).get("manufacturer").get("code"), code);
+    }
+
+    public static Specification<Car> hasModel(String model) {
+        return detailEquals("model", model);
+    }
+
+    public static Specification<Car> hasBody(String body) {
+        return detailEquals("body", body);
+    }
+
+    public static Specification<Car> hasFuelType(String fuelType) {
+        return detailEquals("fuelType", fuelType);
+    }
+
+    public static Specification<Car> hasCondition(Condition condition) {
+        return condition == null ? null :
+                (root, query, builder) -> builder.equal(root.get("condition"), condition);
+    }
+
+    public static Specification<Car> modelYearBetween(Integer min, Integer max) {
+        return detailBetween("modelYear", min, max);
+    }
+
+    public static Specification<Car> mileageBetween(Integer min, Integer max) {
+        return detailBetween("mileage", min, max);
+    }
+
+    /**
+     * Filter cars located within a bounding box; any of the bounds may be omitted
+     * @param minLat - minimum latitude
+     * @param maxLat - maximum latitude
+     * @param minLon - minimum longitude
+     * @param maxLon - maximum longitude
+     * @return specification
+     */
+    public static Specification<Car> withinBox(Double minLat, Double maxLat, Double minLon, Double maxLon) {
+        Specification<Car> lat = between(LOCATION, "lat", minLat, maxLat);
+        Specification<Car> lon = between(LOCATION, "lon", minLon, maxLon);
+        return lat == null ? lon : lat.and(lon);
+    }
+
+    private static Specification<Car> detailEquals(String attribute, Object value) {
+        return value == null ? null :
+                (root, query, builder) -> builder.equal(root.get(DETAILS).get(attribute), value);
+    }
+
+    private static <T extends Comparable<? super T>> Specification<Car> detailBetween(String attribute, T min, T max) {
+        return between(DETAILS, attribute, min, max);
+    }
+
+    private static <T extends Comparable<? super T>> Specification<Car> between(String embedded, String attribute,
+                                                                               T min, T max) {
+        Specification<Car> specification = null;
+        if (min != null || max != null) {
+            specification = (root, query, builder) -> {
+                Path<T> path = root.get(embedded).get(attribute);
+                if (min == null) {
+                    return builder.lessThanOrEqualTo(path, max);
+                } else if (max == null) {
+                    return builder.greaterThanOrEqualTo(path, min);
+                }
+                return builder.between(path, min, max);
+            };
+        }
+        return specification;
+    }
+}
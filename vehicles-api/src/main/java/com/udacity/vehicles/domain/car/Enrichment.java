@@ -0,0 +1,10 @@
+package com.udacity.vehicles.domain.car;
+
+/**
+ * Available values for the state of the price and address assignment of a given car.
+ */
+public enum Enrichment {
+
+    PENDING,
+    COMPLETE;
+}
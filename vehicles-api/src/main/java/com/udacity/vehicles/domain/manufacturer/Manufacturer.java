@@ -2,7 +2,10 @@ package com.udacity.vehicles.domain.manufacturer;
 
 import com.udacity.vehicles.domain.IValid;
 import org.apache.commons.lang.StringUtils;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.validation.constraints.NotBlank;
@@ -14,8 +17,11 @@ import static com.udacity.vehicles.service.ManufacturerService.UNKNOWN_MANUFACTU
 
 /**
  * Declares class to hold car manufacturer information.
+ * Manufacturers are read-mostly, so are held in the second-level cache.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 public class Manufacturer implements IValid<Manufacturer> {
 
     @Id
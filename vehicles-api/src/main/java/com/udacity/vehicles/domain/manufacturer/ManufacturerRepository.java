@@ -2,11 +2,22 @@ package com.udacity.vehicles.domain.manufacturer;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
+
 @Repository
 public interface ManufacturerRepository extends JpaRepository<Manufacturer, Integer> {
 
+    /**
+     * Find a manufacturer by name, ignoring case. The result is held in the query cache.
+     * @param name - manufacturer name
+     * @return manufacturer or null if not found
+     */
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
     @Query("SELECT m FROM #{#entityName} m WHERE UPPER(m.name)=UPPER(:name)")
     Manufacturer findManufacturerByName(String name);
 
@@ -0,0 +1,182 @@
+package com.udacity.vehicles.domain.outbox;
+
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Declares a pending operation on a downstream service, which is written in the same transaction as the
+ * change which requires it, and dispatched in the background.
+ * <p>
+ * An operation is claimed by a dispatcher before it is attempted, which also defers its next attempt until the
+ * claim expires, so a dispatcher which fails mid-batch doesn't strand its operations.
+ */
+@Entity
+@EntityListeners(AuditingEntityListener.class)
+@Table(indexes = { @Index(columnList = "status,nextAttemptAt"), @Index(columnList = "claimedBy") })
+public class OutboxOperation {
+
+    public enum Type {
+        /** delete the price of a vehicle from the pricing service */
+        DELETE_PRICE,
+        /** release the address allocation of a vehicle from the maps service */
+        RELEASE_ADDRESS,
+        /** assign a price and address to a vehicle created asynchronously */
+        ENRICH_VEHICLE
+    }
+
+    public enum Status {
+        /** operation is waiting to be attempted */
+        PENDING,
+        /** operation exceeded the maximum number of attempts, and is retained for inspection */
+        DEAD_LETTER
+    }
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private Type type;
+
+    @NotNull
+    private Long vehicleId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    private int attempts;
+
+    @NotNull
+    private LocalDateTime nextAttemptAt;
+
+    /** id of the dispatcher attempting the operation, or <code>null</code> if not claimed */
+    private String claimedBy;
+
+    public OutboxOperation() {
+        init(null, null, null);
+    }
+
+    public OutboxOperation(Type type, Long vehicleId, LocalDateTime nextAttemptAt) {
+        init(type, vehicleId, nextAttemptAt);
+    }
+
+    private void init(Type type, Long vehicleId, LocalDateTime nextAttemptAt) {
+        this.type = type;
+        this.vehicleId = vehicleId;
+        this.nextAttemptAt = nextAttemptAt;
+        this.status = Status.PENDING;
+        this.attempts = 0;
+        this.claimedBy = null;
+    }
+
+    public static OutboxOperation of(Type type, Long vehicleId) {
+        return new OutboxOperation(type, vehicleId, LocalDateTime.now());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+
+    public void setVehicleId(Long vehicleId) {
+        this.vehicleId = vehicleId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OutboxOperation that = (OutboxOperation) o;
+        return attempts == that.attempts && Objects.equals(id, that.id) && type == that.type && Objects.equals(vehicleId, that.vehicleId) && status == that.status && Objects.equals(nextAttemptAt, that.nextAttemptAt) && Objects.equals(claimedBy, that.claimedBy);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, type, vehicleId, status, attempts, nextAttemptAt, claimedBy);
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxOperation{" +
+                "id=" + id +
+                ", type=" + type +
+                ", vehicleId=" + vehicleId +
+                ", status=" + status +
+                ", attempts=" + attempts +
+                ", nextAttemptAt=" + nextAttemptAt +
+                ", claimedBy='" + claimedBy + '\'' +
+                '}';
+    }
+}
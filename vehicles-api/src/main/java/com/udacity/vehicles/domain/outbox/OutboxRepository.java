@@ -0,0 +1,51 @@
+package com.udacity.vehicles.domain.outbox;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxOperation, Long> {
+
+    /**
+     * Get the ids of the operations which are due to be attempted, oldest first
+     * @param status - status of operations
+     * @param now - current time
+     * @param pageable - batch to get
+     * @return ids of operations
+     */
+    @Query("SELECT o.id FROM #{#entityName} o WHERE o.status = :status AND o.nextAttemptAt <= :now ORDER BY o.id")
+    List<Long> findReadyIds(OutboxOperation.Status status, LocalDateTime now, Pageable pageable);
+
+    /**
+     * Claim the specified operations which are still due to be attempted. The due condition is re-evaluated by the
+     * update, so an operation is only claimed by one of a number of concurrent dispatchers.
+     * @param ids - ids of operations
+     * @param status - status of operations
+     * @param now - current time
+     * @param claimedBy - id of dispatcher
+     * @param claimedUntil - time the claim expires, and the operation is next due
+     * @return number of operations claimed
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE #{#entityName} o SET o.claimedBy = :claimedBy, o.nextAttemptAt = :claimedUntil " +
+            "WHERE o.id IN :ids AND o.status = :status AND o.nextAttemptAt <= :now")
+    int claim(List<Long> ids, OutboxOperation.Status status, LocalDateTime now, String claimedBy,
+              LocalDateTime claimedUntil);
+
+    /**
+     * Get the operations claimed by a dispatcher, oldest first
+     * @param claimedBy - id of dispatcher
+     * @return operations
+     */
+    List<OutboxOperation> findByClaimedByOrderById(String claimedBy);
+
+    long countByStatus(OutboxOperation.Status status);
+}
@@ -0,0 +1,8 @@
+package com.udacity.vehicles.domain.preload;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PreloadResourceRepository extends JpaRepository<PreloadResource, String> {
+}
@@ -0,0 +1,79 @@
+package com.udacity.vehicles.domain.preload;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.util.Objects;
+
+/**
+ * Records a row of a preload resource, and the id of the entity loaded from it.
+ */
+@Embeddable
+public class PreloadRow {
+
+    /** Stable key of the row, or its checksum if the row has no key */
+    @Column(name = "row_key")
+    private String key;
+
+    /** Checksum of the row content */
+    @Column(name = "row_checksum")
+    private String checksum;
+
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    public PreloadRow() {
+    }
+
+    public PreloadRow(String key, String checksum, Long entityId) {
+        this.key = key;
+        this.checksum = checksum;
+        this.entityId = entityId;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PreloadRow that = (PreloadRow) o;
+        return Objects.equals(key, that.key) && Objects.equals(checksum, that.checksum)
+                && Objects.equals(entityId, that.entityId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, checksum, entityId);
+    }
+
+    @Override
+    public String toString() {
+        return "PreloadRow{" +
+                "key='" + key + '\'' +
+                ", checksum='" + checksum + '\'' +
+                ", entityId=" + entityId +
+                '}';
+    }
+}
@@ -0,0 +1,184 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.domain.car.Car;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.beans.ConfigurablePropertyAccessor;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Sparse fieldset of a car, as specified by a comma-separated list of field paths, e.g.
+ * <code>id,condition,details.model</code>.
+ * A path may also select a group of fields, e.g. <code>details</code> or <code>location</code>.
+ */
+public class CarFields {
+
+    public static final String PRICE = "price";
+
+    /** Fields stored in the database */
+    private static final List<String> PERSISTENT_FIELDS = List.of(
+            "id", "createdAt", "modifiedAt", "condition", "enrichment",
+            "details.body", "details.model", "details.manufacturer.code", "details.manufacturer.name",
+            "details.numberOfDoors", "details.fuelType", "details.engine", "details.mileage",
+            "details.modelYear", "details.productionYear", "details.externalColor",
+            "location.lat", "location.lon"
+    );
+    /** Fields provided by the maps service */
+    private static final List<String> ADDRESS_FIELDS = List.of(
+            "location.address", "location.city", "location.state", "location.zip"
+    );
+    /** Fields required to get a price from the pricing service */
+    private static final List<String> PRICE_REQUIRES = List.of(
+            "id", "enrichment", "condition",
+            "details.manufacturer.code", "details.modelYear", "details.mileage"
+    );
+    /** Fields required to get an address from the maps service */
+    private static final List<String> ADDRESS_REQUIRES = List.of(
+            "id", "enrichment", "location.lat", "location.lon"
+    );
+
+    private final Set<String> fields;
+    private final Set<String> columns;
+    private final boolean price;
+    private final boolean address;
+
+    private CarFields(Set<String> fields) {
+        this.fields = Collections.unmodifiableSet(fields);
+        this.price = fields.contains(PRICE);
+        this.address = ADDRESS_FIELDS.stream().anyMatch(fields::contains);
+
+        Set<String> columns = new LinkedHashSet<>();
+        // always required for links and versions
+        columns.add("id");
+        columns.add("modifiedAt");
+        columns.add("enrichment");
+        PERSISTENT_FIELDS.stream()
+                .filter(fields::contains)
+                .forEach(columns::add);
+        if (price) {
+            columns.addAll(PRICE_REQUIRES);
+        }
+        if (address) {
+            columns.addAll(ADDRESS_REQUIRES);
+        }
+        this.columns = Collections.unmodifiableSet(columns);
+    }
+
+    /**
+     * Parse a sparse fieldset
+     * @param fields - comma-separated list of field paths
+     * @return fieldset, or <code>null</code> if no fields were specified, i.e. all fields
+     * @throws InvalidFieldException if a field path is unknown
+     */
+    public static CarFields parse(String fields) {
+        CarFields carFields = null;
+        if (!StringUtils.isBlank(fields)) {
+            Set<String> selected = new LinkedHashSet<>();
+            for (String field : StringUtils.split(fields, ',')) {
+                String path = field.trim();
+                List<String> matched = match(path);
+                if (matched.isEmpty()) {
+                    throw new InvalidFieldException("Unknown field: " + path);
+                }
+                selected.addAll(matched);
+            }
+            carFields = new CarFields(selected);
+        }
+        return carFields;
+    }
+
+    private static List<String> match(String path) {
+        List<String> matched = new ArrayList<>();
+        if (!StringUtils.isBlank(path)) {
+            String group = path + ".";
+            for (List<String> list : List.of(PERSISTENT_FIELDS, List.of(PRICE), ADDRESS_FIELDS)) {
+                list.stream()
+                        .filter(f -> f.equals(path) || f.startsWith(group))
+                        .forEach(matched::add);
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Get the requested field paths
+     * @return field paths
+     */
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Get the paths of the persistent fields to be read from the database, i.e. the id and version fields, those requested and those
+     * required to get the requested price and address
+     * @return field paths
+     */
+    public Set<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Check if the price is requested
+     * @return <code>true</code> if the pricing service is required
+     */
+    public boolean includesPrice() {
+        return price;
+    }
+
+    /**
+     * Check if any of the address fields are requested
+     * @return <code>true</code> if the maps service is required
+     */
+    public boolean includesAddress() {
+        return address;
+    }
+
+    /**
+     * Select the requested fields of a car
+     * @param car - car to select from
+     * @return map of requested fields, nested as in the car
+     */
+    public Map<String, Object> select(Car car) {
+        ConfigurablePropertyAccessor accessor = PropertyAccessorFactory.forDirectFieldAccess(car);
+        Map<String, Object> selected = new LinkedHashMap<>();
+        for (String field : fields) {
+            Map<String, Object> map = selected;
+            String[] names = field.split("\\.");
+            for (int i = 0; i < names.length - 1; i++) {
+                //noinspection unchecked
+                map = (Map<String, Object>) map.computeIfAbsent(names[i], k -> new LinkedHashMap<String, Object>());
+            }
+            map.put(names[names.length - 1],
+                    accessor.isReadableProperty(field) ? accessor.getPropertyValue(field) : null);
+        }
+        return selected;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CarFields carFields = (CarFields) o;
+        return Objects.equals(fields, carFields.fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fields);
+    }
+
+    @Override
+    public String toString() {
+        return "CarFields{" +
+                "fields=" + fields +
+                '}';
+    }
+}
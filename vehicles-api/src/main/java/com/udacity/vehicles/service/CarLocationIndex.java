@@ -0,0 +1,314 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.domain.Location;
+import com.udacity.vehicles.domain.car.CarRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory spatial index of car locations, allowing radius and nearest neighbour queries without database access.
+ * <p>
+ * Locations are held in a grid of cells of <code>car.index.cell-size</code> degrees, so a query only examines the
+ * cars in the cells overlapping its search area. The index is built from the repository once the application is
+ * ready, and updated by the {@link CarService} as cars are saved and deleted.
+ */
+@Component
+public class CarLocationIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CarLocationIndex.class);
+
+    public static final String CELL_SIZE = "car.index.cell-size";
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+    /** Maximum distance between two points, i.e. half the circumference */
+    private static final double MAX_DISTANCE_KM = Math.PI * EARTH_RADIUS_KM;
+
+    private final CarRepository repository;
+    private final double cellSize;
+    private final int rows;
+    private final int cols;
+    /** Location of each car keyed by car id */
+    private final Map<Long, Point> points = new ConcurrentHashMap<>();
+    /** Ids of the cars in each cell keyed by cell */
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    public CarLocationIndex(CarRepository repository,
+                            @Value("${" + CELL_SIZE + ":0.1}") double cellSize) {
+        this.repository = repository;
+        this.cellSize = cellSize;
+        this.rows = (int) Math.ceil(180 / cellSize);
+        this.cols = (int) Math.ceil(360 / cellSize);
+    }
+
+    /**
+     * Rebuild the index from the locations in the repository
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        points.clear();
+        cells.clear();
+        repository.findProjected(List.of("id", "location.lat", "location.lon"), null)
+                .forEach(car -> put(car.getId(), car.getLocation()));
+        log.info("Location index built with {} cars", points.size());
+    }
+
+    /**
+     * Add or update the location of a car, once the current transaction (if any) commits
+     * @param id - id of car
+     * @param location - location of car
+     */
+    public void update(Long id, Location location) {
+        onCommit(() -> put(id, location));
+    }
+
+    /**
+     * Remove cars, once the current transaction (if any) commits
+     * @param ids - ids of cars
+     */
+    public void remove(Collection<Long> ids) {
+        onCommit(() -> ids.forEach(this::evict));
+    }
+
+    private void onCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void put(Long id, Location location) {
+        if (id == null || location == null || location.getLat() == null || location.getLon() == null) {
+            return;
+        }
+        Point point = new Point(location.getLat(), location.getLon(), cell(location.getLat(), location.getLon()));
+        points.compute(id, (key, previous) -> {
+            if (previous != null && previous.cell != point.cell) {
+                removeFromCell(previous.cell, id);
+            }
+            cells.computeIfAbsent(point.cell, k -> ConcurrentHashMap.newKeySet()).add(id);
+            return point;
+        });
+    }
+
+    private void evict(Long id) {
+        points.computeIfPresent(id, (key, previous) -> {
+            removeFromCell(previous.cell, id);
+            return null;
+        });
+    }
+
+    private void removeFromCell(long cell, Long id) {
+        cells.computeIfPresent(cell, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Find the cars within a distance of a location
+     * @param lat - latitude of location
+     * @param lon - longitude of location
+     * @param radiusKm - distance in km
+     * @return cars within the distance, ordered by distance
+     */
+    public List<Neighbour> within(double lat, double lon, double radiusKm) {
+        checkLocation(lat, lon);
+        if (!(radiusKm >= 0)) {
+            throw new InvalidLocationException("Invalid radius: " + radiusKm);
+        }
+        List<Neighbour> neighbours = new ArrayList<>();
+        if (points.isEmpty()) {
+            return neighbours;
+        }
+
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        int minRow = row(lat - latDelta);
+        int maxRow = row(lat + latDelta);
+        int minCol;
+        int maxCol;
+        double maxAbsLat = Math.max(Math.abs(lat - latDelta), Math.abs(lat + latDelta));
+        double lonDelta = maxAbsLat >= 90 ? 180 : latDelta / Math.cos(Math.toRadians(maxAbsLat));
+        if (lonDelta >= 180) {
+            minCol = 0;
+            maxCol = cols - 1;
+        } else {
+            minCol = (int) Math.floor((lon - lonDelta + 180) / cellSize);
+            maxCol = (int) Math.floor((lon + lonDelta + 180) / cellSize);
+            if (maxCol - minCol >= cols) {
+                minCol = 0;
+                maxCol = cols - 1;
+            }
+        }
+
+        if ((long) (maxRow - minRow + 1) * (maxCol - minCol + 1) > points.size()) {
+            // more cells than cars, quicker to check every car
+            points.forEach((id, point) -> addIfWithin(neighbours, id, point, lat, lon, radiusKm));
+        } else {
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    // columns wrap around the antimeridian
+                    Set<Long> ids = cells.get(key(row, Math.floorMod(col, cols)));
+                    if (ids != null) {
+                        ids.forEach(id -> addIfWithin(neighbours, id, points.get(id), lat, lon, radiusKm));
+                    }
+                }
+            }
+        }
+        neighbours.sort(Comparator.comparingDouble(Neighbour::getDistanceKm));
+        return neighbours;
+    }
+
+    private static void addIfWithin(List<Neighbour> neighbours, Long id, Point point,
+                                    double lat, double lon, double radiusKm) {
+        if (point != null) {
+            double distance = distanceKm(lat, lon, point.lat, point.lon);
+            if (distance <= radiusKm) {
+                neighbours.add(new Neighbour(id, distance));
+            }
+        }
+    }
+
+    /**
+     * Find the cars nearest to a location
+     * @param lat - latitude of location
+     * @param lon - longitude of location
+     * @param k - maximum number of cars to find
+     * @return up to <code>k</code> cars nearest the location, ordered by distance
+     */
+    public List<Neighbour> nearest(double lat, double lon, int k) {
+        checkLocation(lat, lon);
+        if (k <= 0) {
+            throw new InvalidLocationException("Invalid number of cars: " + k);
+        }
+        // expand the search area until it contains k cars; those are guaranteed to be the nearest
+        double radiusKm = cellSize * KM_PER_DEGREE;
+        List<Neighbour> neighbours = within(lat, lon, radiusKm);
+        while (neighbours.size() < k && radiusKm < MAX_DISTANCE_KM && neighbours.size() < points.size()) {
+            radiusKm = Math.min(radiusKm * 4, MAX_DISTANCE_KM);
+            neighbours = within(lat, lon, radiusKm);
+        }
+        return neighbours.size() > k ? neighbours.subList(0, k) : neighbours;
+    }
+
+    /**
+     * Get the number of cars in the index
+     * @return number of cars
+     */
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * Get the great-circle distance between two locations
+     * @param lat1 - latitude of first location
+     * @param lon1 - longitude of first location
+     * @param lat2 - latitude of second location
+     * @param lon2 - longitude of second location
+     * @return distance in km
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.pow(Math.sin(dLat / 2), 2) +
+                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.pow(Math.sin(dLon / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private static void checkLocation(double lat, double lon) {
+        if (!(lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180)) {
+            throw new InvalidLocationException(String.format("Invalid location: %f,%f", lat, lon));
+        }
+    }
+
+    private int row(double lat) {
+        return Math.min(Math.max((int) Math.floor((lat + 90) / cellSize), 0), rows - 1);
+    }
+
+    private int col(double lon) {
+        return Math.floorMod((int) Math.floor((lon + 180) / cellSize), cols);
+    }
+
+    private long cell(double lat, double lon) {
+        return key(row(lat), col(lon));
+    }
+
+    private long key(int row, int col) {
+        return (long) row * cols + col;
+    }
+
+    private static final class Point {
+        final double lat;
+        final double lon;
+        final long cell;
+
+        Point(double lat, double lon, long cell) {
+            this.lat = lat;
+            this.lon = lon;
+            this.cell = cell;
+        }
+    }
+
+    /**
+     * A car found by a location query
+     */
+    public static final class Neighbour {
+        private final Long id;
+        private final double distanceKm;
+
+        public Neighbour(Long id, double distanceKm) {
+            this.id = id;
+            this.distanceKm = distanceKm;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Neighbour neighbour = (Neighbour) o;
+            return Double.compare(neighbour.distanceKm, distanceKm) == 0 && Objects.equals(id, neighbour.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, distanceKm);
+        }
+
+        @Override
+        public String toString() {
+            return "Neighbour{" +
+                    "id=" + id +
+                    ", distanceKm=" + distanceKm +
+                    '}';
+        }
+    }
+}
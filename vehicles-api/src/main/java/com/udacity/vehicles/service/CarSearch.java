@@ -0,0 +1,184 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.domain.Condition;
+import com.udacity.vehicles.domain.car.Car;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Objects;
+
+import static com.udacity.vehicles.domain.car.CarSpecifications.*;
+
+/**
+ * Criteria for a car search. All criteria are optional, and unspecified criteria match all cars.
+ */
+public class CarSearch {
+
+    private Integer manufacturerCode;
+    private String model;
+    private String body;
+    private String fuelType;
+    private Integer minModelYear;
+    private Integer maxModelYear;
+    private Integer minMileage;
+    private Integer maxMileage;
+    private Condition condition;
+    private Double minLat;
+    private Double maxLat;
+    private Double minLon;
+    private Double maxLon;
+
+    public CarSearch() {
+    }
+
+    /**
+     * Get the specification matching cars which meet the criteria
+     * @return specification
+     */
+    public Specification<Car> toSpecification() {
+        return Specification.where(hasManufacturerCode(manufacturerCode))
+                .and(hasModel(StringUtils.trimToNull(model)))
+                .and(hasBody(StringUtils.trimToNull(body)))
+                .and(hasFuelType(StringUtils.trimToNull(fuelType)))
+                .and(modelYearBetween(minModelYear, maxModelYear))
+                .and(mileageBetween(minMileage, maxMileage))
+                .and(hasCondition(condition))
+                .and(withinBox(minLat, maxLat, minLon, maxLon));
+    }
+
+    public Integer getManufacturerCode() {
+        return manufacturerCode;
+    }
+
+    public void setManufacturerCode(Integer manufacturerCode) {
+        this.manufacturerCode = manufacturerCode;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public String getFuelType() {
+        return fuelType;
+    }
+
+    public void setFuelType(String fuelType) {
+        this.fuelType = fuelType;
+    }
+
+    public Integer getMinModelYear() {
+        return minModelYear;
+    }
+
+    public void setMinModelYear(Integer minModelYear) {
+        this.minModelYear = minModelYear;
+    }
+
+    public Integer getMaxModelYear() {
+        return maxModelYear;
+    }
+
+    public void setMaxModelYear(Integer maxModelYear) {
+        this.maxModelYear = maxModelYear;
+    }
+
+    public Integer getMinMileage() {
+        return minMileage;
+    }
+
+    public void setMinMileage(Integer minMileage) {
+        this.minMileage = minMileage;
+    }
+
+    public Integer getMaxMileage() {
+        return maxMileage;
+    }
+
+    public void setMaxMileage(Integer maxMileage) {
+        this.maxMileage = maxMileage;
+    }
+
+    public Condition getCondition() {
+        return condition;
+    }
+
+    public void setCondition(Condition condition) {
+        this.condition = condition;
+    }
+
+    public Double getMinLat() {
+        return minLat;
+    }
+
+    public void setMinLat(Double minLat) {
+        this.minLat = minLat;
+    }
+
+    public Double getMaxLat() {
+        return maxLat;
+    }
+
+    public void setMaxLat(Double maxLat) {
+        this.maxLat = maxLat;
+    }
+
+    public Double getMinLon() {
+        return minLon;
+    }
+
+    public void setMinLon(Double minLon) {
+        this.minLon = minLon;
+    }
+
+    public Double getMaxLon() {
+        return maxLon;
+    }
+
+    public void setMaxLon(Double maxLon) {
+        this.maxLon = maxLon;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CarSearch carSearch = (CarSearch) o;
+        return Objects.equals(manufacturerCode, carSearch.manufacturerCode) && Objects.equals(model, carSearch.model) && Objects.equals(body, carSearch.body) && Objects.equals(fuelType, carSearch.fuelType) && Objects.equals(minModelYear, carSearch.minModelYear) && Objects.equals(maxModelYear, carSearch.maxModelYear) && Objects.equals(minMileage, carSearch.minMileage) && Objects.equals(maxMileage, carSearch.maxMileage) && condition == carSearch.condition && Objects.equals(minLat, carSearch.minLat) && Objects.equals(maxLat, carSearch.maxLat) && Objects.equals(minLon, carSearch.minLon) && Objects.equals(maxLon, carSearch.maxLon);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(manufacturerCode, model, body, fuelType, minModelYear, maxModelYear, minMileage, maxMileage, condition, minLat, maxLat, minLon, maxLon);
+    }
+
+    @Override
+    public String toString() {
+        return "CarSearch{" +
+                "manufacturerCode=" + manufacturerCode +
+                ", model='" + model + '\'' +
+                ", body='" + body + '\'' +
+                ", fuelType='" + fuelType + '\'' +
+                ", minModelYear=" + minModelYear +
+                ", maxModelYear=" + maxModelYear +
+                ", minMileage=" + minMileage +
+                ", maxMileage=" + maxMileage +
+                ", condition=" + condition +
+                ", minLat=" + minLat +
+                ", maxLat=" + maxLat +
+                ", minLon=" + minLon +
+                ", maxLon=" + maxLon +
+                '}';
+    }
+}
@@ -4,15 +4,22 @@ import com.udacity.vehicles.client.maps.MapsClient;
 import com.udacity.vehicles.client.prices.PriceClient;
 import com.udacity.vehicles.domain.car.Car;
 import com.udacity.vehicles.domain.car.CarRepository;
+import com.udacity.vehicles.domain.car.Enrichment;
 import com.udacity.vehicles.domain.manufacturer.Manufacturer;
+import com.udacity.vehicles.domain.outbox.OutboxOperation;
 import org.apache.commons.lang.StringUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
 import javax.validation.Valid;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -31,10 +38,11 @@ public class CarService {
     private final PriceClient pricing;
     private final MapsClient maps;
     private final ManufacturerService manufacturerService;
-
+    private final OutboxService outbox;
+    private final CarLocationIndex locations;
 
     public CarService(CarRepository repository, PriceClient pricing, MapsClient maps,
-                      ManufacturerService manufacturerService) {
+                      ManufacturerService manufacturerService, OutboxService outbox, CarLocationIndex locations) {
         /**
          * TODO: Add the Maps and Pricing Web Clients you create
          *   in `VehiclesApiApplication` as arguments and set them here.
@@ -43,18 +51,69 @@ public class CarService {
         this.pricing = pricing;
         this.maps = maps;
         this.manufacturerService = manufacturerService;
+        this.outbox = outbox;
+        this.locations = locations;
     }
 
     /**
-     * Gathers a list of all vehicles
+     * Gathers a list of all vehicles, without gathering location and price
+     * @param fields the fields to gather, or <code>null</code> for all fields
      * @return a list of all vehicles in the CarRepository
      */
-    public List<Car> list() {
-        List<Car> cars = repository.findAll();
+    public List<Car> loadAll(CarFields fields) {
+        return fields == null ?
+                repository.findAll() :
+                repository.findProjected(fields.getColumns(), null);
+    }
+
+    /**
+     * Searches for vehicles matching the specified criteria
+     * Only the vehicles in the requested page have their location and price gathered.
+     * @param search the criteria to match
+     * @param pageable the page to get
+     * @return page of matching vehicles
+     */
+    public Page<Car> search(CarSearch search, Pageable pageable) {
+        Page<Car> cars = repository.findAll(search.toSpecification(), pageable);
         cars.forEach(c -> setPriceAndLocation(c, PriceClient.PriceMode.EXISTING));
         return cars;
     }
 
+    /**
+     * Gathers the vehicles within a distance of a location
+     * @param lat latitude of location
+     * @param lon longitude of location
+     * @param radiusKm distance in km
+     * @return vehicles within the distance, nearest first
+     */
+    public List<Car> near(double lat, double lon, double radiusKm) {
+        return findNeighbours(locations.within(lat, lon, radiusKm));
+    }
+
+    /**
+     * Gathers the vehicles nearest to a location
+     * @param lat latitude of location
+     * @param lon longitude of location
+     * @param k maximum number of vehicles
+     * @return up to <code>k</code> vehicles, nearest first
+     */
+    public List<Car> nearest(double lat, double lon, int k) {
+        return findNeighbours(locations.nearest(lat, lon, k));
+    }
+
+    private List<Car> findNeighbours(List<CarLocationIndex.Neighbour> neighbours) {
+        List<Long> ids = neighbours.stream()
+                .map(CarLocationIndex.Neighbour::getId)
+                .collect(Collectors.toList());
+        Map<Long, Car> cars = repository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Car::getId, Function.identity()));
+        return ids.stream()
+                .map(cars::get)
+                .filter(Objects::nonNull)
+                .map(c -> setPriceAndLocation(c, PriceClient.PriceMode.EXISTING))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Gets car information by ID (or throws exception if non-existent)
      * @param id the ID number of the car to gather information on
@@ -66,12 +125,59 @@ public class CarService {
          *   If it does not exist, throw a CarNotFoundException
          *   Remove the below code as part of your implementation.
          */
-        Optional<Car> optionalCar = repository.findById(id);
-        Car car = optionalCar.orElseThrow(CarNotFoundException::new);
-        return setPriceAndLocation(car, PriceClient.PriceMode.EXISTING);
+        return setPriceAndLocation(load(id), PriceClient.PriceMode.EXISTING);
+    }
+
+    /**
+     * Gets car information by ID (or throws exception if non-existent), without gathering location and price
+     * @param id the ID number of the car to gather information on
+     * @return the requested car's information, excluding location address and price
+     */
+    public Car load(Long id) {
+        return repository.findById(id)
+                .orElseThrow(CarNotFoundException::new);
+    }
+
+    /**
+     * Gets car information by ID (or throws exception if non-existent), without gathering location and price
+     * @param id the ID number of the car to gather information on
+     * @param fields the fields to gather, or <code>null</code> for all fields
+     * @return the requested car's information, excluding location address and price
+     */
+    public Car load(Long id, CarFields fields) {
+        return fields == null ?
+                load(id) :
+                repository.findProjected(fields.getColumns(), id).stream()
+                        .findFirst()
+                        .orElseThrow(CarNotFoundException::new);
+    }
+
+    /**
+     * Gathers the location and price of a vehicle, if requested
+     * @param car the vehicle
+     * @param fields the fields requested, or <code>null</code> for all fields
+     * @return the vehicle, including location and price if requested
+     */
+    public Car enrich(Car car, CarFields fields) {
+        return fields == null ?
+                setPriceAndLocation(car, PriceClient.PriceMode.EXISTING) :
+                setPriceAndLocation(car, fields);
     }
 
     private Car setPriceAndLocation(Car car, PriceClient.PriceMode priceMode) {
+        return setPriceAndLocation(car, priceMode, true, true);
+    }
+
+    private Car setPriceAndLocation(Car car, CarFields fields) {
+        return setPriceAndLocation(car, PriceClient.PriceMode.EXISTING, fields.includesPrice(), fields.includesAddress());
+    }
+
+    private Car setPriceAndLocation(Car car, PriceClient.PriceMode priceMode, boolean price, boolean location) {
+        if (car.isEnrichmentPending()) {
+            // price & address are still being assigned asynchronously
+            return car;
+        }
+
         /**
          * TODO: Use the Pricing Web client you create in `VehiclesApiApplication`
          *   to get the price based on the `id` input'
@@ -79,8 +185,10 @@ public class CarService {
          * Note: The car class file uses @transient, meaning you will need to call
          *   the pricing service each time to get the price.
          */
-        car.setPrice(
-                pricing.getByVehicleId(car.getId(), priceMode));
+        if (price) {
+            car.setPrice(
+                    pricing.getByVehicleId(car, priceMode));
+        }
 
         /**
          * TODO: Use the Maps Web client you create in `VehiclesApiApplication`
@@ -90,12 +198,24 @@ public class CarService {
          * Note: The Location class file also uses @transient for the address,
          * meaning the Maps service needs to be called each time for the address.
          */
-        car.setLocation(
-                maps.getAddress(car.getLocation(), car.getId()));
+        if (location) {
+            car.setLocation(
+                    maps.getAddress(car.getLocation(), car.getId()));
+        }
 
         return car;
     }
 
+    private Car setCachedPriceAndLocation(Car car) {
+        String price = pricing.getCachedPrice(car.getId());
+        if (price != null) {
+            car.setPrice(price);
+        }
+        car.setLocation(
+                maps.getCachedAddress(car.getLocation(), car.getId()));
+        return car;
+    }
+
     /**
      * Either creates or updates a vehicle, based on prior existence of car
      * @param car A car object, which can be either new or existing
@@ -105,29 +225,58 @@ public class CarService {
         Car result;
         AtomicReference<PriceClient.PriceMode> priceMode = new AtomicReference<>(PriceClient.PriceMode.FORCE_NEW);
         if (car.getId() == null) {
-            Manufacturer manufacturer = car.getDetails().getManufacturer();
-            car.getDetails().setManufacturer(
-                    manufacturerService.findByNameOrId(manufacturer.getName(), manufacturer.getCode())
-            );
+            setManufacturer(car);
+            car.setEnrichment(Enrichment.COMPLETE);
             result = repository.save(car);
         } else{
-            result = repository.findById(car.getId())
-                    .map(carToBeUpdated -> {
-                        carToBeUpdated.setDetails(car.getDetails());
-                        carToBeUpdated.setLocation(car.getLocation());
-                        carToBeUpdated.setCondition(car.getCondition());
-
-                        String price = car.getPrice();
-                        if (StringUtils.isEmpty(price) || carToBeUpdated.getPrice().equals(price)) {
-                            // price hasn't changed in input so no change
-                            priceMode.set(PriceClient.PriceMode.EXISTING);
-                        }
-                        return repository.save(carToBeUpdated);
-                    }).orElseThrow(CarNotFoundException::new);
+            Car carToBeUpdated = load(car.getId());
+
+            String price = car.getPrice();
+            if (StringUtils.isEmpty(price) || Objects.equals(currentPrice(carToBeUpdated), price)) {
+                // price hasn't changed in input so no change
+                priceMode.set(PriceClient.PriceMode.EXISTING);
+            }
+            carToBeUpdated.setDetails(car.getDetails());
+            carToBeUpdated.setLocation(car.getLocation());
+            carToBeUpdated.setCondition(car.getCondition());
+            result = repository.save(carToBeUpdated);
         }
+        locations.update(result.getId(), result.getLocation());
         return setPriceAndLocation(result, priceMode.get());
     }
 
+    /**
+     * Get the current price of a vehicle, from the cache if possible
+     * @param car the vehicle, as loaded from the repository
+     * @return the current price
+     */
+    private String currentPrice(Car car) {
+        String price = pricing.getCachedPrice(car.getId());
+        return price != null ? price : pricing.getByVehicleId(car, PriceClient.PriceMode.EXISTING);
+    }
+
+    /**
+     * Creates a vehicle, with the assignment of its price and location being queued to be completed asynchronously
+     * @param car A new car object
+     * @return the new car stored in the repository, pending price and location assignment
+     */
+    @Transactional
+    public Car saveAsync(@Valid Car car) {
+        setManufacturer(car);
+        car.setEnrichment(Enrichment.PENDING);
+        Car result = repository.save(car);
+        outbox.enqueue(OutboxOperation.Type.ENRICH_VEHICLE, List.of(result.getId()));
+        locations.update(result.getId(), result.getLocation());
+        return result;
+    }
+
+    private void setManufacturer(Car car) {
+        Manufacturer manufacturer = car.getDetails().getManufacturer();
+        car.getDetails().setManufacturer(
+                manufacturerService.findByNameOrId(manufacturer.getName(), manufacturer.getCode())
+        );
+    }
+
     /**
      * Either creates or updates vehicles, based on prior existence of car
      * @param cars A list of car objects, which can be either new or existing
@@ -141,31 +290,55 @@ public class CarService {
 
     /**
      * Deletes a given car by ID
+     * Pricing & map records for the deleted vehicle are removed by the outbox, once the delete is committed.
      * @param id the ID number of the car to delete
-     * @return number of affect db entries
+     * @return the deleted car, including location address and price if cached
      */
+    @Transactional
     public Car delete(Long id) {
         /**
          * TODO: Find the car by ID from the `repository` if it exists.
          *   If it does not exist, throw a CarNotFoundException
          */
-        Optional<Car> optionalCar = repository.findById(id);
-        Car car = optionalCar.orElseThrow(CarNotFoundException::new);
+        Car car = load(id);
+        // only cached price & address are included, so the delete remains a single local transaction
+        setCachedPriceAndLocation(car);
 
         /**
          * TODO: Delete the car from the repository.
          * Pricing & map services maintains records for individual vehicles, so those records are deleted as well.
          */
-        id = car.getId();
-        repository.deleteById(id);
-        pricing.deleteByVehicleId(id);
-        maps.delete(id);
-        if (repository.existsById(id)) {
-            throw new ExpectationFailedException("Vehicle with id " + id + " not deleted");
-        }
+        repository.delete(car);
+        enqueueDownstreamDeletes(List.of(car.getId()));
         return car;
     }
 
+    /**
+     * Deletes the cars with the given IDs
+     * Pricing & map records for the deleted vehicles are removed by the outbox, once the delete is committed,
+     * with the map allocations being released in bulk.
+     * @param ids the ID numbers of the cars to delete
+     * @return number of cars deleted
+     */
+    @Transactional
+    public long deleteAll(List<Long> ids) {
+        List<Car> cars = repository.findAllById(ids);
+        if (!cars.isEmpty()) {
+            List<Long> deletedIds = cars.stream()
+                    .map(Car::getId)
+                    .collect(Collectors.toList());
+            repository.deleteInBatch(cars);
+            enqueueDownstreamDeletes(deletedIds);
+        }
+        return cars.size();
+    }
+
+    private void enqueueDownstreamDeletes(List<Long> ids) {
+        outbox.enqueue(OutboxOperation.Type.DELETE_PRICE, ids);
+        outbox.enqueue(OutboxOperation.Type.RELEASE_ADDRESS, ids);
+        locations.remove(ids);
+    }
+
     /**
      * Get the number of vehicles with an address allocation from the Maps client.
      * @return Number of allocations
@@ -0,0 +1,115 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.client.maps.MapsClient;
+import com.udacity.vehicles.client.prices.PriceClient;
+import com.udacity.vehicles.domain.car.Car;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Collections;
+
+import static com.udacity.vehicles.client.AbstractClient.CLIENT_CACHE_TTL;
+import static com.udacity.vehicles.client.AbstractClient.DEFAULT_CLIENT_CACHE_TTL;
+
+/**
+ * Generates the validators for conditional requests of car representations.
+ * <p>
+ * A representation depends on the car, and on its price and address from the pricing and maps services. So its
+ * version is derived from the car's id, modification time and enrichment state, along with the versions of its price
+ * and address, which change whenever the pricing or maps services report a change. The validators are generated
+ * from the un-enriched car, so a request for an unchanged car needn't access the pricing or maps services.
+ * <p>
+ * The price and address versions are held in memory, so they restart with the application and miss changes whose
+ * events are lost. The entity tags are therefore weak, and also include the current cache period, so they expire
+ * no later than the cached prices and addresses they describe.
+ */
+@Component
+public class CarVersions {
+
+    private final PriceClient pricing;
+    private final MapsClient maps;
+    /** start time of the first cache period */
+    private final long epoch;
+    private final long cacheTtl;
+
+    public CarVersions(PriceClient pricing, MapsClient maps,
+                       @Value("${" + CLIENT_CACHE_TTL + ":" + DEFAULT_CLIENT_CACHE_TTL + "}") long cacheTtl) {
+        this.pricing = pricing;
+        this.maps = maps;
+        this.epoch = System.currentTimeMillis();
+        this.cacheTtl = cacheTtl;
+    }
+
+    /**
+     * Generate the weak entity tag of the representation of a car
+     * @param car - car
+     * @param fields - fields of representation, or <code>null</code> if all fields
+     * @return entity tag
+     */
+    public String etag(Car car, CarFields fields) {
+        return etag(Collections.singletonList(car), fields);
+    }
+
+    /**
+     * Generate the weak entity tag of the representation of a list of cars
+     * @param cars - cars
+     * @param fields - fields of representation, or <code>null</code> if all fields
+     * @return entity tag
+     */
+    public String etag(Collection<Car> cars, CarFields fields) {
+        StringBuilder sb = new StringBuilder(fields == null ? "*" : String.join(",", fields.getFields()))
+                .append('@').append(epoch)
+                .append(':').append(periodStart());
+        for (Car car : cars) {
+            Long id = car.getId();
+            sb.append('|').append(id)
+                    .append(':').append(car.getModifiedAt())
+                    .append(':').append(car.getEnrichment())
+                    .append(':').append(pricing.getVersion(id))
+                    .append(':').append(pricing.getLastModified(id))
+                    .append(':').append(maps.getVersion(id))
+                    .append(':').append(maps.getLastModified(id));
+        }
+        return "W/\"" + DigestUtils.md5DigestAsHex(sb.toString().getBytes(StandardCharsets.UTF_8)) + '"';
+    }
+
+    /**
+     * Get the time a car, or its price or address, was last modified
+     * @param car - car
+     * @return time in milliseconds since the epoch, or -1 if unknown
+     */
+    public long lastModified(Car car) {
+        long lastModified = -1;
+        if (car.getModifiedAt() != null) {
+            lastModified = car.getModifiedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        return Math.max(Math.max(lastModified, periodStart()),
+                Math.max(pricing.getLastModified(car.getId()), maps.getLastModified(car.getId())));
+    }
+
+    /**
+     * Get the time any of a list of cars, or their prices or addresses, were last modified
+     * @param cars - cars
+     * @return time in milliseconds since the epoch, or -1 if unknown
+     */
+    public long lastModified(Collection<Car> cars) {
+        return cars.stream()
+                .mapToLong(this::lastModified)
+                .max()
+                .orElse(-1);
+    }
+
+    /**
+     * Get the start time of the current cache period. A price or address cached before the period started may have
+     * been refreshed since, so representations are considered to be modified at the start of each period.
+     * @return time in milliseconds since the epoch
+     */
+    private long periodStart() {
+        long now = System.currentTimeMillis();
+        return cacheTtl > 0 ? now - ((now - epoch) % cacheTtl) : now;
+    }
+}
@@ -0,0 +1,102 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.client.maps.MapsClient;
+import com.udacity.vehicles.client.prices.PriceClient;
+import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.domain.car.CarRepository;
+import com.udacity.vehicles.domain.car.Enrichment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Implements the assignment of prices and addresses to cars which were created asynchronously.
+ * <p>
+ * A batch of cars is enriched concurrently by a pool of workers, and the cars which were successfully
+ * enriched are marked as complete in a single update.
+ */
+@Service
+public class EnrichmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(EnrichmentService.class);
+
+    public static final String ENRICHMENT_WORKERS = "enrichment.workers";
+
+    private final CarRepository repository;
+    private final PriceClient pricing;
+    private final MapsClient maps;
+    private final ExecutorService workers;
+
+    public EnrichmentService(CarRepository repository, PriceClient pricing, MapsClient maps,
+                             @Value("${" + ENRICHMENT_WORKERS + ":8}") int workers) {
+        this.repository = repository;
+        this.pricing = pricing;
+        this.maps = maps;
+
+        AtomicInteger count = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "enrichment-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Assign prices and addresses to the specified cars
+     * @param ids - ids of cars
+     * @return ids of cars which no longer require enrichment
+     */
+    public Set<Long> enrich(Collection<Long> ids) {
+        List<Car> cars = repository.findAllById(ids);
+
+        // cars which have since been deleted don't need enriching
+        Set<Long> done = new HashSet<>(ids);
+        cars.forEach(car -> done.remove(car.getId()));
+
+        List<CompletableFuture<Long>> futures = cars.stream()
+                .map(car -> CompletableFuture.supplyAsync(() -> enrich(car) ? car.getId() : null, workers))
+                .collect(Collectors.toList());
+
+        List<Long> enriched = new ArrayList<>();
+        futures.forEach(future -> {
+            Long id = future.join();
+            if (id != null) {
+                enriched.add(id);
+            }
+        });
+        if (!enriched.isEmpty()) {
+            repository.updateEnrichmentByIdIn(enriched, Enrichment.COMPLETE);
+            done.addAll(enriched);
+        }
+        return done;
+    }
+
+    private boolean enrich(Car car) {
+        boolean success = false;
+        try {
+            success = pricing.upsertPrice(null, car) != null
+                    && maps.allocateAddress(car.getLocation(), car.getId()) != null;
+        } catch (Exception e) {
+            log.warn("Unable to enrich car {}: {}", car.getId(), e.getMessage());
+        }
+        return success;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,15 @@
+package com.udacity.vehicles.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.BAD_REQUEST, reason = "Invalid field")
+public class InvalidFieldException extends RuntimeException {
+
+    public InvalidFieldException() {
+    }
+
+    public InvalidFieldException(String message) {
+        super(message);
+    }
+}
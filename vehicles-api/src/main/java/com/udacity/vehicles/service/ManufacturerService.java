@@ -102,6 +102,14 @@ public class ManufacturerService {
     }
 
 
+    /**
+     * Get the number of manufacturers
+     * @return number of manufacturers
+     */
+    public long count() {
+        return repository.count();
+    }
+
     /**
      * Either creates or updates a manufacturer, based on prior existence of manufacturer
      * @param manufacturer A manufacturer object, which can be either new or existing
@@ -0,0 +1,221 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.client.maps.MapsClient;
+import com.udacity.vehicles.client.prices.PriceClient;
+import com.udacity.vehicles.domain.outbox.OutboxOperation;
+import com.udacity.vehicles.domain.outbox.OutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Implements a transactional outbox of operations on the downstream services.
+ * <p>
+ * Operations are enqueued in the same transaction as the change which requires them, and dispatched in batches
+ * by {@link ScheduledOutboxTask}. Each batch is claimed before it is dispatched, so concurrent dispatchers, e.g. in
+ * multiple instances, don't attempt the same operations. Failed operations are retried with an exponential backoff,
+ * until the maximum number of attempts is reached, when they are moved to the dead-letter state.
+ */
+@Service
+public class OutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxService.class);
+
+    public static final String OUTBOX_BATCH_SIZE = "outbox.batch-size";
+    public static final String OUTBOX_RETRY_DELAY = "outbox.retry-delay";
+    public static final String OUTBOX_MAX_RETRY_DELAY = "outbox.max-retry-delay";
+    public static final String OUTBOX_MAX_ATTEMPTS = "outbox.max-attempts";
+    public static final String OUTBOX_CLAIM_TIMEOUT = "outbox.claim-timeout";
+
+    private final OutboxRepository repository;
+    private final PriceClient pricing;
+    private final MapsClient maps;
+    private final EnrichmentService enrichment;
+    private final int batchSize;
+    private final long retryDelay;
+    private final long maxRetryDelay;
+    private final int maxAttempts;
+    private final long claimTimeout;
+
+    public OutboxService(OutboxRepository repository, PriceClient pricing, MapsClient maps,
+                         EnrichmentService enrichment,
+                         @Value("${" + OUTBOX_BATCH_SIZE + ":100}") int batchSize,
+                         @Value("${" + OUTBOX_RETRY_DELAY + ":1000}") long retryDelay,
+                         @Value("${" + OUTBOX_MAX_RETRY_DELAY + ":300000}") long maxRetryDelay,
+                         @Value("${" + OUTBOX_MAX_ATTEMPTS + ":10}") int maxAttempts,
+                         @Value("${" + OUTBOX_CLAIM_TIMEOUT + ":60000}") long claimTimeout) {
+        this.repository = repository;
+        this.pricing = pricing;
+        this.maps = maps;
+        this.enrichment = enrichment;
+        this.batchSize = batchSize;
+        this.retryDelay = retryDelay;
+        this.maxRetryDelay = maxRetryDelay;
+        this.maxAttempts = maxAttempts;
+        this.claimTimeout = claimTimeout;
+    }
+
+    /**
+     * Enqueue an operation for each of the specified vehicles, as part of the current transaction
+     * @param type - type of operation
+     * @param vehicleIds - ids of vehicles
+     * @return enqueued operations
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<OutboxOperation> enqueue(OutboxOperation.Type type, Collection<Long> vehicleIds) {
+        return repository.saveAll(vehicleIds.stream()
+                .map(id -> OutboxOperation.of(type, id))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Dispatch all operations which are due, in batches
+     * @return number of operations successfully dispatched
+     */
+    public int dispatchAll() {
+        int dispatched = 0;
+        int result;
+        do {
+            result = dispatch();
+            dispatched += Math.max(result, 0);
+        } while (result == batchSize);   // full batch succeeded, may be more
+        return dispatched;
+    }
+
+    /**
+     * Dispatch a batch of the operations which are due
+     * @return number of operations successfully dispatched, or -1 if any failed
+     */
+    public int dispatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxOperation> batch = claim(now);
+
+        Map<OutboxOperation.Type, List<OutboxOperation>> byType = new EnumMap<>(OutboxOperation.Type.class);
+        batch.forEach(operation ->
+                byType.computeIfAbsent(operation.getType(), t -> new ArrayList<>()).add(operation));
+
+        List<OutboxOperation> succeeded = new ArrayList<>();
+        List<OutboxOperation> failed = new ArrayList<>();
+        byType.forEach((type, operations) -> {
+            switch (type) {
+                case DELETE_PRICE:
+                    // single bulk request for all vehicles
+                    if (pricing.delete(vehicleIds(operations)) != null) {
+                        succeeded.addAll(operations);
+                    } else {
+                        failed.addAll(operations);
+                    }
+                    break;
+                case RELEASE_ADDRESS:
+                    // single bulk request for all vehicles
+                    if (maps.release(vehicleIds(operations)) != null) {
+                        succeeded.addAll(operations);
+                    } else {
+                        failed.addAll(operations);
+                    }
+                    break;
+                case ENRICH_VEHICLE:
+                    // batch enriched concurrently by worker pool
+                    Set<Long> enriched = enrichment.enrich(vehicleIds(operations));
+                    operations.forEach(operation -> {
+                        if (enriched.contains(operation.getVehicleId())) {
+                            succeeded.add(operation);
+                        } else {
+                            failed.add(operation);
+                        }
+                    });
+                    break;
+            }
+        });
+
+        if (!succeeded.isEmpty()) {
+            repository.deleteInBatch(succeeded);
+        }
+        if (!failed.isEmpty()) {
+            List<OutboxOperation> deadLetters = new ArrayList<>();
+            failed.forEach(operation -> {
+                operation.setClaimedBy(null);
+                operation.setAttempts(operation.getAttempts() + 1);
+                if (operation.getAttempts() >= maxAttempts) {
+                    operation.setStatus(OutboxOperation.Status.DEAD_LETTER);
+                    deadLetters.add(operation);
+                } else {
+                    operation.setNextAttemptAt(now.plusNanos(backoff(operation.getAttempts()) * 1_000_000L));
+                }
+            });
+            repository.saveAll(failed);
+            log.warn("{} outbox operations failed, will retry", failed.size() - deadLetters.size());
+            if (!deadLetters.isEmpty()) {
+                log.error("{} outbox operations failed {} times, moved to dead letters: {}",
+                        deadLetters.size(), maxAttempts, deadLetters);
+            }
+        }
+        return failed.isEmpty() ? succeeded.size() : -1;
+    }
+
+    /**
+     * Get the number of pending operations
+     * @return number of operations
+     */
+    public long count() {
+        return repository.countByStatus(OutboxOperation.Status.PENDING);
+    }
+
+    /**
+     * Get the number of operations which exceeded the maximum number of attempts
+     * @return number of operations
+     */
+    public long countDeadLetters() {
+        return repository.countByStatus(OutboxOperation.Status.DEAD_LETTER);
+    }
+
+    /**
+     * Claim a batch of the operations which are due. The claim expires after the claim timeout, so the operations
+     * of a dispatcher which fails before completing the batch are attempted again.
+     * @param now - current time
+     * @return claimed operations
+     */
+    private List<OutboxOperation> claim(LocalDateTime now) {
+        List<Long> ids = repository.findReadyIds(OutboxOperation.Status.PENDING, now, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String claimedBy = UUID.randomUUID().toString();
+        int claimed = repository.claim(ids, OutboxOperation.Status.PENDING, now, claimedBy,
+                now.plusNanos(claimTimeout * 1_000_000L));
+        if (claimed < ids.size()) {
+            log.debug("{} outbox operations claimed by another dispatcher", ids.size() - claimed);
+        }
+        return claimed == 0 ? List.of() : repository.findByClaimedByOrderById(claimedBy);
+    }
+
+    /**
+     * Get the delay before the next attempt of an operation
+     * @param attempts - number of failed attempts
+     * @return delay in milliseconds
+     */
+    private long backoff(int attempts) {
+        long delay = retryDelay << Math.min(attempts - 1, 20);
+        return Math.min(delay, maxRetryDelay);
+    }
+
+    private static List<Long> vehicleIds(List<OutboxOperation> operations) {
+        return operations.stream()
+                .map(OutboxOperation::getVehicleId)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,90 @@
+package com.udacity.vehicles.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the database preloads, either during startup or, if <code>preload.async</code> is set, in the background
+ * so startup isn't held up by them. Background preloads run in submission order on a single thread, as cars
+ * depend on manufacturers.
+ * <p>
+ * As a health indicator, it reports out of service while background preloads are pending, so the readiness probe
+ * holds off traffic until the database is populated.
+ */
+@Component
+public class PreloadRunner implements HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(PreloadRunner.class);
+
+    public static final String PRELOAD_ASYNC = "preload.async";
+
+    private final boolean async;
+    private final ExecutorService executor;
+    private final AtomicInteger pending;
+
+    public PreloadRunner(@Value("${" + PRELOAD_ASYNC + ":false}") boolean async) {
+        this.async = async;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "preload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pending = new AtomicInteger();
+    }
+
+    /**
+     * Run a preload
+     * @param name - name of preload
+     * @param preload - preload to run
+     */
+    public void run(String name, Runnable preload) {
+        if (async) {
+            pending.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    timed(name, preload);
+                } finally {
+                    pending.decrementAndGet();
+                }
+            });
+        } else {
+            timed(name, preload);
+        }
+    }
+
+    private void timed(String name, Runnable preload) {
+        long start = System.nanoTime();
+        preload.run();
+        log.info("Preload of {} took {} ms", name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Check if all preloads have completed
+     * @return <code>true</code> if complete
+     */
+    public boolean isComplete() {
+        return pending.get() == 0;
+    }
+
+    @Override
+    public Health health() {
+        return (isComplete() ? Health.up() : Health.outOfService())
+                .withDetail("pending", pending.get())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
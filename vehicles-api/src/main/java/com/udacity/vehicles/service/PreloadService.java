@@ -0,0 +1,229 @@
+package com.udacity.vehicles.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.udacity.vehicles.domain.Location;
+import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.domain.car.CarRepository;
+import com.udacity.vehicles.domain.manufacturer.Manufacturer;
+import com.udacity.vehicles.domain.preload.PreloadResource;
+import com.udacity.vehicles.domain.preload.PreloadResourceRepository;
+import com.udacity.vehicles.domain.preload.PreloadRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Loads manufacturers and cars from preload resources.
+ * <p>
+ * The checksum and row count of each resource is recorded, so an unchanged resource is skipped, and only the rows
+ * which have changed are applied when it has changed.
+ */
+@Service
+public class PreloadService {
+
+    private static final Logger log = LoggerFactory.getLogger(PreloadService.class);
+
+    /** Result of a preload which was skipped as the resource is unchanged */
+    public static final int UNCHANGED = -1;
+    /** Optional property of a car resource row, identifying the row across changes to the resource */
+    public static final String ROW_KEY = "key";
+
+    private final PreloadResourceRepository repository;
+    private final ManufacturerService manufacturerService;
+    private final CarRepository carRepository;
+    private final CarService carService;
+    private final CarLocationIndex locations;
+    private final ObjectMapper objectMapper;
+
+    public PreloadService(PreloadResourceRepository repository, ManufacturerService manufacturerService,
+                          CarRepository carRepository, CarService carService, CarLocationIndex locations) {
+        this.repository = repository;
+        this.manufacturerService = manufacturerService;
+        this.carRepository = carRepository;
+        this.carService = carService;
+        this.locations = locations;
+        this.objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule());
+    }
+
+    /**
+     * Load manufacturers, saving those which are new or differ from the database, matched by code
+     * @param name - resource name
+     * @param content - resource content
+     * @return number of manufacturers saved, or {@link #UNCHANGED} if the resource is unchanged
+     * @throws IOException if the resource could not be parsed
+     */
+    @Transactional
+    public int preloadManufacturers(String name, byte[] content) throws IOException {
+        String checksum = checksum(content);
+        if (find(name, checksum).isPresent()) {
+            return UNCHANGED;
+        }
+
+        List<Manufacturer> list = objectMapper.readValue(content, new TypeReference<List<Manufacturer>>() {
+        });
+        Map<Integer, Manufacturer> existing = manufacturerService.list().stream()
+                .collect(Collectors.toMap(Manufacturer::getCode, Function.identity()));
+        List<Manufacturer> changed = list.stream()
+                .filter(manufacturer -> !manufacturer.equals(existing.get(manufacturer.getCode())))
+                .collect(Collectors.toList());
+        if (!changed.isEmpty()) {
+            manufacturerService.saveAll(changed);
+        }
+
+        record(name, checksum, list.size(), List.of());
+        return changed.size();
+    }
+
+    /**
+     * Load cars, saving those which are new or whose rows have changed.
+     * Rows are matched to the cars loaded from them by the previous load using their <code>key</code> property, or
+     * if they have no key, by their content. A keyed row whose content has changed updates its car; a row without a
+     * match is added as a new car, and cars whose rows no longer exist are deleted. Cars whose rows are unchanged are
+     * left as they are, including any updates made through the API. The location index is updated, as the load may
+     * complete after the index is built.
+     * @param name - resource name
+     * @param content - resource content
+     * @return number of cars saved or deleted, or {@link #UNCHANGED} if the resource is unchanged
+     * @throws IOException if the resource could not be parsed
+     */
+    @Transactional
+    public int preloadCars(String name, byte[] content) throws IOException {
+        String checksum = checksum(content);
+        Optional<PreloadResource> previous = repository.findById(name);
+        if (previous.map(p -> p.getChecksum().equals(checksum)).orElse(false)) {
+            return UNCHANGED;
+        }
+        // previous rows by key, in resource order for rows with the same content
+        Map<String, Deque<PreloadRow>> previousRows = previous.map(PreloadResource::getRows)
+                .orElse(Collections.emptyList()).stream()
+                .collect(Collectors.groupingBy(PreloadRow::getKey, Collectors.toCollection(ArrayDeque::new)));
+        // cars loaded by a previous load which matched rows by position, are matched by content
+        List<Car> unkeyedCars = new ArrayList<>(carRepository.findAllById(
+                previous.map(PreloadResource::getEntityIds).orElse(Collections.emptyList())));
+
+        List<ObjectNode> list = objectMapper.readValue(content, new TypeReference<List<ObjectNode>>() {
+        });
+        List<PreloadRow> rows = new ArrayList<>(list.size());
+        int applied = 0;
+        for (ObjectNode row : list) {
+            JsonNode keyNode = row.remove(ROW_KEY);
+            String rowChecksum = checksum(objectMapper.writeValueAsBytes(row));
+            String key = keyNode == null ? rowChecksum : ROW_KEY + ":" + keyNode.asText();
+            Car car = objectMapper.treeToValue(row, Car.class).ensureValid();
+
+            // get manufacturer from database
+            Manufacturer manufacturer = car.getDetails().getManufacturer();
+            try {
+                car.getDetails().setManufacturer(
+                        manufacturerService.findByNameOrId(manufacturer));
+            } catch (ManufacturerNotFoundException mnf) {
+                log.warn(String.format("Manufacturer '%s' not found", manufacturer));
+                log.warn(String.format("Not adding car: %s", car));
+                // keep any car previously loaded from the row
+                Optional.ofNullable(previousRows.get(key))
+                        .map(Deque::pollFirst)
+                        .ifPresent(rows::add);
+                continue;
+            }
+
+            PreloadRow match = Optional.ofNullable(previousRows.get(key))
+                    .map(Deque::pollFirst)
+                    .orElse(null);
+            Car existing = match == null ? null : carRepository.findById(match.getEntityId()).orElse(null);
+            if (existing == null && match == null) {
+                existing = unkeyedCars.stream()
+                        .filter(c -> sameContent(c, car))
+                        .findFirst()
+                        .orElse(null);
+                unkeyedCars.remove(existing);
+                match = existing == null ? null : new PreloadRow(key, rowChecksum, existing.getId());
+            }
+
+            Long id;
+            if (existing == null) {
+                id = carRepository.save(car).getId();
+                locations.update(id, car.getLocation());
+                ++applied;
+            } else {
+                id = existing.getId();
+                if (!match.getChecksum().equals(rowChecksum)) {
+                    // keyed row has changed
+                    existing.setCondition(car.getCondition());
+                    existing.setDetails(car.getDetails());
+                    existing.setLocation(car.getLocation());
+                    carRepository.save(existing);
+                    locations.update(id, existing.getLocation());
+                    ++applied;
+                }
+            }
+            rows.add(new PreloadRow(key, rowChecksum, id));
+        }
+
+        // delete cars whose rows have been removed
+        List<Long> removed = Stream.concat(
+                    previousRows.values().stream().flatMap(Deque::stream).map(PreloadRow::getEntityId),
+                    unkeyedCars.stream().map(Car::getId))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (!removed.isEmpty()) {
+            applied += carService.deleteAll(removed);
+        }
+
+        record(name, checksum, list.size(), rows);
+        return applied;
+    }
+
+    /**
+     * Calculate the checksum of a resource
+     * @param content - resource content
+     * @return checksum
+     */
+    public static String checksum(byte[] content) {
+        return DigestUtils.md5DigestAsHex(content);
+    }
+
+    /**
+     * Find the record of a previous load of a resource with the specified checksum
+     * @param name - resource name
+     * @param checksum - resource checksum
+     * @return record if the resource is unchanged
+     */
+    public Optional<PreloadResource> find(String name, String checksum) {
+        return repository.findById(name)
+                .filter(p -> p.getChecksum().equals(checksum));
+    }
+
+    private void record(String name, String checksum, int rowCount, List<PreloadRow> rows) {
+        repository.save(new PreloadResource(name, checksum, rowCount, rows));
+        log.info("Recorded preload of {}: {} rows, checksum {}", name, rowCount, checksum);
+    }
+
+    private static boolean sameContent(Car car, Car other) {
+        Location location = Optional.ofNullable(car.getLocation()).orElseGet(Location::new);
+        Location otherLocation = Optional.ofNullable(other.getLocation()).orElseGet(Location::new);
+        return car.getCondition() == other.getCondition()
+                && Objects.equals(car.getDetails(), other.getDetails())
+                && Objects.equals(location.getLat(), otherLocation.getLat())
+                && Objects.equals(location.getLon(), otherLocation.getLon());
+    }
+}
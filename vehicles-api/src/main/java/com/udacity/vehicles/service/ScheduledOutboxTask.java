@@ -0,0 +1,21 @@
+package com.udacity.vehicles.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Task to dispatch the pending downstream operations in the outbox
+ */
+@Component
+public class ScheduledOutboxTask {
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Scheduled(initialDelayString = "${outbox.dispatch.interval:1000}",
+            fixedDelayString = "${outbox.dispatch.interval:1000}")
+    public void dispatch() {
+        outboxService.dispatchAll();
+    }
+}
@@ -1,23 +1,98 @@
 package com.udacity.vehicles.service;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
 /**
- * Task to check that all required microservices have been configured
+ * Task to keep the configuration of the required microservices up to date.
+ * Services are refreshed on startup and whenever the discovery client's registry is refreshed, as signalled by a
+ * heartbeat event, evicting those which are no longer available. While any service is missing, discovery is also
+ * polled with an exponentially increasing interval.
  */
 @Component
 public class ScheduledServiceTask {
 
-    @Autowired
-    private ServicesService servicesService;
+    private static final Logger log = LoggerFactory.getLogger(ScheduledServiceTask.class);
+
+    private final ServicesService servicesService;
+    private final TaskScheduler taskScheduler;
+    private final long initialInterval;
+    private final long maxInterval;
+
+    private long interval;
+    private ScheduledFuture<?> poll;
+
+    public ScheduledServiceTask(ServicesService servicesService, TaskScheduler taskScheduler,
+                                @Value("${services.poll.initial-interval:1000}") long initialInterval,
+                                @Value("${services.poll.max-interval:60000}") long maxInterval) {
+        this.servicesService = servicesService;
+        this.taskScheduler = taskScheduler;
+        this.initialInterval = initialInterval;
+        this.maxInterval = maxInterval;
+        this.interval = initialInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        checkServiceConfig();
+    }
+
+    @EventListener(HeartbeatEvent.class)
+    public void onHeartbeat() {
+        checkServiceConfig();
+    }
+
+    /**
+     * Refresh the configuration of the microservices, and start polling if any are missing
+     */
+    public synchronized void checkServiceConfig() {
+        List<String> missing = servicesService.refresh();
+        if (missing.isEmpty()) {
+            stopPolling();
+        } else if (poll == null) {
+            schedulePoll(missing);
+        }
+    }
+
+    /**
+     * Check if discovery is being polled for missing microservices
+     * @return <code>true</code> if polling
+     */
+    public synchronized boolean isPolling() {
+        return poll != null;
+    }
+
+    private synchronized void poll() {
+        poll = null;
+        List<String> missing = servicesService.refresh();
+        if (missing.isEmpty()) {
+            interval = initialInterval;
+        } else {
+            interval = Math.min(interval * 2, maxInterval);
+            schedulePoll(missing);
+        }
+    }
+
+    private void schedulePoll(List<String> missing) {
+        log.debug("Polling for {} in {} ms", missing, interval);
+        poll = taskScheduler.schedule(this::poll, Instant.now().plusMillis(interval));
+    }
 
-    @Scheduled(initialDelay = 0, fixedRate = 5000)
-    public void checkServiceConfig() {
-        servicesService.getNotConfigured()
-                .forEach(serviceName -> {
-                    servicesService.configureService(serviceName);
-                });
+    private void stopPolling() {
+        if (poll != null) {
+            poll.cancel(false);
+            poll = null;
+        }
+        interval = initialInterval;
     }
 }
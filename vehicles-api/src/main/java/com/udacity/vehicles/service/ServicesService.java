@@ -6,14 +6,18 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
 import org.springframework.cloud.client.ServiceInstance;
 import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriBuilder;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
@@ -54,7 +58,30 @@ public class ServicesService {
     }
 
     /**
-     * Get a web client for the specified microservice
+     * Get the uri of an available instance of the specified microservice, other than the configured instance
+     * @param serviceName - name of microservice
+     * @return uri, or <code>null</code> if there is no other instance
+     */
+    public URI getAlternateURI(String serviceName) {
+        URI baseUri;
+        mapLock.lock();
+        try {
+            ServiceEntry entry = configured.get(serviceName);
+            baseUri = entry != null && entry.configured ? entry.baseUri : null;
+        } finally {
+            mapLock.unlock();
+        }
+        List<URI> alternates = getServiceInstances(serviceName).stream()
+                .map(ServiceInstance::getUri)
+                .filter(uri -> !uri.equals(baseUri))
+                .collect(Collectors.toList());
+        return alternates.isEmpty() ? null :
+                alternates.get(ThreadLocalRandom.current().nextInt(alternates.size()));
+    }
+
+    /**
+     * Get a web client for the specified microservice.
+     * In addition to json, the client can encode and decode binary Smile json.
      * @param serviceName - name of microservice
      * @param baseUrl - flag to configure baseUrl
      * @return web client
@@ -63,9 +90,13 @@ public class ServicesService {
     public WebClient getService(String serviceName, BaseUrl baseUrl) {
         WebClient.Builder builder = WebClient.builder();
         webClientCustomizer.customize(builder);
+        builder.codecs(configurer -> {
+            configurer.customCodecs().registerWithDefaultConfig(new Jackson2SmileEncoder());
+            configurer.customCodecs().registerWithDefaultConfig(new Jackson2SmileDecoder());
+        });
         WebClient webClient;
-        boolean serviceConfigured = configureService(serviceName);
-        if (serviceConfigured && baseUrl == BaseUrl.WITH) {
+        // only look up the service if its url is required, otherwise it is configured on first use or refresh
+        if (baseUrl == BaseUrl.WITH && configureService(serviceName)) {
             mapLock.lock();
             try {
                 ServiceEntry entry = configured.get(serviceName);
@@ -76,11 +107,25 @@ public class ServicesService {
                 mapLock.unlock();
             }
         } else {
+            register(serviceName);
             webClient = builder.build();
         }
         return webClient;
     }
 
+    /**
+     * Register the specified microservice, without looking it up, so it is configured by the next refresh
+     * @param serviceName - name of microservice
+     */
+    public void register(String serviceName) {
+        mapLock.lock();
+        try {
+            configured.putIfAbsent(serviceName, new ServiceEntry(serviceName, false, null));
+        } finally {
+            mapLock.unlock();
+        }
+    }
+
     /**
      * Configure the specified microservice
      * @param serviceName - name of microservice
@@ -108,15 +153,65 @@ public class ServicesService {
         return result;
     }
 
+    /**
+     * Refresh the configuration of all known microservices from discovery.
+     * A service whose configured instance is no longer available is switched to an available instance, or evicted
+     * if there are none, so requests aren't sent to a dead instance.
+     * @return names of microservices which are not configured
+     */
+    public List<String> refresh() {
+        List<String> names;
+        mapLock.lock();
+        try {
+            names = new ArrayList<>(configured.keySet());
+        } finally {
+            mapLock.unlock();
+        }
+        for (String serviceName : names) {
+            List<ServiceInstance> instances = getServiceInstances(serviceName);
+            mapLock.lock();
+            try {
+                ServiceEntry entry = configured.get(serviceName);
+                if (instances.isEmpty()) {
+                    if (entry.configured) {
+                        entry.configured = false;
+                        entry.baseUri = null;
+
+                        log.warn(serviceName + " evicted: no available instance");
+                    }
+                } else if (!entry.configured
+                        || instances.stream().noneMatch(s -> s.getUri().equals(entry.baseUri))) {
+                    entry.configured = true;
+                    entry.baseUri = instances.get(0).getUri();
+
+                    log.info(serviceName + " configured: " + entry.baseUri);
+                }
+            } finally {
+                mapLock.unlock();
+            }
+        }
+        return getNotConfigured();
+    }
+
     /**
      * Get an instance of the specified microservice
      * @param serviceName - name of microservice
      * @return
      */
     private Optional<ServiceInstance> getServiceInstance(String serviceName) {
+        return getServiceInstances(serviceName).stream()
+                .findFirst();
+    }
+
+    /**
+     * Get the available instances of the specified microservice
+     * @param serviceName - name of microservice
+     * @return instances
+     */
+    private List<ServiceInstance> getServiceInstances(String serviceName) {
         return discoveryClient.getInstances(serviceName).stream()
                 .filter(s -> s.getServiceId().equalsIgnoreCase(serviceName))
-                .findFirst();
+                .collect(Collectors.toList());
     }
 
     /**
@@ -160,10 +255,7 @@ public class ServicesService {
         try {
             ServiceEntry entry = configured.get(serviceName);
             if (entry != null && entry.configured) {
-                builder.scheme(entry.baseUri.getScheme())
-                        .userInfo(entry.baseUri.getUserInfo())
-                        .host(entry.baseUri.getHost())
-                        .port(entry.baseUri.getPort());
+                setBaseUrl(entry.baseUri, builder);
             }
         } finally {
             mapLock.unlock();
@@ -171,6 +263,19 @@ public class ServicesService {
         return builder;
     }
 
+    /**
+     * Set the base url info in the specified uri builder
+     * @param baseUri - base uri of microservice instance
+     * @param builder - uri builder to update
+     * @return builder
+     */
+    public static UriBuilder setBaseUrl(URI baseUri, UriBuilder builder) {
+        return builder.scheme(baseUri.getScheme())
+                .userInfo(baseUri.getUserInfo())
+                .host(baseUri.getHost())
+                .port(baseUri.getPort());
+    }
+
     /**
      * Check if the specified microservices is configured
      * @param serviceName - name of microservice
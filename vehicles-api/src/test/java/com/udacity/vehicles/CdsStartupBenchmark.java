@@ -0,0 +1,139 @@
+package com.udacity.vehicles;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static com.udacity.vehicles.config.Config.CARS_URL;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Measures the time to first request of the application, started with and without the class data sharing archive
+ * created by the <code>cds</code> build profile.
+ * Run with <code>mvn -Pcds package -DskipTests</code> followed by
+ * <code>mvn test -Dbenchmark=true -Dtest=CdsStartupBenchmark</code>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CdsStartupBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(CdsStartupBenchmark.class);
+
+    private static final String CDS_DIR = "target/cds";
+    private static final String ARCHIVE = CDS_DIR + "/app.jsa";
+    private static final String CLASSPATH = CDS_DIR + "/classpath.txt";
+
+    private static final int WARMUP = 1;
+    private static final int ITERATIONS = 5;
+    private static final long TIMEOUT_SECONDS = 120;
+
+    @DisplayName("Benchmark time to first request with and without class data sharing archive")
+    @Test
+    public void benchmarkFirstRequest() throws Exception {
+        assumeTrue(Files.exists(Paths.get(ARCHIVE)), "Archive not found, run 'mvn -Pcds package' first");
+
+        String classpath = classpath();
+        double standard = run(classpath, false);
+        double shared = run(classpath, true);
+
+        log.info("Without archive: {} ms to first request", standard);
+        log.info("With archive   : {} ms to first request", shared);
+
+        assertTrue(shared < standard, "Archive not quicker to first request");
+    }
+
+    /**
+     * Get the classpath the archive was created with, which the application must be run with to use it
+     * @return classpath
+     * @throws IOException if the classpath could not be read
+     */
+    private static String classpath() throws IOException {
+        Path jar;
+        try (Stream<Path> files = Files.list(Paths.get(CDS_DIR))) {
+            jar = files.filter(file -> file.toString().endsWith("-cds.jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Jar not found in " + CDS_DIR));
+        }
+        return CDS_DIR + "/" + jar.getFileName() + File.pathSeparator
+                + Files.readString(Paths.get(CLASSPATH)).trim();
+    }
+
+    private double run(String classpath, boolean shared) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            firstRequest(classpath, shared);
+        }
+        List<Double> results = new ArrayList<>();
+        for (int i = 0; i < ITERATIONS; i++) {
+            results.add(firstRequest(classpath, shared));
+        }
+        return results.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+    }
+
+    /**
+     * Start the application in a new JVM and time until it responds to a request
+     * @param classpath - application classpath
+     * @param shared - use the archive
+     * @return time to first request in milliseconds
+     */
+    private double firstRequest(String classpath, boolean shared) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>(List.of(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString()));
+        if (shared) {
+            // fail rather than silently run without the archive if it doesn't match the jvm or classpath
+            command.addAll(List.of("-Xshare:on", "-XX:SharedArchiveFile=" + ARCHIVE));
+        }
+        command.addAll(List.of(
+                "-Dserver.port=" + port,
+                "-Deureka.client.enabled=false",
+                "-cp", classpath,
+                VehiclesApiApplication.class.getName()));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            URL url = new URL("http://localhost:" + port + CARS_URL);
+            long deadline = start + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (System.nanoTime() < deadline) {
+                assertTrue(process.isAlive(), () -> "Application exited with " + process.exitValue());
+                try {
+                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+                    int status = connection.getResponseCode();
+                    connection.disconnect();
+                    if (status == HttpURLConnection.HTTP_OK) {
+                        return (System.nanoTime() - start) / 1_000_000.0;
+                    }
+                } catch (ConnectException e) {
+                    // not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("No response within " + TIMEOUT_SECONDS + " s");
+        } finally {
+            process.destroy();
+            process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.udacity.vehicles;
+
+import com.udacity.vehicles.service.PreloadRunner;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.udacity.vehicles.config.Config.CARS_URL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures the startup time of the application, comparing the default configuration with the <code>fast</code>
+ * profile.
+ * Run with <code>mvn test -Dbenchmark=true -Dtest=StartupBenchmark</code>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StartupBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupBenchmark.class);
+
+    private static final String FAST_PROFILE = "fast";
+    private static final int WARMUP = 1;
+    private static final int ITERATIONS = 5;
+
+    @DisplayName("Benchmark default vs fast profile startup")
+    @Test
+    public void benchmarkStartup() {
+        Result standard = run(null);
+        Result fast = run(FAST_PROFILE);
+
+        log.info("Default: {} ms started, {} ms preloaded, {} ms first request",
+                standard.startedMillis, standard.preloadedMillis, standard.firstRequestMillis);
+        log.info("Fast   : {} ms started, {} ms preloaded, {} ms first request",
+                fast.startedMillis, fast.preloadedMillis, fast.firstRequestMillis);
+
+        assertTrue(fast.startedMillis < standard.startedMillis, "Fast profile not started quicker than default");
+    }
+
+    private Result run(String profile) {
+        for (int i = 0; i < WARMUP; i++) {
+            start(profile, "warmup" + i);
+        }
+        List<Result> results = new ArrayList<>();
+        for (int i = 0; i < ITERATIONS; i++) {
+            results.add(start(profile, Integer.toString(i)));
+        }
+        return new Result(
+                results.stream().mapToDouble(r -> r.startedMillis).average().orElse(0),
+                results.stream().mapToDouble(r -> r.preloadedMillis).average().orElse(0),
+                results.stream().mapToDouble(r -> r.firstRequestMillis).average().orElse(0));
+    }
+
+    /**
+     * Start the application and make a request
+     * @param profile - profile to activate, or <code>null</code> for the default configuration
+     * @param run - name of run, used to give each run a new database
+     * @return timings
+     */
+    private Result start(String profile, String run) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(VehiclesApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:startup-" + profile + "-" + run + ";DB_CLOSE_DELAY=-1",
+                        "eureka.client.enabled=false",
+                        "spring.cloud.discovery.enabled=false",
+                        "outbox.dispatch.interval=3600000",
+                        "logging.level.org.springframework=INFO",
+                        "logging.level.web=INFO");
+        if (profile != null) {
+            builder.profiles(profile);
+        }
+
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context = builder.run()) {
+            double started = millisSince(start);
+
+            PreloadRunner preloads = context.getBean(PreloadRunner.class);
+            while (!preloads.isComplete()) {
+                Thread.sleep(1);
+            }
+            double preloaded = millisSince(start);
+
+            String url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + CARS_URL;
+            long requestStart = System.nanoTime();
+            assertEquals(HttpStatus.OK, new RestTemplate().getForEntity(url, String.class).getStatusCode());
+            double firstRequest = millisSince(requestStart);
+
+            return new Result(started, preloaded, firstRequest);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double millisSince(long start) {
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+
+    private static class Result {
+        final double startedMillis;
+        final double preloadedMillis;
+        final double firstRequestMillis;
+
+        Result(double startedMillis, double preloadedMillis, double firstRequestMillis) {
+            this.startedMillis = startedMillis;
+            this.preloadedMillis = preloadedMillis;
+            this.firstRequestMillis = firstRequestMillis;
+        }
+    }
+}
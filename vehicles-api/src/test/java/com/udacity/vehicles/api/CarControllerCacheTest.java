@@ -0,0 +1,222 @@
+package com.udacity.vehicles.api;
+
+import com.jayway.jsonpath.JsonPath;
+import com.udacity.vehicles.client.maps.MapsClient;
+import com.udacity.vehicles.client.prices.PriceClient;
+import com.udacity.vehicles.domain.Condition;
+import com.udacity.vehicles.domain.Location;
+import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.domain.car.CarRepository;
+import com.udacity.vehicles.domain.car.Details;
+import com.udacity.vehicles.domain.manufacturer.Manufacturer;
+import com.udacity.vehicles.domain.manufacturer.ManufacturerRepository;
+import com.udacity.vehicles.service.ScheduledServiceTask;
+import com.udacity.vehicles.service.ServicesService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJsonTesters;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.json.JacksonTester;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.persistence.EntityManagerFactory;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.udacity.vehicles.api.CarControllerTest.getIdUri;
+import static com.udacity.vehicles.config.Config.*;
+import static com.udacity.vehicles.service.ManufacturerService.UNKNOWN_MANUFACTURER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.hateoas.MediaTypes.HAL_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Implements testing of the CarController class, backed by the repository and its second-level cache.
+ */
+@SpringBootTest(properties = {
+        "job.autorun.enabled=false", // don't run preload of addresses into database
+        "outbox.dispatch.interval=3600000"  // don't dispatch outbox during tests
+})
+@AutoConfigureMockMvc
+@AutoConfigureJsonTesters
+public class CarControllerCacheTest {
+
+    private static final String PRICE = "USD 12345.00";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JacksonTester<Car> json;
+
+    @MockBean
+    private PriceClient priceClient;
+
+    @MockBean
+    private MapsClient mapsClient;
+
+    @MockBean
+    private ScheduledServiceTask scheduledServiceTask;
+
+    @MockBean
+    private ServicesService servicesService;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private ManufacturerRepository manufacturerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Stubs the maps client to return the location it is given, as the address isn't required.
+     */
+    @BeforeEach
+    public void setup() {
+        given(mapsClient.getAddress(any(), any())).willAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    /**
+     * Tests repeat requests for a car, and updates of it, are served by the second-level cache, without executing
+     * any SQL statements to read the car or its manufacturer, and manufacturer name lookups of new cars are served
+     * by the query cache. An update with an unchanged price isn't repriced.
+     *
+     * @throws Exception if a request fails
+     */
+    @DisplayName("Second-level cache")
+    @Test
+    public void secondLevelCache() throws Exception {
+        Manufacturer manufacturer = getCar().getDetails().getManufacturer();
+        boolean addManufacturer = !manufacturerRepository.existsById(manufacturer.getCode());
+        if (addManufacturer) {
+            manufacturerRepository.save(manufacturer);
+        }
+        Car car = carRepository.save(getCar());
+        List<Long> added = new ArrayList<>();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+
+        try {
+            // first request for car reads the database
+            statistics.clear();
+            mvc.perform(get(getIdUri(CARS_URL + CARS_GET_BY_ID_URL, car.getId())).accept(HAL_JSON))
+                    .andExpect(status().isOk());
+            assertTrue(statistics.getPrepareStatementCount() > 0);
+
+            // repeat request, car & its manufacturer are cached
+            statistics.clear();
+            mvc.perform(get(getIdUri(CARS_URL + CARS_GET_BY_ID_URL, car.getId())).accept(HAL_JSON))
+                    .andExpect(status().isOk());
+            assertEquals(0, statistics.getPrepareStatementCount());
+            assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+
+            // update reads car & its manufacturer from the cache, so only executes the update
+            Car update = getCar();
+            update.getDetails().setMileage(40000);
+            update.setPrice(PRICE);
+            given(priceClient.getCachedPrice(car.getId())).willReturn(PRICE);
+            statistics.clear();
+            mvc.perform(put(getIdUri(CARS_URL + CARS_PUT_BY_ID_URL, car.getId()))
+                            .content(json.write(update).getJson())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk());
+            assertEquals(1, statistics.getPrepareStatementCount());
+            // unchanged price isn't repriced
+            verify(priceClient, never()).getByVehicleId(any(), eq(PriceClient.PriceMode.FORCE_NEW));
+
+            // updated car is cached
+            statistics.clear();
+            mvc.perform(get(getIdUri(CARS_URL + CARS_GET_BY_ID_URL, car.getId())).accept(HAL_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.details.mileage").value(40000));
+            assertEquals(0, statistics.getPrepareStatementCount());
+
+            // manufacturer name lookup of new cars is served by the query cache
+            Car byName = getCar();
+            byName.getDetails().setManufacturer(new Manufacturer(UNKNOWN_MANUFACTURER_ID, manufacturer.getName()));
+            String byNameJson = json.write(byName).getJson();
+            added.add(create(byNameJson));
+            statistics.clear();
+            added.add(create(byNameJson));
+            assertEquals(1, statistics.getQueryCacheHitCount());
+
+            // cache statistics are available from actuator
+            assertFalse(meterRegistry.find("hibernate.second.level.cache.requests").meters().isEmpty());
+            assertFalse(meterRegistry.find("hibernate.query.cache.requests").meters().isEmpty());
+        } finally {
+            carRepository.deleteById(car.getId());
+            added.forEach(carRepository::deleteById);
+            if (addManufacturer) {
+                manufacturerRepository.deleteById(manufacturer.getCode());
+            }
+        }
+    }
+
+    /**
+     * Creates a car through the api
+     * @param jsonStr - car json
+     * @return id of new car
+     * @throws Exception if the request fails
+     */
+    private Long create(String jsonStr) throws Exception {
+        MvcResult result = mvc.perform(post(new URI(CARS_URL))
+                        .content(jsonStr)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return ((Number) JsonPath.read(result.getResponse().getContentAsString(), "$.id")).longValue();
+    }
+
+    /**
+     * Creates an example Car object for use in testing.
+     *
+     * @return an example Car object
+     */
+    private Car getCar() {
+        Car car = new Car();
+        car.setLocation(new Location(40.730610, -73.935242));
+        Details details = new Details();
+        details.setManufacturer(new Manufacturer(101, "Chevrolet"));
+        details.setModel("Impala");
+        details.setMileage(32280);
+        details.setExternalColor("white");
+        details.setBody("sedan");
+        details.setEngine("3.6L V6");
+        details.setFuelType("Gasoline");
+        details.setModelYear(2018);
+        details.setProductionYear(2018);
+        details.setNumberOfDoors(4);
+        car.setDetails(details);
+        car.setCondition(Condition.USED);
+        return car;
+    }
+}
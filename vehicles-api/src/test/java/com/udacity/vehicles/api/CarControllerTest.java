@@ -1,12 +1,18 @@
 package com.udacity.vehicles.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udacity.events.ChangeEvent;
+import com.udacity.events.ChangeEventBus;
 import com.udacity.vehicles.client.maps.MapsClient;
 import com.udacity.vehicles.client.prices.PriceClient;
 import com.udacity.vehicles.domain.Condition;
 import com.udacity.vehicles.domain.Location;
 import com.udacity.vehicles.domain.car.Car;
 import com.udacity.vehicles.domain.car.Details;
+import com.udacity.vehicles.domain.car.Enrichment;
 import com.udacity.vehicles.domain.manufacturer.Manufacturer;
+import com.udacity.vehicles.service.CarFields;
+import com.udacity.vehicles.service.CarSearch;
 import com.udacity.vehicles.service.CarService;
 import com.udacity.vehicles.service.ScheduledServiceTask;
 import com.udacity.vehicles.service.ServicesService;
@@ -21,26 +27,45 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.json.JacksonTester;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Collections;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 import static com.udacity.vehicles.config.Config.*;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.hateoas.MediaTypes.HAL_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
  * Implements testing of the CarController class.
  */
 @SpringBootTest(properties = {
-        "job.autorun.enabled=false" // don't run preload of addresses into database
+        "job.autorun.enabled=false", // don't run preload of addresses into database
+        "outbox.dispatch.interval=3600000"  // outbox dispatched by tests
 })
 @AutoConfigureMockMvc
 @AutoConfigureJsonTesters
@@ -71,6 +96,9 @@ public class CarControllerTest {
     @MockBean
     private ServicesService servicesService;
 
+    @Autowired
+    private ChangeEventBus eventBus;
+
     /**
      * Creates pre-requisites for testing, such as an example car.
      */
@@ -78,8 +106,10 @@ public class CarControllerTest {
     public void setup() {
         Car car = getCar(CAR_ID);
         given(carService.save(any())).willReturn(car);
-        given(carService.findById(any())).willReturn(car);
-        given(carService.list()).willReturn(Collections.singletonList(car));
+        given(carService.load(any())).willReturn(car);
+        given(carService.load(any(), any())).willReturn(car);
+        given(carService.loadAll(any())).willReturn(Collections.singletonList(car));
+        given(carService.enrich(any(), any())).willAnswer(invocation -> invocation.getArgument(0));
     }
 
     /**
@@ -105,6 +135,31 @@ public class CarControllerTest {
                 .andExpect(content().json(createdJsonStr));
     }
 
+    /**
+     * Tests for acceptance of a new car created asynchronously
+     *
+     * @throws Exception when car creation fails in the system
+     */
+    @DisplayName("Create new car asynchronously")
+    @Test
+    public void createCarAsync() throws Exception {
+        Car car = getCar();
+        String jsonStr = json.write(car).getJson();
+        car.setId(CAR_ID);
+        car.setEnrichment(Enrichment.PENDING);
+        given(carService.saveAsync(any())).willReturn(car);
+
+        mvc.perform(
+            post(new URI(CARS_URL))
+                        .param(CarController.ASYNC_PARAM, "true")
+                        .content(jsonStr)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, endsWith(CARS_URL + "/" + CAR_ID)))
+                .andExpect(jsonPath("$.enrichment").value(Enrichment.PENDING.name()));
+    }
+
     /**
      * Tests for successful update of a car in the system
      *
@@ -124,6 +179,9 @@ public class CarControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(content().json(jsonStr));
+
+        // no separate lookup of the car
+        verify(carService, never()).findById(any());
     }
 
     /**
@@ -170,7 +228,146 @@ public class CarControllerTest {
                 get(getIdUri(CARS_URL + CARS_GET_BY_ID_URL, car.getId())))
             .andExpect(status().isOk())
             .andExpect(content().contentType(HAL_JSON))
-            .andExpect(content().json(jsonStr));
+            .andExpect(content().json(jsonStr))
+            .andExpect(jsonPath("$._links.self.href").value(endsWith(CARS_URL + "/" + CAR_ID)))
+            .andExpect(jsonPath("$._links.cars.href").value(endsWith(CARS_URL)));
+    }
+
+    /**
+     * Tests conditional reads of a car are not modified until the car or its price changes, and unmodified cars
+     * are not enriched.
+     *
+     * @throws Exception if the read operations fail
+     */
+    @DisplayName("Conditional find car")
+    @Test
+    public void conditionalFindCar() throws Exception {
+        Car car = getCar(CAR_ID);
+        car.setModifiedAt(LocalDateTime.now().minusMinutes(1));
+        given(carService.load(any(), any())).willReturn(car);
+        URI uri = getIdUri(CARS_URL + CARS_GET_BY_ID_URL, car.getId());
+
+        String etag = mvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("W/\"")))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mvc.perform(get(new URI(CARS_URL)).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());    // list has a different tag
+        verify(carService, times(2)).enrich(any(), any());
+
+        // price change
+        given(priceClient.getVersion(CAR_ID)).willReturn(1L);
+        mvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Tests the read operations with a sparse fieldset only return the requested fields.
+     *
+     * @throws Exception if the read operations fail
+     */
+    @DisplayName("Find car fields")
+    @Test
+    public void findCarFields() throws Exception {
+        String fields = "id,condition,details.model";
+        Car car = getCar(CAR_ID);
+
+        mvc.perform(
+            get(getIdUri(CARS_URL + CARS_GET_BY_ID_URL, car.getId()))
+                        .param(CarController.FIELDS_PARAM, fields))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(HAL_JSON))
+                .andExpect(jsonPath("$.id").value(CAR_ID))
+                .andExpect(jsonPath("$.condition").value(car.getCondition().name()))
+                .andExpect(jsonPath("$.details.model").value(car.getDetails().getModel()))
+                .andExpect(jsonPath("$.details.body").doesNotExist())
+                .andExpect(jsonPath("$.location").doesNotExist())
+                .andExpect(jsonPath("$.price").doesNotExist())
+                .andExpect(jsonPath("$._links.self.href").exists());
+        verify(carService).load(eq(CAR_ID), any(CarFields.class));    // projected load
+
+        mvc.perform(
+            get(new URI(CARS_URL))
+                        .param(CarController.FIELDS_PARAM, fields))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.cars", hasSize(1)))
+                .andExpect(jsonPath("$._embedded.cars[0].details.model").value(car.getDetails().getModel()))
+                .andExpect(jsonPath("$._embedded.cars[0].location").doesNotExist());
+
+        mvc.perform(
+            get(getIdUri(CARS_URL + CARS_GET_BY_ID_URL, car.getId()))
+                        .param(CarController.FIELDS_PARAM, "id,unknown"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Tests the search of cars returns a page of matching cars.
+     *
+     * @throws Exception if the search fails
+     */
+    @DisplayName("Search cars")
+    @Test
+    public void searchCars() throws Exception {
+        Car car = getCar(CAR_ID);
+        CarSearch search = new CarSearch();
+        search.setManufacturerCode(car.getDetails().getManufacturer().getCode());
+        search.setMinModelYear(2015);
+        search.setCondition(Condition.USED);
+        search.setMinLat(40.0);
+        search.setMaxLat(41.0);
+        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("id"));
+        given(carService.search(eq(search), eq(pageRequest)))
+                .willReturn(new PageImpl<>(List.of(car), pageRequest, 1));
+
+        mvc.perform(
+            get(new URI(CARS_URL + CARS_SEARCH_URL))
+                        .param("manufacturerCode", search.getManufacturerCode().toString())
+                        .param("minModelYear", "2015")
+                        .param("condition", Condition.USED.name())
+                        .param("minLat", "40.0")
+                        .param("maxLat", "41.0")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(HAL_JSON))
+                .andExpect(jsonPath("$._embedded.cars", hasSize(1)))
+                .andExpect(jsonPath("$._embedded.cars[0].id").value(CAR_ID))
+                .andExpect(jsonPath("$.page.totalElements").value(1));
+    }
+
+    /**
+     * Tests the cars near a location are returned.
+     *
+     * @throws Exception if the read operations fail
+     */
+    @DisplayName("Find cars near")
+    @Test
+    public void findCarsNear() throws Exception {
+        Car car = getCar(CAR_ID);
+        double lat = car.getLocation().getLat();
+        double lon = car.getLocation().getLon();
+        given(carService.near(lat, lon, 5.0)).willReturn(List.of(car));
+        given(carService.nearest(lat, lon, 1)).willReturn(List.of(car));
+
+        mvc.perform(
+            get(new URI(CARS_URL + CARS_NEAR_URL))
+                        .param(CarController.LATITUDE_PARAM, Double.toString(lat))
+                        .param(CarController.LONGITUDE_PARAM, Double.toString(lon))
+                        .param(CarController.RADIUS_PARAM, "5.0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.cars", hasSize(1)))
+                .andExpect(jsonPath("$._embedded.cars[0].id").value(CAR_ID));
+
+        mvc.perform(
+            get(new URI(CARS_URL + CARS_NEAREST_URL))
+                        .param(CarController.LATITUDE_PARAM, Double.toString(lat))
+                        .param(CarController.LONGITUDE_PARAM, Double.toString(lon))
+                        .param(CarController.K_PARAM, "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.cars", hasSize(1)));
     }
 
     /**
@@ -202,6 +399,57 @@ public class CarControllerTest {
         mvc.perform(
             delete(getIdUri(CARS_URL + CARS_DELETE_BY_ID_URL, nonExistentCar.getId())))
                 .andExpect(status().isBadRequest());
+
+        // no separate lookup of the car
+        verify(carService, never()).findById(any());
+    }
+
+    /**
+     * Tests the deletion of a list of cars by ID.
+     *
+     * @throws Exception if the delete operation of the vehicles fails
+     */
+    @DisplayName("Delete list of cars")
+    @Test
+    public void deleteCars() throws Exception {
+        List<Long> ids = List.of(CAR_ID, CAR_ID + 1);
+
+        given(carService.deleteAll(ids)).willReturn(1L);
+
+        mvc.perform(
+            delete(new URI(CARS_URL))
+                        .content(new ObjectMapper().writeValueAsString(ids))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1"));
+    }
+
+    /**
+     * Tests change events received by the webhook are published to subscribers.
+     *
+     * @throws Exception if the events are not received
+     */
+    @DisplayName("Receive change events")
+    @Test
+    public void receiveEvents() throws Exception {
+        List<ChangeEvent> events = List.of(
+                ChangeEvent.of(ChangeEvent.Type.PRICE, CAR_ID),
+                ChangeEvent.range(ChangeEvent.Type.ADDRESS, CAR_ID, CAR_ID + 10));
+        List<ChangeEvent> received = new CopyOnWriteArrayList<>();
+        Consumer<ChangeEvent> subscriber = received::add;
+        eventBus.subscribe(subscriber);
+
+        try {
+            mvc.perform(
+                post(new URI(EVENTS_URL))
+                            .content(new ObjectMapper().writeValueAsString(events))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isAccepted());
+
+            assertEquals(events, received);
+        } finally {
+            eventBus.unsubscribe(subscriber);
+        }
     }
 
     /**
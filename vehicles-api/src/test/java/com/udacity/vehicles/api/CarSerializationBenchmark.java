@@ -0,0 +1,181 @@
+package com.udacity.vehicles.api;
+
+import com.udacity.vehicles.client.maps.MapsClient;
+import com.udacity.vehicles.client.prices.PriceClient;
+import com.udacity.vehicles.domain.Condition;
+import com.udacity.vehicles.domain.Location;
+import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.domain.car.Details;
+import com.udacity.vehicles.domain.manufacturer.Manufacturer;
+import com.udacity.vehicles.service.CarService;
+import com.udacity.vehicles.service.ScheduledServiceTask;
+import com.udacity.vehicles.service.ServicesService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.udacity.vehicles.config.Config.CARS_URL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Measures the cost of assembling and serializing a list of 1k cars, comparing links built by recording
+ * controller method invocations with the assembler's link templates.
+ * Run with <code>mvn test -Dbenchmark=true -Dtest=CarSerializationBenchmark</code>
+ */
+@SpringBootTest(properties = {
+        "job.autorun.enabled=false", // don't run preload of addresses into database
+        "outbox.dispatch.interval=3600000"
+})
+@AutoConfigureMockMvc
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CarSerializationBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(CarSerializationBenchmark.class);
+
+    private static final int CARS = 1_000;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1_000;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private CarResourceAssembler assembler;
+
+    @MockBean
+    private CarService carService;
+
+    @MockBean
+    private PriceClient priceClient;
+
+    @MockBean
+    private MapsClient mapsClient;
+
+    @MockBean
+    private ScheduledServiceTask scheduledServiceTask;
+
+    @MockBean
+    private ServicesService servicesService;
+
+    private List<Car> cars;
+
+    @BeforeEach
+    public void beforeEach() {
+        cars = LongStream.rangeClosed(1, CARS)
+                .mapToObj(CarSerializationBenchmark::getCar)
+                .collect(Collectors.toList());
+        given(carService.loadAll(any())).willReturn(cars);
+        given(carService.enrich(any(), any())).willAnswer(invocation -> invocation.getArgument(0));
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    public void afterEach() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @DisplayName("Benchmark link building per 1k cars")
+    @Test
+    public void benchmarkLinks() {
+        double recorded = time(car -> EntityModel.of(car,
+                linkTo(methodOn(CarController.class).get(car.getId(), null, null)).withSelfRel(),
+                linkTo(methodOn(CarController.class).list(null, null)).withRel("cars")));
+        double templated = time(assembler::toModel);
+
+        log.info("Recorded invocation links: {} us/1k cars", recorded);
+        log.info("Templated links          : {} us/1k cars", templated);
+
+        assertTrue(templated < recorded, "Templated links not quicker than recorded invocation links");
+    }
+
+    @DisplayName("Benchmark list of 1k cars")
+    @Test
+    public void benchmarkList() throws Exception {
+        URI uri = new URI(CARS_URL);
+        String body = "";
+        for (int i = 0; i < WARMUP; i++) {
+            body = mvc.perform(get(uri)).andReturn().getResponse().getContentAsString();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            body = mvc.perform(get(uri)).andReturn().getResponse().getContentAsString();
+        }
+        double requestMicros = (System.nanoTime() - start) / 1000.0 / ITERATIONS;
+
+        int bytes = body.getBytes().length;
+        int gzipBytes = gzip(body.getBytes()).length;
+        log.info("List: {} us/request, {} bytes, {} bytes gzipped", requestMicros, bytes, gzipBytes);
+
+        assertEquals(CARS, body.split("\"_links\"").length - 2);    // a link per car plus one for the list
+        assertTrue(gzipBytes < bytes);
+    }
+
+    private double time(Function<Car, EntityModel<Car>> toModel) {
+        for (int i = 0; i < WARMUP; i++) {
+            cars.forEach(toModel::apply);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            cars.forEach(toModel::apply);
+        }
+        return (System.nanoTime() - start) / 1000.0 / ITERATIONS;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static Car getCar(long id) {
+        Car car = new Car();
+        car.setId(id);
+        car.setLocation(new Location(40.730610, -73.935242));
+        Details details = new Details();
+        details.setManufacturer(new Manufacturer(101, "Chevrolet"));
+        details.setModel("Impala");
+        details.setMileage(32280);
+        details.setExternalColor("white");
+        details.setBody("sedan");
+        details.setEngine("3.6L V6");
+        details.setFuelType("Gasoline");
+        details.setModelYear(2018);
+        details.setProductionYear(2018);
+        details.setNumberOfDoors(4);
+        car.setDetails(details);
+        car.setCondition(Condition.USED);
+        return car;
+    }
+}
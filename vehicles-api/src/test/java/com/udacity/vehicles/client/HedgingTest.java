@@ -0,0 +1,67 @@
+package com.udacity.vehicles.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Implements testing of the Hedging class.
+ */
+public class HedgingTest {
+
+    /**
+     * Tests a slow request is hedged to another instance and the first successful response wins, while fast
+     * requests, requests with no other instance, and requests which fail before the hedging delay are not hedged.
+     */
+    @DisplayName("Hedge requests")
+    @Test
+    public void hedging() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Hedging hedging = new Hedging("test-service", registry, 0.95, 20);
+        URI alternateUri = URI.create("http://localhost:8083");
+        AtomicInteger hedges = new AtomicInteger();
+        Function<URI, Mono<String>> alternate = uri -> {
+            hedges.incrementAndGet();
+            assertEquals(alternateUri, uri);
+            return Mono.just("hedge");
+        };
+
+        // slow primary is hedged, and the hedge wins
+        assertEquals("hedge", hedging.hedge(
+                Mono.delay(Duration.ofMillis(500)).thenReturn("primary"), alternate, alternateUri).block());
+        assertEquals(1, hedges.get());
+        assertEquals(1, registry.get(Hedging.WINS_METRIC).tag("winner", "hedge").counter().count());
+
+        // fast primary is not hedged
+        assertEquals("primary", hedging.hedge(Mono.just("primary"), alternate, alternateUri).block());
+        assertEquals(1, hedges.get());
+
+        // no other instance to hedge to
+        assertEquals("primary", hedging.hedge(
+                Mono.delay(Duration.ofMillis(100)).thenReturn("primary"), alternate, null).block());
+        assertEquals(1, hedges.get());
+
+        assertEquals(1, registry.get(Hedging.REQUESTS_METRIC).tag("hedged", "true").counter().count());
+        assertEquals(2, registry.get(Hedging.REQUESTS_METRIC).tag("hedged", "false").counter().count());
+        assertEquals(1.0 / 3, registry.get(Hedging.RATE_METRIC).gauge().value(), 0.001);
+
+        // hedge which fails fast doesn't win
+        assertEquals("primary", hedging.hedge(
+                Mono.delay(Duration.ofMillis(200)).thenReturn("primary"),
+                uri -> Mono.error(new IllegalStateException("hedge failed")), alternateUri).block());
+
+        // primary which fails before the hedge is sent is not hedged
+        assertThrows(IllegalArgumentException.class, () -> hedging.hedge(
+                Mono.<String>error(new IllegalArgumentException("primary failed")), alternate, alternateUri).block());
+        assertEquals(1, hedges.get());
+    }
+}
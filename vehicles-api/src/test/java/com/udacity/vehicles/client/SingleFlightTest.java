@@ -0,0 +1,93 @@
+package com.udacity.vehicles.client;
+
+import com.udacity.deadline.Deadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Implements testing of the SingleFlight class.
+ */
+public class SingleFlightTest {
+
+    /**
+     * Tests concurrent calls for the same key share the result of the call in flight, waiting no longer than the
+     * deadline of the current request, and are counted in the coalesced metrics.
+     *
+     * @throws Exception if interrupted or a call fails
+     */
+    @DisplayName("Single-flight lookups")
+    @Test
+    public void singleFlight() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SingleFlight<Long, String> flight = new SingleFlight<>("test-service", registry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> leader = executor.submit(() -> flight.execute(1L, () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "leader";
+            }));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            // concurrent lookups of the same key share the in-flight call
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                followers.add(executor.submit(() -> flight.execute(1L, () -> {
+                    calls.incrementAndGet();
+                    return "follower";
+                })));
+            }
+            Counter coalesced = registry.get(SingleFlight.REQUESTS_METRIC).tag("coalesced", "true").counter();
+            while (coalesced.count() < followers.size()) {
+                Thread.sleep(1);
+            }
+            // a different key isn't coalesced
+            assertEquals("other", flight.execute(2L, () -> "other"));
+
+            // a follower waits no longer than its deadline
+            Deadline.bind(Deadline.in(50));
+            try {
+                assertNull(flight.execute(1L, () -> "expired"));
+            } finally {
+                Deadline.clear();
+            }
+
+            release.countDown();
+            assertEquals("leader", leader.get(10, TimeUnit.SECONDS));
+            for (Future<String> follower : followers) {
+                assertEquals("leader", follower.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+            assertEquals(0, flight.inFlight());
+            assertEquals(4.0 / 6, registry.get(SingleFlight.COALESCED_RATIO_METRIC).gauge().value(), 0.001);
+
+            // once complete, the next lookup makes a new call
+            assertEquals("next", flight.execute(1L, () -> "next"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
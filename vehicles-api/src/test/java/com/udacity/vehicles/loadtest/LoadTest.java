@@ -0,0 +1,400 @@
+package com.udacity.vehicles.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.udacity.vehicles.VehiclesApiApplication;
+import com.udacity.vehicles.domain.Condition;
+import com.udacity.vehicles.domain.Location;
+import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.domain.car.Details;
+import com.udacity.vehicles.domain.manufacturer.Manufacturer;
+import com.udacity.vehicles.service.PreloadRunner;
+import com.udacity.vehicles.service.ServicesService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.udacity.vehicles.config.Config.CARS_URL;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test of the full Vehicles stack on a single machine, without network access.
+ * <p>
+ * The application is started against in-process stand-ins for the Pricing and Maps services (see
+ * {@link StubService}), which are found by the static discovery client configured from
+ * <code>spring.cloud.discovery.client.simple.instances</code> in place of Eureka. A mixed workload of vehicle
+ * GET/POST/PUT/DELETE requests is then sent from a number of concurrent clients, and the throughput and latency
+ * percentiles of each type of request are reported.
+ * <p>
+ * Run with <code>mvn test -Dbenchmark=true -Dtest=LoadTest</code>, optionally setting:
+ * <ul>
+ *     <li><code>loadtest.clients</code> - number of concurrent clients, default 16</li>
+ *     <li><code>loadtest.duration</code> - measured duration in seconds, default 30</li>
+ *     <li><code>loadtest.warmup</code> - unmeasured warmup in seconds, default 10</li>
+ *     <li><code>loadtest.cars</code> - number of vehicles created before the run, default 200</li>
+ *     <li><code>loadtest.mix</code> - relative weights of request types, default
+ *     <code>get=70,post=10,put=10,delete=10</code></li>
+ *     <li><code>loadtest.stub.latency</code>, <code>.jitter</code> - stand-in response delay in ms, default 5 + 0-5</li>
+ *     <li><code>loadtest.stub.error-rate</code> - fraction of stand-in requests which fail, default 0.01</li>
+ *     <li><code>loadtest.pricing.*</code>, <code>loadtest.maps.*</code> - per service overrides of the above</li>
+ * </ul>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final Manufacturer MANUFACTURER = new Manufacturer(101, "Chevrolet");
+
+    enum Operation { GET, POST, PUT, DELETE }
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private URI baseUri;
+    /** ids of vehicles available to get, update and delete */
+    private final List<Long> carIds = new ArrayList<>();
+    private final ReentrantLock carIdsLock = new ReentrantLock();
+
+    @DisplayName("Load test mixed workload")
+    @Test
+    public void loadTest() throws Exception {
+        int clients = Integer.getInteger("loadtest.clients", 16);
+        long duration = Long.getLong("loadtest.duration", 30);
+        long warmup = Long.getLong("loadtest.warmup", 10);
+        int cars = Integer.getInteger("loadtest.cars", 200);
+        Map<Operation, Integer> mix = parseMix(System.getProperty("loadtest.mix", "get=70,post=10,put=10,delete=10"));
+
+        try (StubService pricing = StubService.pricing(StubService.Settings.of("pricing")).start();
+             StubService maps = StubService.maps(StubService.Settings.of("maps")).start();
+             ConfigurableApplicationContext context = start(pricing, maps)) {
+
+            awaitReady(context);
+            baseUri = URI.create("http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port"));
+            for (int i = 0; i < cars; i++) {
+                execute(Operation.POST, new Recorder());
+            }
+
+            run(clients, warmup, mix);
+            long pricingRequests = pricing.getRequests();
+            long mapsRequests = maps.getRequests();
+            Recorder result = run(clients, duration, mix);
+
+            log.info("Load test: {} clients, {} s, mix {}, {} vehicles", clients, duration, mix, cars);
+            log.info("Pricing stub: {}, {} requests", StubService.Settings.of("pricing"),
+                    pricing.getRequests() - pricingRequests);
+            log.info("Maps stub   : {}, {} requests", StubService.Settings.of("maps"),
+                    maps.getRequests() - mapsRequests);
+            log.info(String.format("%-7s %9s %7s %9s %9s %9s %9s %9s %9s",
+                    "", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+            for (Operation operation : Operation.values()) {
+                log.info(result.report(operation, duration));
+            }
+            log.info(result.report(null, duration));
+
+            assertTrue(result.latencies(null).length > 0, "No requests completed");
+        }
+    }
+
+    /**
+     * Start the application, using the stand-in services
+     * @return application context
+     */
+    private static ConfigurableApplicationContext start(StubService pricing, StubService maps) {
+        return new SpringApplicationBuilder(VehiclesApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "server.address=127.0.0.1",
+                        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                        "eureka.client.enabled=false",
+                        "spring.cloud.discovery.client.simple.instances.pricing-service[0].uri=" + pricing.getUri(),
+                        "spring.cloud.discovery.client.simple.instances.maps-service[0].uri=" + maps.getUri(),
+                        "logging.level.org.springframework=INFO",
+                        "logging.level.web=INFO",
+                        // failed stand-in requests are expected
+                        "logging.level.com.udacity.vehicles.client=ERROR")
+                .run();
+    }
+
+    /**
+     * Wait for the preloads to complete and the stand-in services to be configured
+     * @param context - application context
+     */
+    private static void awaitReady(ConfigurableApplicationContext context) throws InterruptedException {
+        PreloadRunner preloads = context.getBean(PreloadRunner.class);
+        ServicesService services = context.getBean(ServicesService.class);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (!(preloads.isComplete() && services.allConfigured()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(services.allConfigured(), () -> "Services not configured: " + services.getNotConfigured());
+    }
+
+    /**
+     * Run the workload
+     * @param clients - number of concurrent clients
+     * @param seconds - duration
+     * @param mix - relative weights of request types
+     * @return combined results of the clients
+     */
+    private Recorder run(int clients, long seconds, Map<Operation, Integer> mix) throws Exception {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<Recorder>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> {
+                    Recorder recorder = new Recorder();
+                    while (System.nanoTime() < end) {
+                        execute(pick(mix), recorder);
+                    }
+                    return recorder;
+                }));
+            }
+            Recorder result = new Recorder();
+            for (Future<Recorder> future : futures) {
+                result.add(future.get());
+            }
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Send a request and record its latency
+     * @param operation - type of request
+     * @param recorder - recorder of results
+     */
+    private void execute(Operation operation, Recorder recorder) throws IOException, InterruptedException {
+        Long id = null;
+        if (operation != Operation.POST) {
+            id = operation == Operation.DELETE ? takeCarId() : randomCarId();
+            if (id == null) {
+                operation = Operation.POST;     // no vehicles left, so create one
+            }
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .timeout(Duration.ofSeconds(30))
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        switch (operation) {
+            case GET:
+                builder.uri(carUri(id)).GET();
+                break;
+            case POST:
+                builder.uri(baseUri.resolve(CARS_URL))
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(newCar())));
+                break;
+            case PUT:
+                builder.uri(carUri(id))
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .PUT(HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(newCar())));
+                break;
+            case DELETE:
+                builder.uri(carUri(id)).DELETE();
+                break;
+            default:
+                throw new UnsupportedOperationException(operation.name() + " is not supported");
+        }
+
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+        long latency = System.nanoTime() - start;
+
+        boolean success = response.statusCode() >= 200 && response.statusCode() < 300;
+        recorder.record(operation, latency, success);
+        if (operation == Operation.POST && success) {
+            JsonNode id = mapper.readTree(response.body()).get("id");
+            if (id != null) {
+                addCarId(id.asLong());
+            }
+        }
+    }
+
+    private URI carUri(Long id) {
+        return baseUri.resolve(CARS_URL + "/" + id);
+    }
+
+    private static Operation pick(Map<Operation, Integer> mix) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int value = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            value -= entry.getValue();
+            if (value < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Invalid mix " + mix);
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String weight : mix.split(",")) {
+            String[] pair = weight.trim().split("=");
+            weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+        }
+        assertTrue(weights.values().stream().mapToInt(Integer::intValue).sum() > 0, "Invalid mix " + mix);
+        return weights;
+    }
+
+    private static Car newCar() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Car car = new Car();
+        car.setLocation(new Location(random.nextDouble(-80, 80), random.nextDouble(-180, 180)));
+        Details details = new Details();
+        details.setManufacturer(MANUFACTURER);
+        details.setModel("Impala");
+        details.setMileage(random.nextInt(200_000));
+        details.setExternalColor("white");
+        details.setBody("sedan");
+        details.setEngine("3.6L V6");
+        details.setFuelType("Gasoline");
+        details.setModelYear(2010 + random.nextInt(10));
+        details.setProductionYear(2020);
+        details.setNumberOfDoors(4);
+        car.setDetails(details);
+        car.setCondition(random.nextBoolean() ? Condition.NEW : Condition.USED);
+        return car;
+    }
+
+    private void addCarId(Long id) {
+        carIdsLock.lock();
+        try {
+            carIds.add(id);
+        } finally {
+            carIdsLock.unlock();
+        }
+    }
+
+    private Long randomCarId() {
+        carIdsLock.lock();
+        try {
+            return carIds.isEmpty() ? null : carIds.get(ThreadLocalRandom.current().nextInt(carIds.size()));
+        } finally {
+            carIdsLock.unlock();
+        }
+    }
+
+    private Long takeCarId() {
+        carIdsLock.lock();
+        try {
+            if (carIds.isEmpty()) {
+                return null;
+            }
+            // swap with last to remove in constant time
+            int index = ThreadLocalRandom.current().nextInt(carIds.size());
+            Long id = carIds.get(index);
+            carIds.set(index, carIds.get(carIds.size() - 1));
+            carIds.remove(carIds.size() - 1);
+            return id;
+        } finally {
+            carIdsLock.unlock();
+        }
+    }
+
+    /**
+     * Records the latencies of the requests made by a client
+     */
+    private static class Recorder {
+        private final long[][] latencies = new long[Operation.values().length][1024];
+        private final int[] counts = new int[Operation.values().length];
+        private final int[] errors = new int[Operation.values().length];
+
+        void record(Operation operation, long latency, boolean success) {
+            int index = operation.ordinal();
+            if (counts[index] == latencies[index].length) {
+                latencies[index] = Arrays.copyOf(latencies[index], latencies[index].length * 2);
+            }
+            latencies[index][counts[index]++] = latency;
+            if (!success) {
+                errors[index]++;
+            }
+        }
+
+        void add(Recorder other) {
+            for (Operation operation : Operation.values()) {
+                for (long latency : other.latencies(operation)) {
+                    record(operation, latency, true);
+                }
+                errors[operation.ordinal()] += other.errors[operation.ordinal()];
+            }
+        }
+
+        /**
+         * Get the recorded latencies, sorted
+         * @param operation - type of request, or <code>null</code> for all
+         * @return latencies in ns
+         */
+        long[] latencies(Operation operation) {
+            long[] values;
+            if (operation == null) {
+                values = Arrays.stream(Operation.values())
+                        .flatMapToLong(op -> Arrays.stream(latencies(op)))
+                        .toArray();
+            } else {
+                values = Arrays.copyOf(latencies[operation.ordinal()], counts[operation.ordinal()]);
+            }
+            Arrays.sort(values);
+            return values;
+        }
+
+        /**
+         * Format the throughput and latency percentiles of requests
+         * @param operation - type of request, or <code>null</code> for all
+         * @param seconds - duration of run
+         * @return report line
+         */
+        String report(Operation operation, long seconds) {
+            long[] sorted = latencies(operation);
+            int failed = operation == null ? Arrays.stream(errors).sum() : errors[operation.ordinal()];
+            StringBuilder sb = new StringBuilder(String.format("%-7s %9d %7d %9.1f",
+                    operation == null ? "ALL" : operation.name(), sorted.length, failed,
+                    sorted.length / (double) seconds));
+            for (double percentile : PERCENTILES) {
+                sb.append(String.format(" %9.2f", millis(percentile(sorted, percentile))));
+            }
+            sb.append(String.format(" %9.2f", millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1])));
+            return sb.toString();
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            return sorted.length == 0 ? 0 : sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
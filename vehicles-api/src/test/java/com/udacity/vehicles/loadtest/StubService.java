@@ -0,0 +1,316 @@
+package com.udacity.vehicles.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.udacity.vehicles.client.maps.Address;
+import com.udacity.vehicles.client.prices.Price;
+import com.udacity.vehicles.client.prices.PriceRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.udacity.vehicles.client.prices.PriceClient.VEHICLE_ID_PARAM;
+import static com.udacity.vehicles.config.Config.*;
+
+/**
+ * In-process stand-in for a microservice, serving json over HTTP on the loopback interface.
+ * Each response is delayed by the configured latency plus a random jitter, and a fraction of requests fail with
+ * <code>503 Service Unavailable</code>.
+ * <p>
+ * {@link #pricing(Settings)} and {@link #maps(Settings)} create stand-ins for the endpoints of the Pricing and Maps
+ * services used by the vehicles clients, keeping prices and address allocations in memory.
+ */
+class StubService implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Handles a request
+     */
+    @FunctionalInterface
+    interface Handler {
+        /**
+         * Handle a request
+         * @param request - request
+         * @return response body, or <code>null</code> to respond with <code>404 Not Found</code>
+         * @throws IOException if the request body could not be read
+         */
+        Object handle(Request request) throws IOException;
+    }
+
+    private final String name;
+    private final Settings settings;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    /** handlers by method and path; a path ending in '/' matches all paths under it */
+    private final Map<String, Handler> routes;
+    private final AtomicLong requests;
+    private final AtomicLong injectedErrors;
+
+    /**
+     * Constructor
+     * @param name - name of service
+     * @param settings - latency and error injection settings
+     * @throws IOException if the server could not be created
+     */
+    StubService(String name, Settings settings) throws IOException {
+        this.name = name;
+        this.settings = settings;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.executor = Executors.newFixedThreadPool(settings.threads);
+        this.routes = new LinkedHashMap<>();
+        this.requests = new AtomicLong();
+        this.injectedErrors = new AtomicLong();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Add a route
+     * @param method - request method
+     * @param path - request path
+     * @param handler - request handler
+     * @return this
+     */
+    StubService route(HttpMethod method, String path, Handler handler) {
+        routes.put(method.name() + " " + path, handler);
+        return this;
+    }
+
+    StubService start() {
+        server.start();
+        return this;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Get the base uri of the service
+     * @return uri
+     */
+    URI getUri() {
+        InetSocketAddress address = server.getAddress();
+        return URI.create("http://" + address.getHostString() + ":" + address.getPort());
+    }
+
+    long getRequests() {
+        return requests.get();
+    }
+
+    long getInjectedErrors() {
+        return injectedErrors.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requests.incrementAndGet();
+            delay();
+
+            Handler handler = findHandler(exchange.getRequestMethod(), exchange.getRequestURI().getPath());
+            if (handler == null) {
+                exchange.sendResponseHeaders(HttpStatus.NOT_FOUND.value(), -1);
+            } else if (ThreadLocalRandom.current().nextDouble() < settings.errorRate) {
+                injectedErrors.incrementAndGet();
+                exchange.sendResponseHeaders(HttpStatus.SERVICE_UNAVAILABLE.value(), -1);
+            } else {
+                Object body = handler.handle(new Request(exchange));
+                if (body == null) {
+                    exchange.sendResponseHeaders(HttpStatus.NOT_FOUND.value(), -1);
+                } else {
+                    byte[] bytes = MAPPER.writeValueAsBytes(body);
+                    exchange.getResponseHeaders().set("Content-Type", MediaType.APPLICATION_JSON_VALUE);
+                    exchange.sendResponseHeaders(HttpStatus.OK.value(), bytes.length);
+                    try (OutputStream os = exchange.getResponseBody()) {
+                        os.write(bytes);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Handler findHandler(String method, String path) {
+        Handler handler = routes.get(method + " " + path);
+        if (handler == null) {
+            handler = routes.entrySet().stream()
+                    .filter(e -> e.getKey().endsWith("/") && (method + " " + path).startsWith(e.getKey()))
+                    .map(Map.Entry::getValue)
+                    .findFirst()
+                    .orElse(null);
+        }
+        return handler;
+    }
+
+    private void delay() throws InterruptedException {
+        long delay = settings.latency;
+        if (settings.jitter > 0) {
+            delay += ThreadLocalRandom.current().nextLong(settings.jitter + 1);
+        }
+        if (delay > 0) {
+            TimeUnit.MILLISECONDS.sleep(delay);
+        }
+    }
+
+    /**
+     * Create a stand-in for the Pricing service
+     * @param settings - latency and error injection settings
+     * @return service, not started
+     * @throws IOException if the server could not be created
+     */
+    static StubService pricing(Settings settings) throws IOException {
+        Map<Long, Price> prices = new ConcurrentHashMap<>();
+        return new StubService("pricing", settings)
+                .route(HttpMethod.PUT, PRICING_QUOTE_BY_VEHICLEID_URL.replace("{" + VEHICLE_ID_PARAM + "}", ""),
+                        request -> {
+                            PriceRequest priceRequest = request.body(PriceRequest.class);
+                            Long vehicleId = Long.valueOf(request.lastSegment());
+                            Price price = Price.of(priceRequest.getCurrency(),
+                                    BigDecimal.valueOf(5000 + ThreadLocalRandom.current().nextInt(50_000)), vehicleId);
+                            prices.put(vehicleId, price);
+                            return price;
+                        })
+                .route(HttpMethod.GET, PRICING_LEAN_GET_BY_VEHICLEID_URL,
+                        request -> prices.get(request.longParam(VEHICLE_ID_PARAM)))
+                .route(HttpMethod.GET, PRICING_LEAN_COUNT_URL,
+                        request -> (long) prices.size())
+                .route(HttpMethod.GET, PRICING_DELETE_BY_VEHICLEID_URL,
+                        request -> prices.remove(request.longParam(VEHICLE_ID_PARAM)) == null ? 0L : 1L)
+                .route(HttpMethod.POST, PRICING_LEAN_DELETE_URL,
+                        request -> request.body(new TypeReference<List<Long>>() {}).stream()
+                                .filter(vehicleId -> prices.remove(vehicleId) != null)
+                                .count());
+    }
+
+    /**
+     * Create a stand-in for the Maps service
+     * @param settings - latency and error injection settings
+     * @return service, not started
+     * @throws IOException if the server could not be created
+     */
+    static StubService maps(Settings settings) throws IOException {
+        Map<Long, Address> allocations = new ConcurrentHashMap<>();
+        return new StubService("maps", settings)
+                .route(HttpMethod.GET, MAPS_GET_URL,
+                        request -> allocations.computeIfAbsent(request.longParam(VEHICLE_ID_PARAM),
+                                vehicleId -> Address.of(vehicleId + " Main Street", "Springfield", "IL", "62701")))
+                .route(HttpMethod.DELETE, MAPS_DELETE_URL,
+                        request -> allocations.remove(request.longParam(VEHICLE_ID_PARAM)) == null ? 0L : 1L)
+                .route(HttpMethod.POST, MAPS_RELEASE_URL,
+                        request -> request.body(new TypeReference<List<Long>>() {}).stream()
+                                .filter(vehicleId -> allocations.remove(vehicleId) != null)
+                                .count())
+                .route(HttpMethod.GET, VEHICLES_GET_URL,
+                        request -> (long) allocations.size());
+    }
+
+    /**
+     * Request to a stub service
+     */
+    static class Request {
+        private final HttpExchange exchange;
+        private final Map<String, String> query;
+
+        Request(HttpExchange exchange) {
+            this.exchange = exchange;
+            this.query = new HashMap<>();
+            String rawQuery = exchange.getRequestURI().getRawQuery();
+            if (rawQuery != null) {
+                for (String param : rawQuery.split("&")) {
+                    String[] pair = param.split("=", 2);
+                    query.put(URLDecoder.decode(pair[0], StandardCharsets.UTF_8),
+                            pair.length > 1 ? URLDecoder.decode(pair[1], StandardCharsets.UTF_8) : "");
+                }
+            }
+        }
+
+        Long longParam(String name) {
+            return Long.valueOf(query.get(name));
+        }
+
+        String lastSegment() {
+            String path = exchange.getRequestURI().getPath();
+            return path.substring(path.lastIndexOf('/') + 1);
+        }
+
+        <T> T body(Class<T> type) throws IOException {
+            return MAPPER.readValue(exchange.getRequestBody(), type);
+        }
+
+        <T> T body(TypeReference<T> type) throws IOException {
+            return MAPPER.readValue(exchange.getRequestBody(), type);
+        }
+    }
+
+    /**
+     * Latency and error injection settings of a stub service, read from the system properties
+     * <code>loadtest.&lt;name&gt;.latency</code>, <code>.jitter</code>, <code>.error-rate</code> and
+     * <code>.threads</code>, defaulting to the <code>loadtest.stub.*</code> properties.
+     */
+    static class Settings {
+        /** fixed delay of each response in ms */
+        final long latency;
+        /** maximum random delay in ms added to the fixed delay */
+        final long jitter;
+        /** fraction of requests which fail */
+        final double errorRate;
+        /** number of request handling threads */
+        final int threads;
+
+        Settings(long latency, long jitter, double errorRate, int threads) {
+            this.latency = latency;
+            this.jitter = jitter;
+            this.errorRate = errorRate;
+            this.threads = threads;
+        }
+
+        static Settings of(String name) {
+            return new Settings(
+                    Long.parseLong(property(name, "latency", "5")),
+                    Long.parseLong(property(name, "jitter", "5")),
+                    Double.parseDouble(property(name, "error-rate", "0.01")),
+                    Integer.parseInt(property(name, "threads", "32")));
+        }
+
+        private static String property(String name, String setting, String defaultValue) {
+            return System.getProperty("loadtest." + name + "." + setting,
+                    System.getProperty("loadtest.stub." + setting, defaultValue));
+        }
+
+        @Override
+        public String toString() {
+            return "latency " + latency + "+" + jitter + " ms, error rate " + errorRate;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.domain.Condition;
+import com.udacity.vehicles.domain.Location;
+import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.domain.car.CarRepository;
+import com.udacity.vehicles.domain.car.Details;
+import com.udacity.vehicles.domain.manufacturer.Manufacturer;
+import com.udacity.vehicles.domain.manufacturer.ManufacturerRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Implements testing of the CarFields class.
+ */
+@SpringBootTest(properties = {
+        "job.autorun.enabled=false", // don't run preload of addresses into database
+        "outbox.dispatch.interval=3600000"  // don't dispatch outbox during tests
+})
+public class CarFieldsTest {
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private ManufacturerRepository manufacturerRepository;
+
+    /**
+     * Tests the projection query only reads the required fields, and price and address are only required
+     * when requested.
+     */
+    @DisplayName("Projected fields")
+    @Test
+    public void projectedFields() {
+        CarFields fields = CarFields.parse("condition,details.model");
+        assertFalse(fields.includesPrice());
+        assertFalse(fields.includesAddress());
+        assertTrue(CarFields.parse("price").includesPrice());
+        assertTrue(CarFields.parse("location").includesAddress());
+
+        Manufacturer manufacturer = getCar().getDetails().getManufacturer();
+        boolean addManufacturer = !manufacturerRepository.existsById(manufacturer.getCode());
+        if (addManufacturer) {
+            manufacturerRepository.save(manufacturer);
+        }
+        Car car = carRepository.save(getCar());
+
+        try {
+            List<Car> projected = carRepository.findProjected(fields.getColumns(), car.getId());
+            assertEquals(1, projected.size());
+            Car partial = projected.get(0);
+            assertEquals(car.getId(), partial.getId());
+            assertEquals(car.getCondition(), partial.getCondition());
+            assertEquals(car.getDetails().getModel(), partial.getDetails().getModel());
+            assertNull(partial.getDetails().getBody());
+            assertNull(partial.getDetails().getManufacturer());
+        } finally {
+            carRepository.deleteById(car.getId());
+            if (addManufacturer) {
+                manufacturerRepository.deleteById(manufacturer.getCode());
+            }
+        }
+    }
+
+    /**
+     * Creates an example Car object for use in testing.
+     *
+     * @return an example Car object
+     */
+    private Car getCar() {
+        Car car = new Car();
+        car.setLocation(new Location(40.730610, -73.935242));
+        Details details = new Details();
+        details.setManufacturer(new Manufacturer(101, "Chevrolet"));
+        details.setModel("Impala");
+        details.setMileage(32280);
+        details.setExternalColor("white");
+        details.setBody("sedan");
+        details.setEngine("3.6L V6");
+        details.setFuelType("Gasoline");
+        details.setModelYear(2018);
+        details.setProductionYear(2018);
+        details.setNumberOfDoors(4);
+        car.setDetails(details);
+        car.setCondition(Condition.USED);
+        return car;
+    }
+}
@@ -0,0 +1,50 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.domain.Location;
+import com.udacity.vehicles.domain.car.CarRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Implements testing of the CarLocationIndex class.
+ */
+public class CarLocationIndexTest {
+
+    /**
+     * Tests radius and nearest neighbour queries of the location index, including across the antimeridian, and
+     * that moved and removed cars are reindexed.
+     */
+    @DisplayName("Location index")
+    @Test
+    public void locationIndex() {
+        CarLocationIndex locationIndex = new CarLocationIndex(mock(CarRepository.class), 0.1);
+        locationIndex.update(1L, new Location(51.5074, -0.1278));     // London
+        locationIndex.update(2L, new Location(48.8566, 2.3522));      // Paris
+        locationIndex.update(3L, new Location(51.5200, -0.1000));     // ~2.5km from London
+        locationIndex.update(4L, new Location(0.0, 179.99));          // beside the antimeridian
+
+        assertEquals(List.of(1L, 3L), neighbourIds(locationIndex.within(51.5074, -0.1278, 10)));
+        assertEquals(List.of(1L, 3L), neighbourIds(locationIndex.nearest(51.5074, -0.1278, 2)));
+        assertEquals(2L, locationIndex.nearest(48.0, 2.0, 1).get(0).getId());
+        assertEquals(List.of(4L), neighbourIds(locationIndex.within(0.0, -179.99, 5)));
+
+        // moved & removed cars
+        locationIndex.update(3L, new Location(48.8600, 2.3500));
+        assertEquals(List.of(1L), neighbourIds(locationIndex.within(51.5074, -0.1278, 10)));
+        locationIndex.remove(List.of(1L));
+        assertTrue(locationIndex.within(51.5074, -0.1278, 10).isEmpty());
+    }
+
+    private static List<Long> neighbourIds(List<CarLocationIndex.Neighbour> neighbours) {
+        return neighbours.stream()
+                .map(CarLocationIndex.Neighbour::getId)
+                .collect(Collectors.toList());
+    }
+}
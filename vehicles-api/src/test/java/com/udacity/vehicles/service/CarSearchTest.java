@@ -0,0 +1,93 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.domain.Condition;
+import com.udacity.vehicles.domain.Location;
+import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.domain.car.CarRepository;
+import com.udacity.vehicles.domain.car.Details;
+import com.udacity.vehicles.domain.manufacturer.Manufacturer;
+import com.udacity.vehicles.domain.manufacturer.ManufacturerRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Implements testing of the CarSearch class.
+ */
+@SpringBootTest(properties = {
+        "job.autorun.enabled=false", // don't run preload of addresses into database
+        "outbox.dispatch.interval=3600000"  // don't dispatch outbox during tests
+})
+public class CarSearchTest {
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private ManufacturerRepository manufacturerRepository;
+
+    /**
+     * Tests the search criteria select the matching cars from the repository.
+     */
+    @DisplayName("Search specification")
+    @Test
+    public void searchSpecification() {
+        Manufacturer manufacturer = getCar().getDetails().getManufacturer();
+        boolean addManufacturer = !manufacturerRepository.existsById(manufacturer.getCode());
+        if (addManufacturer) {
+            manufacturerRepository.save(manufacturer);
+        }
+        Car car = carRepository.save(getCar());
+
+        try {
+            CarSearch search = new CarSearch();
+            search.setManufacturerCode(manufacturer.getCode());
+            search.setModel(car.getDetails().getModel());
+            search.setMinMileage(car.getDetails().getMileage() - 1);
+            search.setMaxMileage(car.getDetails().getMileage() + 1);
+            search.setMinLat(car.getLocation().getLat() - 0.1);
+            search.setMaxLat(car.getLocation().getLat() + 0.1);
+            search.setMinLon(car.getLocation().getLon() - 0.1);
+            search.setMaxLon(car.getLocation().getLon() + 0.1);
+            assertTrue(carRepository.findAll(search.toSpecification()).stream()
+                    .anyMatch(c -> c.getId().equals(car.getId())));
+
+            search.setMaxLat(car.getLocation().getLat() - 0.05);    // outside bounding box
+            assertFalse(carRepository.findAll(search.toSpecification()).stream()
+                    .anyMatch(c -> c.getId().equals(car.getId())));
+        } finally {
+            carRepository.deleteById(car.getId());
+            if (addManufacturer) {
+                manufacturerRepository.deleteById(manufacturer.getCode());
+            }
+        }
+    }
+
+    /**
+     * Creates an example Car object for use in testing.
+     *
+     * @return an example Car object
+     */
+    private Car getCar() {
+        Car car = new Car();
+        car.setLocation(new Location(40.730610, -73.935242));
+        Details details = new Details();
+        details.setManufacturer(new Manufacturer(101, "Chevrolet"));
+        details.setModel("Impala");
+        details.setMileage(32280);
+        details.setExternalColor("white");
+        details.setBody("sedan");
+        details.setEngine("3.6L V6");
+        details.setFuelType("Gasoline");
+        details.setModelYear(2018);
+        details.setProductionYear(2018);
+        details.setNumberOfDoors(4);
+        car.setDetails(details);
+        car.setCondition(Condition.USED);
+        return car;
+    }
+}
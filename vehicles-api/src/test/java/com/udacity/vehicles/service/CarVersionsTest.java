@@ -0,0 +1,45 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.client.maps.MapsClient;
+import com.udacity.vehicles.client.prices.PriceClient;
+import com.udacity.vehicles.domain.car.Car;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Implements testing of the CarVersions class.
+ */
+public class CarVersionsTest {
+
+    private static final long CACHE_TTL = 200;
+
+    /**
+     * Tests the validators of an unchanged car are weak and expire at the end of the cache period.
+     *
+     * @throws Exception if interrupted while waiting for the cache period to end
+     */
+    @DisplayName("Validators expire with cache")
+    @Test
+    public void validatorsExpireWithCache() throws Exception {
+        CarVersions versions = new CarVersions(mock(PriceClient.class), mock(MapsClient.class), CACHE_TTL);
+        Car car = new Car();
+        car.setId(1L);
+
+        String etag = versions.etag(car, null);
+        long lastModified = versions.lastModified(car);
+        assertTrue(etag.startsWith("W/\""), "weak tag");
+        assertEquals(etag, versions.etag(car, null));
+
+        TimeUnit.MILLISECONDS.sleep(CACHE_TTL + 1);
+
+        assertNotEquals(etag, versions.etag(car, null), "tag expired with cache period");
+        assertTrue(versions.lastModified(car) > lastModified, "modified at start of cache period");
+    }
+}
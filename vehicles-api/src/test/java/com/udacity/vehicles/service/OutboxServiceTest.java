@@ -0,0 +1,120 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.client.maps.MapsClient;
+import com.udacity.vehicles.client.prices.PriceClient;
+import com.udacity.vehicles.domain.outbox.OutboxOperation;
+import com.udacity.vehicles.domain.outbox.OutboxRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Implements testing of the OutboxService class.
+ */
+@SpringBootTest(properties = {
+        "job.autorun.enabled=false", // don't run preload of addresses into database
+        "outbox.dispatch.interval=3600000"  // outbox dispatched by tests
+})
+public class OutboxServiceTest {
+
+    private static final long VEHICLE_ID = 1L;
+
+    @MockBean
+    private PriceClient priceClient;
+
+    @MockBean
+    private MapsClient mapsClient;
+
+    @MockBean
+    private ScheduledServiceTask scheduledServiceTask;
+
+    @MockBean
+    private ServicesService servicesService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Value("${" + OutboxService.OUTBOX_MAX_ATTEMPTS + ":10}")
+    private int maxOutboxAttempts;
+
+    /**
+     * Tests dispatch of the downstream operations in the outbox, with failed operations retained for retry, until
+     * they reach the maximum number of attempts and are moved to the dead letters.
+     */
+    @DisplayName("Dispatch outbox")
+    @Test
+    public void dispatchOutbox() {
+        outboxRepository.deleteAll();
+        outboxRepository.saveAll(List.of(
+                OutboxOperation.of(OutboxOperation.Type.DELETE_PRICE, VEHICLE_ID),
+                OutboxOperation.of(OutboxOperation.Type.DELETE_PRICE, VEHICLE_ID + 1),
+                OutboxOperation.of(OutboxOperation.Type.RELEASE_ADDRESS, VEHICLE_ID),
+                OutboxOperation.of(OutboxOperation.Type.RELEASE_ADDRESS, VEHICLE_ID + 1)));
+
+        List<Long> vehicleIds = List.of(VEHICLE_ID, VEHICLE_ID + 1);
+        given(priceClient.delete(vehicleIds)).willReturn(null);    // request failure
+        given(mapsClient.release(vehicleIds)).willReturn(2L);
+
+        outboxService.dispatchAll();
+        verify(priceClient, times(1)).delete(vehicleIds);     // single bulk request per service
+        verify(mapsClient, times(1)).release(vehicleIds);
+
+        List<OutboxOperation> remaining = outboxRepository.findAll();
+        assertEquals(2, remaining.size());
+        for (OutboxOperation failed : remaining) {
+            assertEquals(OutboxOperation.Type.DELETE_PRICE, failed.getType());
+            assertEquals(1, failed.getAttempts());
+            assertEquals(OutboxOperation.Status.PENDING, failed.getStatus());
+            assertNull(failed.getClaimedBy());
+            assertTrue(failed.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        }
+        assertEquals(vehicleIds, remaining.stream()
+                .map(OutboxOperation::getVehicleId)
+                .sorted()
+                .collect(Collectors.toList()));
+
+        // not due yet, so not retried
+        outboxService.dispatchAll();
+        assertEquals(2, outboxService.count());
+
+        // final attempt fails
+        remaining.forEach(failed -> {
+            failed.setAttempts(maxOutboxAttempts - 1);
+            failed.setNextAttemptAt(LocalDateTime.now());
+        });
+        outboxRepository.saveAll(remaining);
+        outboxService.dispatchAll();
+        verify(priceClient, times(2)).delete(vehicleIds);
+
+        outboxRepository.findAll().forEach(failed ->
+                assertEquals(OutboxOperation.Status.DEAD_LETTER, failed.getStatus()));
+        assertEquals(0, outboxService.count());
+        assertEquals(2, outboxService.countDeadLetters());
+
+        // dead letters are not retried
+        remaining = outboxRepository.findAll();
+        remaining.forEach(failed -> failed.setNextAttemptAt(LocalDateTime.now()));
+        outboxRepository.saveAll(remaining);
+        outboxService.dispatchAll();
+        verify(priceClient, times(2)).delete(vehicleIds);
+
+        outboxRepository.deleteAll();
+    }
+}
@@ -0,0 +1,178 @@
+package com.udacity.vehicles.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.udacity.vehicles.client.maps.MapsClient;
+import com.udacity.vehicles.client.prices.PriceClient;
+import com.udacity.vehicles.domain.Condition;
+import com.udacity.vehicles.domain.Location;
+import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.domain.car.CarRepository;
+import com.udacity.vehicles.domain.car.Details;
+import com.udacity.vehicles.domain.manufacturer.Manufacturer;
+import com.udacity.vehicles.domain.manufacturer.ManufacturerRepository;
+import com.udacity.vehicles.domain.preload.PreloadResourceRepository;
+import com.udacity.vehicles.domain.preload.PreloadRow;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Implements testing of the PreloadService class.
+ */
+@SpringBootTest(properties = {
+        "job.autorun.enabled=false", // don't run preload of addresses into database
+        "outbox.dispatch.interval=3600000"  // don't dispatch outbox during tests
+})
+public class PreloadServiceTest {
+
+    @MockBean
+    private PriceClient priceClient;
+
+    @MockBean
+    private MapsClient mapsClient;
+
+    @MockBean
+    private ScheduledServiceTask scheduledServiceTask;
+
+    @MockBean
+    private ServicesService servicesService;
+
+    @Autowired
+    private PreloadService preloadService;
+
+    @Autowired
+    private PreloadResourceRepository preloadResourceRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private ManufacturerRepository manufacturerRepository;
+
+    @Autowired
+    private CarLocationIndex locationIndex;
+
+    /**
+     * Tests unchanged preload resources are skipped, and only the changed rows of changed resources are applied,
+     * matched by key or content.
+     */
+    @DisplayName("Preload resources incrementally")
+    @Test
+    public void preloadResources() throws Exception {
+        final String manufacturersName = "test-manufacturers.json";
+        final String carsName = "test-cars.json";
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        Manufacturer manufacturer = getCar().getDetails().getManufacturer();
+        boolean addManufacturer = !manufacturerRepository.existsById(manufacturer.getCode());
+        if (addManufacturer) {
+            manufacturerRepository.save(manufacturer);
+        }
+        Manufacturer preloaded = new Manufacturer(901, "Preloaded");
+        List<Long> ids = List.of();
+
+        try {
+            // only the new manufacturer is saved
+            byte[] manufacturers = objectMapper.writeValueAsBytes(List.of(manufacturer, preloaded));
+            assertEquals(1, preloadService.preloadManufacturers(manufacturersName, manufacturers));
+            assertTrue(manufacturerRepository.existsById(preloaded.getCode()));
+            assertEquals(PreloadService.UNCHANGED, preloadService.preloadManufacturers(manufacturersName, manufacturers));
+
+            Car car = getCar();
+            ObjectNode keyed = objectMapper.valueToTree(car);
+            keyed.put(PreloadService.ROW_KEY, "keyed");
+            byte[] cars = objectMapper.writeValueAsBytes(List.of(keyed));
+            assertEquals(1, preloadService.preloadCars(carsName, cars));
+            ids = preloadedIds(carsName);
+            assertEquals(1, ids.size());
+            Long keyedId = ids.get(0);
+            assertEquals(PreloadService.UNCHANGED, preloadService.preloadCars(carsName, cars));
+
+            // changed keyed row updates the same car, and row without key inserted before it adds a car
+            keyed.with("details").put("mileage", 40000);
+            Car unkeyed = getCar();
+            unkeyed.setCondition(Condition.NEW);
+            assertEquals(2, preloadService.preloadCars(carsName,
+                    objectMapper.writeValueAsBytes(List.of(objectMapper.valueToTree(unkeyed), keyed))));
+            ids = preloadedIds(carsName);
+            assertEquals(2, ids.size());
+            Long unkeyedId = ids.get(0);
+            assertEquals(keyedId, ids.get(1));
+            assertEquals(40000, carRepository.findById(keyedId).orElseThrow().getDetails().getMileage());
+
+            // car updated through the api isn't overwritten when its row is unchanged
+            Car updated = carRepository.findById(unkeyedId).orElseThrow();
+            updated.getDetails().setMileage(1234);
+            carRepository.save(updated);
+            Car added = getCar();
+            added.getDetails().setMileage(5678);
+            assertEquals(1, preloadService.preloadCars(carsName, objectMapper.writeValueAsBytes(
+                    List.of(objectMapper.valueToTree(unkeyed), keyed, objectMapper.valueToTree(added)))));
+            ids = preloadedIds(carsName);
+            assertEquals(List.of(unkeyedId, keyedId), ids.subList(0, 2));
+            assertEquals(1234, carRepository.findById(unkeyedId).orElseThrow().getDetails().getMileage());
+
+            // removing a row deletes its car, not the car of the following row
+            List<Long> beforeRemove = ids;
+            assertEquals(1, preloadService.preloadCars(carsName, objectMapper.writeValueAsBytes(
+                    List.of(keyed, objectMapper.valueToTree(added)))));
+            ids = preloadedIds(carsName);
+            assertEquals(beforeRemove.subList(1, 3), ids);
+            assertFalse(carRepository.existsById(unkeyedId));
+        } finally {
+            ids.forEach(carRepository::deleteById);
+            locationIndex.remove(ids);
+            for (String name : List.of(manufacturersName, carsName)) {
+                if (preloadResourceRepository.existsById(name)) {
+                    preloadResourceRepository.deleteById(name);
+                }
+            }
+            if (manufacturerRepository.existsById(preloaded.getCode())) {
+                manufacturerRepository.deleteById(preloaded.getCode());
+            }
+            if (addManufacturer) {
+                manufacturerRepository.deleteById(manufacturer.getCode());
+            }
+        }
+    }
+
+    private List<Long> preloadedIds(String name) {
+        return preloadResourceRepository.findById(name).orElseThrow().getRows().stream()
+                .map(PreloadRow::getEntityId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Creates an example Car object for use in testing.
+     *
+     * @return an example Car object
+     */
+    private Car getCar() {
+        Car car = new Car();
+        car.setLocation(new Location(40.730610, -73.935242));
+        Details details = new Details();
+        details.setManufacturer(new Manufacturer(101, "Chevrolet"));
+        details.setModel("Impala");
+        details.setMileage(32280);
+        details.setExternalColor("white");
+        details.setBody("sedan");
+        details.setEngine("3.6L V6");
+        details.setFuelType("Gasoline");
+        details.setModelYear(2018);
+        details.setProductionYear(2018);
+        details.setNumberOfDoors(4);
+        car.setDetails(details);
+        car.setCondition(Condition.USED);
+        return car;
+    }
+}
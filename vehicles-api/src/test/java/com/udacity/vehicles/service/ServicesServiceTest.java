@@ -0,0 +1,91 @@
+package com.udacity.vehicles.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Implements testing of the ServicesService class.
+ */
+public class ServicesServiceTest {
+
+    private static final String SERVICE_NAME = "pricing-service";
+
+    private final ServiceInstance first = new DefaultServiceInstance("first", SERVICE_NAME, "localhost", 8082, false);
+    private final ServiceInstance second = new DefaultServiceInstance("second", SERVICE_NAME, "localhost", 8083, false);
+
+    /**
+     * Tests a missing service is polled for until it is configured, and a configured service is switched to
+     * another available instance, or evicted when no instance is available.
+     */
+    @DisplayName("Refresh services")
+    @Test
+    public void refreshServices() {
+        DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+        TaskScheduler taskScheduler = mock(TaskScheduler.class);
+        ScheduledFuture<?> future = mock(ScheduledFuture.class);
+        given(taskScheduler.schedule(any(Runnable.class), any(Instant.class))).willAnswer(invocation -> future);
+
+        ServicesService services = new ServicesService(discoveryClient, builder -> {});
+        ScheduledServiceTask task = new ScheduledServiceTask(services, taskScheduler, 1000, 60000);
+        services.register(SERVICE_NAME);
+
+        // missing service is polled for
+        given(discoveryClient.getInstances(SERVICE_NAME)).willReturn(List.of());
+        task.checkServiceConfig();
+        assertFalse(services.isConfigured(SERVICE_NAME));
+        assertTrue(task.isPolling());
+
+        // polling stops once configured
+        given(discoveryClient.getInstances(SERVICE_NAME)).willReturn(List.of(first));
+        task.checkServiceConfig();
+        assertTrue(services.isConfigured(SERVICE_NAME));
+        assertFalse(task.isPolling());
+        verify(future).cancel(false);
+
+        // switched to available instance
+        given(discoveryClient.getInstances(SERVICE_NAME)).willReturn(List.of(second));
+        assertTrue(services.refresh().isEmpty());
+        assertEquals(second.getUri(), services.getServiceURI(SERVICE_NAME));
+        assertEquals(8083, services.setBaseUrl(SERVICE_NAME, new DefaultUriBuilderFactory().builder()).build().getPort());
+
+        // evicted when no instance available
+        given(discoveryClient.getInstances(SERVICE_NAME)).willReturn(List.of());
+        assertEquals(List.of(SERVICE_NAME), services.refresh());
+        assertFalse(services.isConfigured(SERVICE_NAME));
+    }
+
+    /**
+     * Tests the alternate instance of a service, used to hedge requests, is another available instance.
+     */
+    @DisplayName("Alternate instance")
+    @Test
+    public void alternateInstance() {
+        DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+        ServicesService services = new ServicesService(discoveryClient, builder -> {});
+        given(discoveryClient.getInstances(SERVICE_NAME)).willReturn(List.of(first));
+        services.register(SERVICE_NAME);
+        services.refresh();
+        assertNull(services.getAlternateURI(SERVICE_NAME));
+
+        given(discoveryClient.getInstances(SERVICE_NAME)).willReturn(List.of(first, second));
+        assertEquals(second.getUri(), services.getAlternateURI(SERVICE_NAME));
+    }
+}